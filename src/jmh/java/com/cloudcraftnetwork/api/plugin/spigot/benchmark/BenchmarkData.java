@@ -0,0 +1,118 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.benchmark;
+
+import com.cloudcraftnetwork.api.plugin.spigot.info.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Builds realistic info objects for the benchmarks.
+ */
+final class BenchmarkData {
+
+    /**
+     * The info classes covered by the benchmarks, as used by the "type" benchmark parameters.
+     */
+    static final String SERVER = "ServerInfo";
+    static final String PUBLIC_PLAYER = "PublicPlayerInfo";
+    static final String PRIVATE_PLAYER = "PrivatePlayerInfo";
+    static final String ITEM = "ItemInfo";
+    static final String PET = "PetInfo";
+    static final String COSTUME = "CostumeInfo";
+
+    /**
+     * The sizes of the collections of a well connected player.
+     */
+    private static final int FRIENDS = 200;
+    private static final int IGNORED = 25;
+    private static final int INVENTORY = 60;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Creates an info object.
+     *
+     * @param type   The simple name of the info class.
+     * @param random The source of randomness, seeded by the caller for reproducible runs.
+     * @return The info object.
+     */
+    static CloudCraftNetworkInfo create(String type, Random random) {
+        switch (type) {
+            case SERVER:
+                return new ServerInfo(uuid(random), "cloudcraftnetwork.lobby", "10.0.12.34:25565");
+            case PUBLIC_PLAYER:
+                Map<UUID, Integer> inventory = new HashMap<>();
+                for (int i = 0; i < INVENTORY; i++) {
+                    inventory.put(uuid(random), 1 + random.nextInt(64));
+                }
+                return new PublicPlayerInfo(
+                        uuid(random), 0, 0,
+                        uuids(random, FRIENDS), uuids(random, IGNORED),
+                        uuid(random), uuid(random),
+                        inventory
+                );
+            case PRIVATE_PLAYER:
+                return new PrivatePlayerInfo(uuid(random), random.nextInt(1000000), random.nextDouble() * 1000);
+            case ITEM:
+                return new ItemInfo(uuid(random), "DIAMOND_SWORD");
+            case PET:
+                return new PetInfo(uuid(random), "wolf", "Rex", System.currentTimeMillis(), "playful");
+            case COSTUME:
+                return new CostumeInfo(uuid(random));
+            default:
+                throw new IllegalArgumentException("Unknown info type " + type);
+        }
+    }
+
+    /**
+     * Returns the class of an info type.
+     *
+     * @param type The simple name of the info class.
+     * @return The info class.
+     */
+    static Class<? extends CloudCraftNetworkInfo> infoClass(String type) {
+        return create(type, new Random(0)).getClass();
+    }
+
+    static UUID uuid(Random random) {
+        return new UUID(random.nextLong(), random.nextLong());
+    }
+
+    private static Set<UUID> uuids(Random random, int count) {
+        Set<UUID> uuids = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            uuids.add(uuid(random));
+        }
+        return uuids;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.benchmark;
+
+import com.cloudcraftnetwork.api.plugin.spigot.info.CloudCraftNetworkInfo;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of {@link CloudCraftNetworkInfo#createKey()}, which runs on every get, put and cache lookup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreateKeyBenchmark {
+
+    @Param({
+            BenchmarkData.SERVER,
+            BenchmarkData.PUBLIC_PLAYER,
+            BenchmarkData.PRIVATE_PLAYER,
+            BenchmarkData.ITEM,
+            BenchmarkData.PET
+    })
+    public String type;
+
+    private CloudCraftNetworkInfo info;
+
+    @Setup
+    public void setUp() {
+        info = BenchmarkData.create(type, new Random(42));
+    }
+
+    @Benchmark
+    public String createKey() {
+        return info.createKey();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.benchmark;
+
+import com.cloudcraftnetwork.api.plugin.spigot.info.CloudCraftNetworkInfo;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.InfoCodec;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.ReusableByteArrayOutputStream;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.StorageFormat;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput and allocation rate of serializing and parsing every info class, in every storage format.
+ * Run with the gc profiler (the default of the jmh task) to see the bytes allocated per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InfoSerializationBenchmark {
+
+    @Param({
+            BenchmarkData.SERVER,
+            BenchmarkData.PUBLIC_PLAYER,
+            BenchmarkData.PRIVATE_PLAYER,
+            BenchmarkData.ITEM,
+            BenchmarkData.PET,
+            BenchmarkData.COSTUME
+    })
+    public String type;
+
+    @Param({"JSON", "SMILE"})
+    public StorageFormat format;
+
+    private final InfoCodec codec = new InfoCodec();
+    private CloudCraftNetworkInfo info;
+    private Class<? extends CloudCraftNetworkInfo> infoClass;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() throws IOException {
+        info = BenchmarkData.create(type, new Random(42));
+        infoClass = info.getClass();
+        ReusableByteArrayOutputStream buffer = codec.write(info, format);
+        serialized = new byte[buffer.size()];
+        System.arraycopy(buffer.getBuffer(), 0, serialized, 0, serialized.length);
+    }
+
+    @Benchmark
+    public int serialize() throws IOException {
+        return codec.write(info, format).size();
+    }
+
+    @Benchmark
+    public CloudCraftNetworkInfo deserialize() throws IOException {
+        return codec.read(new ByteArrayInputStream(serialized), infoClass, format.getContentType(), null);
+    }
+}
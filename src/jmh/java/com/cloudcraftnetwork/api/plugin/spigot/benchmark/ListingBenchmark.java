@@ -0,0 +1,99 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.benchmark;
+
+import com.cloudcraftnetwork.api.plugin.spigot.storage.ListingIterator;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.MemoryStorageBackend;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.StorageBackend;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.StorageException;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.StoredObject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures paging through a large fake listing, with and without a delimiter.
+ * Keys follow the "type/id" layout of the servers and pets buckets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListingBenchmark {
+
+    private static final String BUCKET = "benchmark";
+    private static final int TYPES = 50;
+
+    @Param({"10000", "100000"})
+    public int keys;
+
+    private final StorageBackend backend = new MemoryStorageBackend();
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() throws StorageException {
+        executor = Executors.newSingleThreadExecutor();
+        Random random = new Random(42);
+        byte[] content = new byte[0];
+        for (int i = 0; i < keys; i++) {
+            String key = "type" + random.nextInt(TYPES) + "/" + BenchmarkData.uuid(random);
+            backend.put(BUCKET, key, new StoredObject(new ByteArrayInputStream(content), 0, null, null));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void listAll(Blackhole blackhole) {
+        drain(new ListingIterator(backend, BUCKET, null, null, executor, Throwable::printStackTrace), blackhole);
+    }
+
+    @Benchmark
+    public void listPrefix(Blackhole blackhole) {
+        drain(new ListingIterator(backend, BUCKET, "type7/", null, executor, Throwable::printStackTrace), blackhole);
+    }
+
+    @Benchmark
+    public void listTypes(Blackhole blackhole) {
+        drain(new ListingIterator(backend, BUCKET, null, "/", executor, Throwable::printStackTrace), blackhole);
+    }
+
+    private static void drain(ListingIterator iterator, Blackhole blackhole) {
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.benchmark;
+
+import com.cloudcraftnetwork.api.plugin.spigot.info.CloudCraftNetworkInfo;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.FileStorageBackend;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.InfoCodec;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.MemoryStorageBackend;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.ReusableByteArrayOutputStream;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.StorageBackend;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.StorageFormat;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.StoredObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures complete put and get round trips, serialization included, against local stand-ins for S3.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StorageRoundTripBenchmark {
+
+    private static final String BUCKET = "benchmark";
+
+    @Param({"memory", "file"})
+    public String backendType;
+
+    @Param({BenchmarkData.PUBLIC_PLAYER, BenchmarkData.PRIVATE_PLAYER, BenchmarkData.PET})
+    public String type;
+
+    @Param({"JSON", "SMILE"})
+    public StorageFormat format;
+
+    private final InfoCodec codec = new InfoCodec();
+    private StorageBackend backend;
+    private Path directory;
+    private CloudCraftNetworkInfo info;
+    private Class<? extends CloudCraftNetworkInfo> infoClass;
+
+    @Setup
+    public void setUp() throws IOException {
+        if (backendType.equals("file")) {
+            directory = Files.createTempDirectory("storage-benchmark");
+            backend = new FileStorageBackend(directory);
+        } else {
+            backend = new MemoryStorageBackend();
+        }
+        info = BenchmarkData.create(type, new Random(42));
+        infoClass = info.getClass();
+        put();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (directory != null) {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    public String put() throws IOException {
+        ReusableByteArrayOutputStream buffer = codec.write(info, format);
+        StoredObject object = new StoredObject(buffer.toInputStream(), buffer.size(), format.getContentType(), null);
+        return backend.put(BUCKET, info.createKey(), object);
+    }
+
+    @Benchmark
+    public CloudCraftNetworkInfo get() throws IOException {
+        try (StoredObject object = backend.get(BUCKET, info.createKey(), null).get()) {
+            return codec.read(object.getContent(), infoClass, object.getContentType(), object.getContentEncoding());
+        }
+    }
+}
@@ -25,61 +25,353 @@
 
 package com.cloudcraftnetwork.api.plugin.spigot;
 
-import com.amazonaws.AmazonClientException;
 import com.amazonaws.auth.AWSCredentials;
-import com.amazonaws.services.ec2.AmazonEC2Client;
-import com.amazonaws.services.s3.AmazonS3Client;
-import com.amazonaws.services.s3.model.ListObjectsRequest;
-import com.amazonaws.services.s3.model.ObjectListing;
-import com.amazonaws.services.s3.model.S3Object;
-import com.amazonaws.services.s3.model.S3ObjectSummary;
-import com.amazonaws.util.StringInputStream;
+import com.amazonaws.services.s3.AmazonS3;
+import com.cloudcraftnetwork.api.plugin.spigot.aws.AwsClientSettings;
+import com.cloudcraftnetwork.api.plugin.spigot.aws.AwsClients;
+import com.cloudcraftnetwork.api.plugin.spigot.blacklist.Blacklist;
+import com.cloudcraftnetwork.api.plugin.spigot.blacklist.BlacklistSettings;
+import com.cloudcraftnetwork.api.plugin.spigot.catalog.Catalog;
+import com.cloudcraftnetwork.api.plugin.spigot.catalog.CatalogSettings;
+import com.cloudcraftnetwork.api.plugin.spigot.changefeed.ChangeFeed;
+import com.cloudcraftnetwork.api.plugin.spigot.changefeed.ChangeFeedSettings;
+import com.cloudcraftnetwork.api.plugin.spigot.changefeed.ChangeFeedTransport;
+import com.cloudcraftnetwork.api.plugin.spigot.changefeed.ChangeRecord;
+import com.cloudcraftnetwork.api.plugin.spigot.changefeed.LoopbackChangeFeedTransport;
+import com.cloudcraftnetwork.api.plugin.spigot.changefeed.StorageChangeFeedTransport;
+import com.cloudcraftnetwork.api.plugin.spigot.cache.CacheSettings;
+import com.cloudcraftnetwork.api.plugin.spigot.cache.CacheStats;
+import com.cloudcraftnetwork.api.plugin.spigot.cache.DiskCache;
+import com.cloudcraftnetwork.api.plugin.spigot.cache.DiskCacheSettings;
+import com.cloudcraftnetwork.api.plugin.spigot.cache.InfoCache;
+import com.cloudcraftnetwork.api.plugin.spigot.concurrent.NamedThreadFactory;
+import com.cloudcraftnetwork.api.plugin.spigot.concurrent.SingleFlight;
+import com.cloudcraftnetwork.api.plugin.spigot.concurrent.StripedLocks;
 import com.cloudcraftnetwork.api.plugin.spigot.info.*;
-import com.fasterxml.jackson.core.JsonFactory;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.cloudcraftnetwork.api.plugin.spigot.ledger.CurrencyBalance;
+import com.cloudcraftnetwork.api.plugin.spigot.ledger.CurrencyLedger;
+import com.cloudcraftnetwork.api.plugin.spigot.ledger.LedgerSettings;
+import com.cloudcraftnetwork.api.plugin.spigot.metrics.InstrumentedStorageBackend;
+import com.cloudcraftnetwork.api.plugin.spigot.metrics.StorageMetrics;
+import com.cloudcraftnetwork.api.plugin.spigot.metrics.StorageMetricsCommand;
+import com.cloudcraftnetwork.api.plugin.spigot.server.ServerDirectory;
+import com.cloudcraftnetwork.api.plugin.spigot.server.ServerDirectorySettings;
+import com.cloudcraftnetwork.api.plugin.spigot.session.PlayerSession;
+import com.cloudcraftnetwork.api.plugin.spigot.session.PlayerSessionListener;
+import com.cloudcraftnetwork.api.plugin.spigot.session.PlayerSessionSettings;
+import com.cloudcraftnetwork.api.plugin.spigot.session.PlayerSessions;
+import com.cloudcraftnetwork.api.plugin.spigot.social.SocialGraph;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.BatchResult;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.EncodingSettings;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.FetchResult;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.FileStorageBackend;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.InfoCodec;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.ListingIterator;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.MemoryStorageBackend;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.ResilienceSettings;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.ResilientStorageBackend;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.ReusableByteArrayOutputStream;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.S3StorageBackend;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.StorageBackend;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.StorageException;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.StoredObject;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.WriteBehindBuffer;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.WriteBehindSettings;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.plugin.IllegalPluginAccessException;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.StringWriter;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public abstract class AbstractSpigotCloudCraftNetworkPlugin extends JavaPlugin implements AWSCredentials {
 
     /**
      * Class which holds the names of all the S3 buckets used by the CloudCraftNetwork.
      */
-    class Bucket {
+    public static class Bucket {
         private static final String PREFIX = "com.cloudcraftnetwork.";
         public static final String SERVERS = PREFIX + "servers";
         public static final String PUBLIC_PLAYERS = PREFIX + "players.public";
         public static final String PRIVATE_PLAYERS = PREFIX + "players.private";
+        public static final String LEDGER = PREFIX + "players.ledger";
         public static final String ITEMS = PREFIX + "items";
         public static final String PETS = PREFIX + "pets";
         public static final String COSTUMES = PREFIX + "costumes";
         public static final String BLACKLIST = PREFIX + "blacklist";
+        public static final String CHANGES = PREFIX + "changes";
+
+        /**
+         * Returns the configuration path of a bucket, which is its name without the common prefix.
+         * For example, the settings of "com.cloudcraftnetwork.players.public" are read from
+         * "storage.buckets.players.public".
+         *
+         * @param bucketName The name of the bucket.
+         * @return The configuration path of the bucket.
+         */
+        static String configPath(String bucketName) {
+            return bucketName.startsWith(PREFIX) ? bucketName.substring(PREFIX.length()) : bucketName;
+        }
     }
 
-    private final AmazonS3Client s3Client = new AmazonS3Client(this);
-    private final AmazonEC2Client ec2Client = new AmazonEC2Client(this);
-    private final JsonFactory jsonFactory = new JsonFactory(new ObjectMapper());
+    /**
+     * The S3 client, acquired from the shared {@link AwsClients} on first use, or null until then.
+     */
+    private volatile AmazonS3 s3Client;
+
+    private final InfoCodec codec = new InfoCodec();
+
+    /**
+     * The storage backends shared by the buckets which are configured to use them.
+     */
+    private final StorageBackend s3Backend = new S3StorageBackend(this::getS3Client);
+    private final StorageBackend memoryBackend = new MemoryStorageBackend();
+
+    /**
+     * The default number of threads used to perform S3 requests in the background.
+     */
+    private static final int DEFAULT_IO_THREADS = 4;
+
+    /**
+     * Executor which runs every asynchronous S3 request, so no request ever blocks the main server thread.
+     */
+    private final ExecutorService ioExecutor = Executors.newFixedThreadPool(
+            Math.max(1, getConfig().getInt("storage.io-threads", DEFAULT_IO_THREADS)),
+            new NamedThreadFactory("CloudCraftNetwork-IO")
+    );
+
+    /**
+     * Executor which runs the storage requests which have a deadline or may be hedged, so the calling I/O thread
+     * can give up on them. It is unbounded, since every request it runs is awaited by a caller, or was abandoned
+     * and ends within the socket timeout, as the client does not retry it by default.
+     */
+    private final ExecutorService storageExecutor = Executors.newCachedThreadPool(
+            new NamedThreadFactory("CloudCraftNetwork-Storage")
+    );
+
+    /**
+     * The default number of objects a batch put uploads at the same time.
+     */
+    private static final int DEFAULT_BATCH_PARALLELISM = 2;
+
+    /**
+     * The number of objects a batch put or a flush of buffered writes uploads at the same time,
+     * so a large batch never takes up every I/O thread.
+     */
+    private final int batchParallelism =
+            Math.max(1, getConfig().getInt("storage.batch-parallelism", DEFAULT_BATCH_PARALLELISM));
+
+    /**
+     * Executor which runs periodic background maintenance, such as flushing buffered writes.
+     * Some of its tasks block for a long time, such as catalog reloads, so heartbeats run on their own thread.
+     */
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(
+            2,
+            new NamedThreadFactory("CloudCraftNetwork-Scheduler")
+    );
+
+    /**
+     * Executor which publishes heartbeats, on a thread of its own, so a slow reload never delays a heartbeat past
+     * the TTL and gets this server dropped from the directories of other servers.
+     */
+    private final ScheduledExecutorService heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(
+            new NamedThreadFactory("CloudCraftNetwork-Heartbeat")
+    );
+
+    /**
+     * The in-memory caches, by bucket name. Caches are created on first use.
+     */
+    private final Map<String, InfoCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * The on-disk caches, by bucket name. Buckets without a disk cache map to an empty Optional.
+     */
+    private final Map<String, Optional<DiskCache>> diskCaches = new ConcurrentHashMap<>();
+
+    /**
+     * The metrics of every storage call, by bucket and operation.
+     */
+    private final StorageMetrics storageMetrics = new StorageMetrics(getName(), getLogger());
+
+    /**
+     * The storage backends, by bucket name. Backends are created on first use.
+     */
+    private final Map<String, StorageBackend> backends = new ConcurrentHashMap<>();
+
+    /**
+     * The write-behind buffers, by bucket name. Buckets without write-behind map to an empty Optional.
+     */
+    private final Map<String, Optional<WriteBehindBuffer>> writeBuffers = new ConcurrentHashMap<>();
+
+    /**
+     * The encoding settings, by bucket name. Settings are read on first use.
+     */
+    private final Map<String, EncodingSettings> encodings = new ConcurrentHashMap<>();
+
+    /**
+     * The directory of live servers, created on first use.
+     */
+    private volatile ServerDirectory serverDirectory;
+
+    /**
+     * The feed of the changes made by every server, or null if it is disabled.
+     */
+    private volatile ChangeFeed changeFeed;
+
+    /**
+     * The blacklisted players, created on first use.
+     */
+    private volatile Blacklist blacklist;
+
+    /**
+     * The catalogs of the item, pet and costume buckets, by bucket name, created on first use.
+     */
+    private final Map<String, Catalog<?>> catalogs = new ConcurrentHashMap<>();
+
+    /**
+     * The server this server publishes heartbeats for, and the task which publishes them, or null if none.
+     */
+    private ServerInfo heartbeatServer;
+    private ScheduledFuture<?> heartbeatTask;
+
+    /**
+     * The number of locks which serialize the writes of a key.
+     */
+    private static final int KEY_LOCK_STRIPES = 256;
+
+    /**
+     * Locks which serialize the uploads and deletes of a key, by bucket name and key.
+     */
+    private final StripedLocks keyLocks = new StripedLocks(KEY_LOCK_STRIPES);
+
+    /**
+     * The fetches in flight, by bucket name, info class and key, so concurrent reads of an object share one request.
+     */
+    private final SingleFlight<String, Optional<CloudCraftNetworkInfo>> fetches = new SingleFlight<>();
+
+    /**
+     * The sessions of the online players, whose data is pinned in memory.
+     */
+    private final PlayerSessions playerSessions = new PlayerSessions();
+
+    /**
+     * The friends and ignored lists of the players with a session, indexed in both directions.
+     */
+    private final SocialGraph socialGraph = new SocialGraph();
+
+    /**
+     * The currency changes made on this server which were not uploaded to the ledger yet.
+     */
+    private final CurrencyLedger currencyLedger = new CurrencyLedger();
+
+    /**
+     * Whether the flushes of the currency ledger are scheduled. They are scheduled by the first currency change,
+     * so plugins which never change currencies do not poll the ledger.
+     */
+    private final AtomicBoolean ledgerFlushing = new AtomicBoolean();
+
+    /**
+     * Executor which runs tasks on the main server thread, and rejects them once the plugin has been disabled.
+     */
+    private final Executor mainThreadExecutor = task -> {
+        if (!isEnabled()) {
+            throw new RejectedExecutionException("The plugin has been disabled");
+        }
+        try {
+            getServer().getScheduler().runTask(this, task);
+        } catch (IllegalPluginAccessException e) {
+            // The plugin was disabled after the check above
+            throw new RejectedExecutionException(e);
+        }
+    };
 
+    /**
+     * Lists the types of the stored servers, dead or alive, with LIST requests.
+     * Prefer {@link #getServerDirectory()}, which answers from memory.
+     *
+     * @return The server types.
+     */
     public List<String> getServerTypes() {
         return listAllObjects(Bucket.SERVERS, null, "/");
     }
 
+    public Stream<String> streamServerTypes() {
+        return streamAllObjects(Bucket.SERVERS, null, "/");
+    }
+
+    /**
+     * Lists the keys of the stored servers of a type, dead or alive, with LIST requests.
+     * Prefer {@link #getServerDirectory()}, which answers from memory.
+     *
+     * @param serverType The server type.
+     * @return The server keys.
+     */
     public List<String> getServerKeys(String serverType) {
         return listAllObjects(Bucket.SERVERS, serverType, null);
     }
 
+    public Stream<String> streamServerKeys(String serverType) {
+        return streamAllObjects(Bucket.SERVERS, serverType, null);
+    }
+
+    /**
+     * Retrieves a server.
+     * Servers are cached by default, so the returned object may be the instance other callers and threads
+     * receive as well. It must not be modified unless it is put back right away, see
+     * {@link #getCacheSettings(String)}.
+     *
+     * @param serverKey The key of the server.
+     * @return The server, if it exists.
+     */
     public Optional<ServerInfo> getServerInfo(String serverKey) {
         return getObject(Bucket.SERVERS, serverKey, ServerInfo.class);
     }
 
+    public FetchResult<ServerInfo> getServerInfos(Collection<String> serverKeys) {
+        return getObjects(Bucket.SERVERS, serverKeys, ServerInfo.class);
+    }
+
     public void putServerInfo(ServerInfo serverInfo) {
         putObject(Bucket.SERVERS, serverInfo);
     }
@@ -92,10 +384,26 @@ public abstract class AbstractSpigotCloudCraftNetworkPlugin extends JavaPlugin i
         return listAllObjects(Bucket.PUBLIC_PLAYERS, null, null);
     }
 
+    public Stream<String> streamPlayerPublicKeys() {
+        return streamAllObjects(Bucket.PUBLIC_PLAYERS, null, null);
+    }
+
+    /**
+     * Retrieves the public info of a player.
+     * Player infos are not cached by default, so every call returns a new object, except for online players,
+     * whose info is pinned by their session and shared, see {@link #getPlayerSession(UUID)}.
+     *
+     * @param publicPlayerKey The key of the player.
+     * @return The public info, if it exists.
+     */
     public Optional<PublicPlayerInfo> getPlayerPublicInfo(String publicPlayerKey) {
         return getObject(Bucket.PUBLIC_PLAYERS, publicPlayerKey, PublicPlayerInfo.class);
     }
 
+    public FetchResult<PublicPlayerInfo> getPlayerPublicInfos(Collection<String> publicPlayerKeys) {
+        return getObjects(Bucket.PUBLIC_PLAYERS, publicPlayerKeys, PublicPlayerInfo.class);
+    }
+
     public void putPlayerPublicInfo(PublicPlayerInfo publicPlayerInfo) {
         putObject(Bucket.PUBLIC_PLAYERS, publicPlayerInfo);
     }
@@ -108,26 +416,107 @@ public abstract class AbstractSpigotCloudCraftNetworkPlugin extends JavaPlugin i
         return listAllObjects(Bucket.PRIVATE_PLAYERS, null, null);
     }
 
+    public Stream<String> streamPlayerPrivateKeys() {
+        return streamAllObjects(Bucket.PRIVATE_PLAYERS, null, null);
+    }
+
+    /**
+     * Retrieves the private info of a player, see {@link #getPlayerPublicInfo(String)}.
+     *
+     * @param privatePlayerKey The key of the player.
+     * @return The private info, if it exists.
+     */
     public Optional<PrivatePlayerInfo> getPlayerPrivateInfo(String privatePlayerKey) {
         return getObject(Bucket.PRIVATE_PLAYERS, privatePlayerKey, PrivatePlayerInfo.class);
     }
 
+    public FetchResult<PrivatePlayerInfo> getPlayerPrivateInfos(Collection<String> privatePlayerKeys) {
+        return getObjects(Bucket.PRIVATE_PLAYERS, privatePlayerKeys, PrivatePlayerInfo.class);
+    }
+
     public void putPlayerPrivateInfo(PrivatePlayerInfo privatePlayerInfo) {
         putObject(Bucket.PRIVATE_PLAYERS, privatePlayerInfo);
     }
 
+    /**
+     * Adds DewPoints to a player, without reading or writing the PrivatePlayerInfo of the player.
+     * The change is uploaded to the currency ledger within one flush interval, and added to the stored balance
+     * by the next compaction. Changes from any number of servers are never lost.
+     *
+     * @param playerId The id of the player.
+     * @param delta    The change, negative to remove DewPoints.
+     */
+    public void addDewPoints(UUID playerId, long delta) {
+        currencyLedger.addDewPoints(playerId, delta);
+        startLedgerFlushing();
+    }
+
+    /**
+     * Adds FrostPoints to a player, see {@link #addDewPoints(UUID, long)}.
+     *
+     * @param playerId The id of the player.
+     * @param delta    The change, negative to remove FrostPoints.
+     */
+    public void addFrostPoints(UUID playerId, double delta) {
+        currencyLedger.addFrostPoints(playerId, delta);
+        startLedgerFlushing();
+    }
+
+    /**
+     * Schedules the flushes of the currency ledger, unless they are scheduled already.
+     */
+    private void startLedgerFlushing() {
+        if (!ledgerFlushing.compareAndSet(false, true)) {
+            return;
+        }
+        long interval = getLedgerSettings().getFlushIntervalMillis();
+        try {
+            scheduler.scheduleWithFixedDelay(this::flushLedger, interval, interval, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The plugin is being disabled, which flushes the ledger one last time
+        }
+    }
+
+    /**
+     * Returns the currencies of a player: the stored balance, plus the ledger records which were not compacted yet,
+     * plus the changes of this server which were not uploaded yet. Changes made on other servers are included once
+     * they are uploaded.
+     * This blocks until the balance and the records have been retrieved, so it must not be called from the I/O
+     * executor itself.
+     *
+     * @param playerId The id of the player.
+     * @return The currencies of the player, or an empty Optional if the balance or the ledger cannot be read.
+     */
+    public Optional<CurrencyBalance> getPlayerCurrency(UUID playerId) {
+        return getPlayerCurrencyAsync(playerId).join();
+    }
+
     public void deletePlayerPrivateInfo(PrivatePlayerInfo privatePlayerInfo) {
-        deleteObject(Bucket.PUBLIC_PLAYERS, privatePlayerInfo.createKey());
+        deleteObject(Bucket.PRIVATE_PLAYERS, privatePlayerInfo.createKey());
     }
 
     public List<String> getItemKeys() {
         return listAllObjects(Bucket.ITEMS, null, null);
     }
 
+    public Stream<String> streamItemKeys() {
+        return streamAllObjects(Bucket.ITEMS, null, null);
+    }
+
+    /**
+     * Retrieves an item. The returned object may be shared, like the servers of {@link #getServerInfo(String)}.
+     *
+     * @param itemKey The key of the item.
+     * @return The item, if it exists.
+     */
     public Optional<ItemInfo> getItemInfo(String itemKey) {
         return getObject(Bucket.ITEMS, itemKey, ItemInfo.class);
     }
 
+    public FetchResult<ItemInfo> getItemInfos(Collection<String> itemKeys) {
+        return getObjects(Bucket.ITEMS, itemKeys, ItemInfo.class);
+    }
+
     public void putItemInfo(ItemInfo itemInfo) {
         putObject(Bucket.ITEMS, itemInfo);
     }
@@ -140,10 +529,24 @@ public abstract class AbstractSpigotCloudCraftNetworkPlugin extends JavaPlugin i
         return listAllObjects(Bucket.PETS, null, null);
     }
 
+    public Stream<String> streamPetKeys() {
+        return streamAllObjects(Bucket.PETS, null, null);
+    }
+
+    /**
+     * Retrieves a pet. The returned object may be shared, like the servers of {@link #getServerInfo(String)}.
+     *
+     * @param petKey The key of the pet.
+     * @return The pet, if it exists.
+     */
     public Optional<PetInfo> getPetInfo(String petKey) {
         return getObject(Bucket.PETS, petKey, PetInfo.class);
     }
 
+    public FetchResult<PetInfo> getPetInfos(Collection<String> petKeys) {
+        return getObjects(Bucket.PETS, petKeys, PetInfo.class);
+    }
+
     public void putPetInfo(PetInfo petInfo) {
         putObject(Bucket.PETS, petInfo);
     }
@@ -156,10 +559,24 @@ public abstract class AbstractSpigotCloudCraftNetworkPlugin extends JavaPlugin i
         return listAllObjects(Bucket.COSTUMES, "costumes", null);
     }
 
+    public Stream<String> streamCostumeKeys() {
+        return streamAllObjects(Bucket.COSTUMES, "costumes", null);
+    }
+
+    /**
+     * Retrieves a costume. The returned object may be shared, like the servers of {@link #getServerInfo(String)}.
+     *
+     * @param costumeKey The key of the costume.
+     * @return The costume, if it exists.
+     */
     public Optional<CostumeInfo> getCostumeInfo(String costumeKey) {
         return getObject(Bucket.COSTUMES, costumeKey, CostumeInfo.class);
     }
 
+    public FetchResult<CostumeInfo> getCostumeInfos(Collection<String> costumeKeys) {
+        return getObjects(Bucket.COSTUMES, costumeKeys, CostumeInfo.class);
+    }
+
     public void putCostumeInfo(CostumeInfo costumeInfo) {
         putObject(Bucket.COSTUMES, costumeInfo);
     }
@@ -169,144 +586,2382 @@ public abstract class AbstractSpigotCloudCraftNetworkPlugin extends JavaPlugin i
     }
 
     /**
-     * Returns the type of the server.
-     * Every server on the CloudCraftNetwork must give a type to better classify itself.
-     * Because of the potential variety of server types, the version or creator should be prefixed to the game type.
-     * For example, if your company is called "mycompany" and you want to register your own version of spleef,
-     * your type might be: "mycompany.spleef"
+     * Checks whether a player is blacklisted, from memory, see {@link #getBlacklist()}.
+     * Fast enough to be called from the pre-login event of every player. Plugins which check bans at login should
+     * enable the blacklist in its settings, so it is synced before the first player logs in.
      *
-     * @return The type of the server.
+     * @param playerId The id of the player.
+     * @return True if the player has an active ban.
      */
-    public abstract String getType();
+    public boolean isBlacklisted(UUID playerId) {
+        return getBlacklist().isBlacklisted(playerId);
+    }
+
+    public List<String> getBlacklistKeys() {
+        return listAllObjects(Bucket.BLACKLIST, null, null);
+    }
+
+    public Stream<String> streamBlacklistKeys() {
+        return streamAllObjects(Bucket.BLACKLIST, null, null);
+    }
 
     /**
-     * Deletes an object from S3
+     * Retrieves a ban. The returned object may be shared, like the servers of {@link #getServerInfo(String)}.
      *
-     * @param bucketName The name of the bucket.
-     * @param key        The key of the object to be deleted
-     * @return true if the object was deleted, false otherwise.
+     * @param blacklistKey The key of the ban.
+     * @return The ban, if it exists.
      */
-    private boolean deleteObject(String bucketName, String key) {
-        try {
-            s3Client.deleteObject(bucketName, key);
-            return true;
-        } catch (AmazonClientException e) {
-            getLogger().warning(e.toString());
-            e.printStackTrace();
-            return false;
-        }
+    public Optional<BlacklistInfo> getBlacklistInfo(String blacklistKey) {
+        return getObject(Bucket.BLACKLIST, blacklistKey, BlacklistInfo.class);
+    }
+
+    public FetchResult<BlacklistInfo> getBlacklistInfos(Collection<String> blacklistKeys) {
+        return getObjects(Bucket.BLACKLIST, blacklistKeys, BlacklistInfo.class);
     }
 
     /**
-     * Uploads an object to S3
+     * Stores a ban, which applies on this server at once, and on other servers after their next sync.
      *
-     * @param bucketName The name of the bucket.
-     * @param object     The CloudCraftNetworkInfo object to upload.
-     * @return true if the object was uploaded successfully, false otherwise.
+     * @param blacklistInfo The ban.
      */
-    private <T extends CloudCraftNetworkInfo> boolean putObject(String bucketName, T object) {
-
-        // Create a JSON String from the object
-        StringWriter writer = new StringWriter();
-        try {
-            jsonFactory.createGenerator(writer).writeObject(object);
-        } catch (IOException e) {
-            getLogger().warning("Unable to parse object into a JSON String");
-            e.printStackTrace();
-            return false;
-        }
-
-        // upload the JSON String to S3
-        try (StringInputStream inputStream = new StringInputStream(writer.toString())) {
-            s3Client.putObject(bucketName, object.createKey(), inputStream, null);
-            return true;
-        } catch (Exception e) {
-            getLogger().warning(e.toString());
-            e.printStackTrace();
-            return false;
-        }
+    public void putBlacklistInfo(BlacklistInfo blacklistInfo) {
+        storeBan(blacklistInfo);
     }
 
     /**
-     * Retrieves an object from S3
+     * Deletes a ban, which is lifted on this server at once, and on other servers after their next sync.
      *
-     * @param bucketName The name of the bucket.
-     * @param key        The key of the object.
-     * @param infoClass  The class of the info object to return.
-     * @return the S3 object mapped to a CloudCraftNetworkInfo object.
+     * @param blacklistInfo The ban.
      */
-    private <T extends CloudCraftNetworkInfo> Optional<T> getObject(String bucketName, String key, Class<T> infoClass) {
+    public void deleteBlacklistInfo(BlacklistInfo blacklistInfo) {
+        liftBan(blacklistInfo);
+    }
 
-        if (bucketName == null) {
-            return Optional.empty();
-        }
+    public CompletableFuture<List<String>> getServerTypesAsync() {
+        return supplyAsync(this::getServerTypes);
+    }
 
-        // Retrieve the raw object from S3
-        S3Object s3Object = null;
-        try {
-            s3Object = s3Client.getObject(bucketName, key);
-        } catch (AmazonClientException e) {
-            getLogger().warning(e.toString());
-            e.printStackTrace();
-        }
-        if (s3Object == null) {
-            return Optional.empty();
-        }
+    public CompletableFuture<List<String>> getServerKeysAsync(String serverType) {
+        return supplyAsync(() -> getServerKeys(serverType));
+    }
 
-        // Read the raw object into a String
-        String rawObject;
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(s3Object.getObjectContent()))) {
-            rawObject = reader.readLine();
-        } catch (IOException e) {
-            getLogger().warning("Unable to read S3 Object into a string.");
-            e.printStackTrace();
-            return Optional.empty();
-        }
+    public CompletableFuture<Optional<ServerInfo>> getServerInfoAsync(String serverKey) {
+        return supplyAsync(() -> getServerInfo(serverKey));
+    }
 
-        // Parse the string JSON into a CloudCraftNetworkInfo object
-        try {
-            return Optional.of(jsonFactory.createParser(rawObject).readValuesAs(infoClass).next());
-        } catch (Exception e) {
-            getLogger().warning("S3 Object \"" + bucketName + ":" + key + "\" is not a valid " + infoClass.getName() + ".");
-            e.printStackTrace();
-            return Optional.empty();
-        }
+    public CompletableFuture<FetchResult<ServerInfo>> getServerInfosAsync(Collection<String> serverKeys) {
+        return getObjectsAsync(Bucket.SERVERS, serverKeys, ServerInfo.class);
+    }
+
+    public CompletableFuture<Boolean> putServerInfoAsync(ServerInfo serverInfo) {
+        return supplyAsync(() -> putObject(Bucket.SERVERS, serverInfo));
+    }
+
+    public CompletableFuture<Boolean> deleteServerInfoAsync(ServerInfo serverInfo) {
+        return supplyAsync(() -> deleteObject(Bucket.SERVERS, serverInfo.createKey()));
+    }
+
+    public CompletableFuture<List<String>> getPlayerPublicKeysAsync() {
+        return supplyAsync(this::getPlayerPublicKeys);
+    }
+
+    public CompletableFuture<Optional<PublicPlayerInfo>> getPlayerPublicInfoAsync(String publicPlayerKey) {
+        return supplyAsync(() -> getPlayerPublicInfo(publicPlayerKey));
+    }
+
+    public CompletableFuture<FetchResult<PublicPlayerInfo>> getPlayerPublicInfosAsync(
+            Collection<String> publicPlayerKeys
+    ) {
+        return getObjectsAsync(Bucket.PUBLIC_PLAYERS, publicPlayerKeys, PublicPlayerInfo.class);
+    }
+
+    public CompletableFuture<Boolean> putPlayerPublicInfoAsync(PublicPlayerInfo publicPlayerInfo) {
+        return supplyAsync(() -> putObject(Bucket.PUBLIC_PLAYERS, publicPlayerInfo));
+    }
+
+    public CompletableFuture<Boolean> deletePlayerPublicInfoAsync(PublicPlayerInfo publicPlayerInfo) {
+        return supplyAsync(() -> deleteObject(Bucket.PUBLIC_PLAYERS, publicPlayerInfo.createKey()));
+    }
+
+    public CompletableFuture<List<String>> getPlayerPrivateKeysAsync() {
+        return supplyAsync(this::getPlayerPrivateKeys);
+    }
+
+    public CompletableFuture<Optional<PrivatePlayerInfo>> getPlayerPrivateInfoAsync(String privatePlayerKey) {
+        return supplyAsync(() -> getPlayerPrivateInfo(privatePlayerKey));
+    }
+
+    public CompletableFuture<FetchResult<PrivatePlayerInfo>> getPlayerPrivateInfosAsync(
+            Collection<String> privatePlayerKeys
+    ) {
+        return getObjectsAsync(Bucket.PRIVATE_PLAYERS, privatePlayerKeys, PrivatePlayerInfo.class);
     }
 
     /**
-     * Queries S3 for keys.
-     * Long responses might be truncated. This method ensures that all results are returned in a single list.
+     * Returns the currencies of a player, see {@link #getPlayerCurrency(UUID)}.
+     * No I/O thread waits on another request: the ledger is listed, then its records are retrieved in parallel,
+     * then the balance is read, each as its own task.
      *
-     * @param bucketName The bucket name.
-     * @param prefix     The key prefix. Only keys which match the prefix are returned.
-     * @param delimiter  The delimiter. All suffixes after the delimiter are dropped from the keys.
-     * @return A list of keys which match the query. This list is never null.
+     * @param playerId The id of the player.
+     * @return A future which completes with the currencies of the player, or an empty Optional if the balance or
+     * the ledger cannot be read.
      */
-    private List<String> listAllObjects(String bucketName, String prefix, String delimiter) {
+    public CompletableFuture<Optional<CurrencyBalance>> getPlayerCurrencyAsync(UUID playerId) {
+        // Read the records before the balance, so a compaction in between is seen in the balance
+        return supplyAsync(() -> {
+            AtomicBoolean failed = new AtomicBoolean();
+            List<String> keys;
+            try (Stream<String> stream = streamAllObjects(Bucket.LEDGER, playerId + "/", null, e -> {
+                failed.set(true);
+                getLogger().warning(e.toString());
+                e.printStackTrace();
+            })) {
+                keys = stream.collect(Collectors.toList());
+            }
+            return failed.get() ? Optional.<List<String>>empty() : Optional.of(keys);
+        }).thenCompose(keys -> keys.isPresent()
+                ? getObjectsAsync(Bucket.LEDGER, keys.get(), CurrencyDeltaInfo.class).thenApply(Optional::of)
+                : CompletableFuture.completedFuture(Optional.<FetchResult<CurrencyDeltaInfo>>empty())
+        ).thenCompose(records -> records.isPresent() && records.get().isSuccessful()
+                ? supplyAsync(() -> sumCurrency(playerId, records.get()))
+                : CompletableFuture.completedFuture(Optional.empty())
+        );
+    }
 
-        ArrayList<String> results = new ArrayList<>();
+    public CompletableFuture<Boolean> putPlayerPrivateInfoAsync(PrivatePlayerInfo privatePlayerInfo) {
+        return supplyAsync(() -> putObject(Bucket.PRIVATE_PLAYERS, privatePlayerInfo));
+    }
 
-        if (bucketName == null) {
-            return results;
+    public CompletableFuture<Boolean> deletePlayerPrivateInfoAsync(PrivatePlayerInfo privatePlayerInfo) {
+        return supplyAsync(() -> deleteObject(Bucket.PRIVATE_PLAYERS, privatePlayerInfo.createKey()));
+    }
+
+    public CompletableFuture<List<String>> getItemKeysAsync() {
+        return supplyAsync(this::getItemKeys);
+    }
+
+    public CompletableFuture<Optional<ItemInfo>> getItemInfoAsync(String itemKey) {
+        return supplyAsync(() -> getItemInfo(itemKey));
+    }
+
+    public CompletableFuture<FetchResult<ItemInfo>> getItemInfosAsync(Collection<String> itemKeys) {
+        return getObjectsAsync(Bucket.ITEMS, itemKeys, ItemInfo.class);
+    }
+
+    public CompletableFuture<Boolean> putItemInfoAsync(ItemInfo itemInfo) {
+        return supplyAsync(() -> putObject(Bucket.ITEMS, itemInfo));
+    }
+
+    public CompletableFuture<Boolean> deleteItemInfoAsync(ItemInfo itemInfo) {
+        return supplyAsync(() -> deleteObject(Bucket.ITEMS, itemInfo.createKey()));
+    }
+
+    public CompletableFuture<List<String>> getPetKeysAsync() {
+        return supplyAsync(this::getPetKeys);
+    }
+
+    public CompletableFuture<Optional<PetInfo>> getPetInfoAsync(String petKey) {
+        return supplyAsync(() -> getPetInfo(petKey));
+    }
+
+    public CompletableFuture<FetchResult<PetInfo>> getPetInfosAsync(Collection<String> petKeys) {
+        return getObjectsAsync(Bucket.PETS, petKeys, PetInfo.class);
+    }
+
+    public CompletableFuture<Boolean> putPetInfoAsync(PetInfo petInfo) {
+        return supplyAsync(() -> putObject(Bucket.PETS, petInfo));
+    }
+
+    public CompletableFuture<Boolean> deletePetInfoAsync(PetInfo petInfo) {
+        return supplyAsync(() -> deleteObject(Bucket.PETS, petInfo.createKey()));
+    }
+
+    public CompletableFuture<List<String>> getCostumeKeysAsync() {
+        return supplyAsync(this::getCostumeKeys);
+    }
+
+    public CompletableFuture<Optional<CostumeInfo>> getCostumeInfoAsync(String costumeKey) {
+        return supplyAsync(() -> getCostumeInfo(costumeKey));
+    }
+
+    public CompletableFuture<FetchResult<CostumeInfo>> getCostumeInfosAsync(Collection<String> costumeKeys) {
+        return getObjectsAsync(Bucket.COSTUMES, costumeKeys, CostumeInfo.class);
+    }
+
+    public CompletableFuture<Boolean> putCostumeInfoAsync(CostumeInfo costumeInfo) {
+        return supplyAsync(() -> putObject(Bucket.COSTUMES, costumeInfo));
+    }
+
+    public CompletableFuture<Boolean> deleteCostumeInfoAsync(CostumeInfo costumeInfo) {
+        return supplyAsync(() -> deleteObject(Bucket.COSTUMES, costumeInfo.createKey()));
+    }
+
+    public CompletableFuture<List<String>> getBlacklistKeysAsync() {
+        return supplyAsync(this::getBlacklistKeys);
+    }
+
+    public CompletableFuture<Optional<BlacklistInfo>> getBlacklistInfoAsync(String blacklistKey) {
+        return supplyAsync(() -> getBlacklistInfo(blacklistKey));
+    }
+
+    public CompletableFuture<FetchResult<BlacklistInfo>> getBlacklistInfosAsync(Collection<String> blacklistKeys) {
+        return getObjectsAsync(Bucket.BLACKLIST, blacklistKeys, BlacklistInfo.class);
+    }
+
+    public CompletableFuture<Boolean> putBlacklistInfoAsync(BlacklistInfo blacklistInfo) {
+        return supplyAsync(() -> storeBan(blacklistInfo));
+    }
+
+    public CompletableFuture<Boolean> deleteBlacklistInfoAsync(BlacklistInfo blacklistInfo) {
+        return supplyAsync(() -> liftBan(blacklistInfo));
+    }
+
+    /**
+     * Stores several objects, each in the bucket of its type.
+     * This blocks until every object has been stored, so it must not be called from the I/O executor itself.
+     *
+     * @param objects The objects.
+     * @param <T>     The type of the objects.
+     * @return The objects which were stored and those which failed.
+     */
+    public <T extends CloudCraftNetworkInfo> BatchResult<T> putAll(Collection<T> objects) {
+        return putAllAsync(objects).join();
+    }
+
+    /**
+     * Stores several objects, each in the bucket of its type.
+     * Objects are uploaded in parallel on the I/O executor, but at most "storage.batch-parallelism" at a time,
+     * so other requests are still served while a large batch uploads.
+     * Objects of write-behind buckets are flushed right away instead of waiting for the next flush, so the result
+     * reports whether each object was actually uploaded. Those which fail stay buffered for later flushes.
+     *
+     * @param objects The objects.
+     * @param <T>     The type of the objects.
+     * @return A future which completes with the objects which were stored and those which failed.
+     */
+    public <T extends CloudCraftNetworkInfo> CompletableFuture<BatchResult<T>> putAllAsync(Collection<T> objects) {
+        Queue<T> pending = new ConcurrentLinkedQueue<>(objects);
+        Queue<T> succeeded = new ConcurrentLinkedQueue<>();
+        Queue<T> failed = new ConcurrentLinkedQueue<>();
+        Runnable uploader = () -> {
+            for (T object = pending.poll(); object != null; object = pending.poll()) {
+                String bucketName = bucketOf(object);
+                boolean stored = false;
+                try {
+                    stored = bucketName != null && putObject(bucketName, object);
+                    if (stored) {
+                        String key = object.createKey();
+                        stored = writeBufferFor(bucketName).map(buffer -> buffer.flush(key)).orElse(true);
+                    }
+                } catch (RuntimeException e) {
+                    getLogger().warning(e.toString());
+                    e.printStackTrace();
+                }
+                (stored ? succeeded : failed).add(object);
+            }
+        };
+        CompletableFuture<?>[] uploaders = new CompletableFuture<?>[Math.min(batchParallelism, objects.size())];
+        for (int i = 0; i < uploaders.length; i++) {
+            uploaders[i] = CompletableFuture.runAsync(uploader, ioExecutor);
+        }
+        return CompletableFuture.allOf(uploaders)
+                .thenApply(ignored -> new BatchResult<>(new ArrayList<>(succeeded), new ArrayList<>(failed)));
+    }
+
+    /**
+     * Deletes several objects, each from the bucket of its type.
+     * The objects of a bucket are deleted with as few requests as the storage backend allows,
+     * up to 1000 objects per request on S3.
+     *
+     * @param objects The objects.
+     * @param <T>     The type of the objects.
+     * @return The objects which were deleted and those which failed.
+     */
+    public <T extends CloudCraftNetworkInfo> BatchResult<T> deleteAll(Collection<T> objects) {
+        List<T> succeeded = new ArrayList<>();
+        List<T> failed = new ArrayList<>();
+
+        // Group the objects by bucket and key, keeping duplicates so each one is reported
+        Map<String, Map<String, List<T>>> buckets = new LinkedHashMap<>();
+        for (T object : objects) {
+            String bucketName = bucketOf(object);
+            if (bucketName == null) {
+                failed.add(object);
+                continue;
+            }
+            buckets.computeIfAbsent(bucketName, name -> new LinkedHashMap<>())
+                    .computeIfAbsent(object.createKey(), key -> new ArrayList<>())
+                    .add(object);
+        }
+
+        for (Map.Entry<String, Map<String, List<T>>> bucket : buckets.entrySet()) {
+            String bucketName = bucket.getKey();
+            for (String key : bucket.getValue().keySet()) {
+                forgetObject(bucketName, key);
+            }
+            Map<String, StorageException> failures =
+                    backendFor(bucketName).deleteAll(bucketName, bucket.getValue().keySet());
+            for (Map.Entry<String, List<T>> key : bucket.getValue().entrySet()) {
+                if (failures.containsKey(key.getKey())) {
+                    failed.addAll(key.getValue());
+                } else {
+                    cacheFor(bucketName).invalidate(key.getKey());
+                    recordChange(bucketName, key.getKey(), null);
+                    succeeded.addAll(key.getValue());
+                }
+            }
+            if (!failures.isEmpty()) {
+                getLogger().warning(failures.size() + " objects could not be deleted from " + bucketName
+                        + ", such as: " + failures.values().iterator().next());
+            }
+        }
+        return new BatchResult<>(succeeded, failed);
+    }
+
+    /**
+     * Deletes several objects in the background, see {@link #deleteAll(Collection)}.
+     *
+     * @param objects The objects.
+     * @param <T>     The type of the objects.
+     * @return A future which completes with the objects which were deleted and those which failed.
+     */
+    public <T extends CloudCraftNetworkInfo> CompletableFuture<BatchResult<T>> deleteAllAsync(Collection<T> objects) {
+        return supplyAsync(() -> deleteAll(objects));
+    }
+
+    /**
+     * Returns an executor which runs tasks on the main server thread, using the Bukkit scheduler.
+     * Tasks submitted after the plugin has been disabled are rejected with a {@link RejectedExecutionException}.
+     * A CompletableFuture does not complete a dependent stage whose task its executor rejects,
+     * so prefer {@link #thenSync(CompletableFuture, Consumer)}, which completes it exceptionally.
+     * <p>
+     * This is intended to be passed to the *Async methods of a CompletableFuture, for example:
+     * <pre>
+     * getPlayerPublicInfoAsync(key).thenAcceptAsync(info -> ..., getMainThreadExecutor());
+     * </pre>
+     *
+     * @return The main thread executor.
+     */
+    public Executor getMainThreadExecutor() {
+        return mainThreadExecutor;
+    }
+
+    /**
+     * Hands the result of an asynchronous request back to the main server thread.
+     *
+     * @param future   The asynchronous request.
+     * @param callback The callback which receives the result on the main server thread.
+     * @param <T>      The type of the result.
+     * @return A future which completes once the callback has run, or exceptionally if the request failed,
+     *         the callback threw, or the plugin was disabled before the callback could run.
+     */
+    public <T> CompletableFuture<Void> thenSync(CompletableFuture<T> future, Consumer<? super T> callback) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        future.whenComplete((value, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            try {
+                mainThreadExecutor.execute(() -> {
+                    try {
+                        callback.accept(value);
+                        result.complete(null);
+                    } catch (Throwable e) {
+                        result.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Returns the cache statistics of a bucket.
+     *
+     * @param bucketName The name of the bucket, one of the {@link Bucket} constants.
+     * @return The cache statistics.
+     */
+    public CacheStats getCacheStats(String bucketName) {
+        return cacheFor(bucketName).getStats();
+    }
+
+    /**
+     * Returns the settings of the in-memory cache of a bucket.
+     * By default, the settings are read from the "storage.buckets.&lt;bucket&gt;.cache" section of the plugin
+     * configuration, falling back to the "storage.cache" section. The cache is enabled by default for the servers,
+     * items, pets, costumes, blacklist and ledger, and disabled for the player buckets.
+     * <p>
+     * Cached info objects are shared between callers and threads, and info objects are not thread-safe. Callers
+     * which modify an info object of a cached bucket should put it back right away, or disable the cache for that
+     * bucket.
+     *
+     * @param bucketName The name of the bucket.
+     * @return The cache settings of the bucket.
+     */
+    protected CacheSettings getCacheSettings(String bucketName) {
+        boolean shared = !bucketName.equals(Bucket.PUBLIC_PLAYERS) && !bucketName.equals(Bucket.PRIVATE_PLAYERS);
+        return CacheSettings.fromConfig(getStorageSection(bucketName, "cache"), shared);
+    }
+
+    /**
+     * Returns the settings of the on-disk cache of a bucket.
+     * By default, the settings are read from the "storage.buckets.&lt;bucket&gt;.disk-cache" section of the plugin
+     * configuration, falling back to the "storage.disk-cache" section. The disk cache is disabled by default.
+     * It pays off for the servers, items, pets and costumes, which a server needs right after a restart.
+     * <p>
+     * Objects cached on disk are restored into the in-memory cache on enable and revalidated in the background,
+     * and are never served before S3 confirmed that their ETag still matches. Each plugin which enables the disk
+     * cache keeps its own files, up to the size limit per bucket, and revalidates every restored object with a
+     * conditional request on enable.
+     *
+     * @param bucketName The name of the bucket.
+     * @return The disk cache settings of the bucket.
+     */
+    protected DiskCacheSettings getDiskCacheSettings(String bucketName) {
+        return DiskCacheSettings.fromConfig(getStorageSection(bucketName, "disk-cache"), false);
+    }
+
+    /**
+     * Returns the S3 client of this plugin, acquiring it on first use.
+     * The client is shared with every other plugin using the same credentials and AWS client settings.
+     *
+     * @return The S3 client.
+     */
+    protected AmazonS3 getS3Client() {
+        AmazonS3 client = s3Client;
+        if (client == null) {
+            synchronized (this) {
+                client = s3Client;
+                if (client == null) {
+                    client = AwsClients.acquireS3(this, getAwsClientSettings());
+                    s3Client = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    /**
+     * Returns the settings of the AWS clients.
+     * By default, the settings are read from the "aws" section of the plugin configuration: "max-connections",
+     * "connection-timeout-millis", "socket-timeout-millis", "max-error-retry", "tcp-keep-alive" and
+     * "connection-max-idle-millis".
+     * <p>
+     * The client and the resilience layer both retry failed requests, and their attempts multiply. The client does
+     * not retry by default while resilience is enabled in the "storage.resilience" section, which it is by default,
+     * so buckets which only disable resilience in their own section are not retried at all unless
+     * "max-error-retry" is set.
+     *
+     * @return The AWS client settings.
+     */
+    protected AwsClientSettings getAwsClientSettings() {
+        boolean resilient = ResilienceSettings.fromConfig(getConfig().getConfigurationSection("storage.resilience"))
+                .isEnabled();
+        return AwsClientSettings.fromConfig(
+                getConfig().getConfigurationSection("aws"),
+                resilient ? 0 : AwsClientSettings.DEFAULT_MAX_ERROR_RETRY
+        );
+    }
+
+    /**
+     * Creates the storage backend of a bucket.
+     * By default, the backend is read from the "storage.buckets.&lt;bucket&gt;.backend" section of the plugin
+     * configuration, falling back to the "storage.backend" section. Its "type" is one of:
+     * <ul>
+     * <li>"s3", the default, which stores objects in Amazon S3.</li>
+     * <li>"memory", which keeps objects in memory, shared by every bucket of this plugin.</li>
+     * <li>"file", which stores objects in the local "directory", relative to the plugin data folder.</li>
+     * </ul>
+     *
+     * @param bucketName The name of the bucket.
+     * @return The storage backend of the bucket.
+     */
+    protected StorageBackend createStorageBackend(String bucketName) {
+        ConfigurationSection section = getStorageSection(bucketName, "backend");
+        String type = section != null ? section.getString("type", "s3") : "s3";
+        switch (type) {
+            case "s3":
+                return s3Backend;
+            case "memory":
+                return memoryBackend;
+            case "file":
+                String directory = section.getString("directory", "storage");
+                File file = new File(directory);
+                if (!file.isAbsolute()) {
+                    file = new File(getDataFolder(), directory);
+                }
+                return new FileStorageBackend(file.toPath());
+            default:
+                getLogger().warning("Unknown storage backend \"" + type + "\" for " + bucketName + ", using S3.");
+                return s3Backend;
+        }
+    }
+
+    /**
+     * Returns the resilience settings of a bucket.
+     * By default, the settings are read from the "storage.buckets.&lt;bucket&gt;.resilience" section of the
+     * plugin configuration, falling back to the "storage.resilience" section.
+     * <p>
+     * By default, gets and listings have deadlines, retryable errors are retried twice with jittered exponential
+     * backoff instead of by the S3 client (see {@link #getAwsClientSettings()}), gets are not hedged, and the
+     * backend of the bucket is considered unavailable for 10 seconds after 10 consecutive failures.
+     *
+     * @param bucketName The name of the bucket.
+     * @return The resilience settings of the bucket.
+     */
+    protected ResilienceSettings getResilienceSettings(String bucketName) {
+        return ResilienceSettings.fromConfig(getStorageSection(bucketName, "resilience"));
+    }
+
+    /**
+     * Returns the write-behind settings of a bucket.
+     * By default, the settings are read from the "storage.buckets.&lt;bucket&gt;.write-behind" section of the
+     * plugin configuration, falling back to the "storage.write-behind" section. Write-behind is disabled by default.
+     * <p>
+     * When write-behind is enabled, puts only buffer the object locally. Repeated puts of the same key are merged,
+     * and the latest object is uploaded on the next flush. Buffered objects are always flushed on disable.
+     *
+     * @param bucketName The name of the bucket.
+     * @return The write-behind settings of the bucket.
+     */
+    protected WriteBehindSettings getWriteBehindSettings(String bucketName) {
+        return WriteBehindSettings.fromConfig(getStorageSection(bucketName, "write-behind"));
+    }
+
+    /**
+     * Returns the encoding settings of a bucket.
+     * By default, the settings are read from the "storage.buckets.&lt;bucket&gt;.encoding" section of the
+     * plugin configuration, falling back to the "storage.encoding" section. Objects are stored as uncompressed JSON
+     * by default.
+     * <p>
+     * The format and compression codec are recorded as the content type and content encoding of every stored object,
+     * and objects are always read in the encoding they were stored in, so the encoding of a bucket can be changed
+     * while older servers still store JSON.
+     *
+     * @param bucketName The name of the bucket.
+     * @return The encoding settings of the bucket.
+     */
+    protected EncodingSettings getEncodingSettings(String bucketName) {
+        return EncodingSettings.fromConfig(getStorageSection(bucketName, "encoding"));
+    }
+
+    /**
+     * Returns the directory of the live servers of the network.
+     * The directory is created on first use and then reloaded in the background every refresh interval,
+     * so it is empty until its first reload completed, see {@link ServerDirectory#getRefreshedAt()}.
+     *
+     * @return The server directory.
+     */
+    public ServerDirectory getServerDirectory() {
+        ServerDirectory directory = serverDirectory;
+        if (directory == null) {
+            synchronized (this) {
+                directory = serverDirectory;
+                if (directory == null) {
+                    directory = new ServerDirectory();
+                    serverDirectory = directory;
+                    long interval = getServerDirectorySettings().getRefreshIntervalMillis();
+                    scheduler.scheduleWithFixedDelay(
+                            this::refreshServerDirectory,
+                            0,
+                            interval,
+                            TimeUnit.MILLISECONDS
+                    );
+                }
+            }
+        }
+        return directory;
+    }
+
+    /**
+     * Returns the blacklisted players of the network.
+     * The blacklist is created on first use, or when the plugin is enabled if the blacklist is enabled, and then
+     * synced in the background every sync interval, so it is empty until its first full sync completed, see
+     * {@link Blacklist#getRefreshedAt()}.
+     *
+     * @return The blacklist.
+     */
+    public Blacklist getBlacklist() {
+        Blacklist list = blacklist;
+        if (list == null) {
+            synchronized (this) {
+                list = blacklist;
+                if (list == null) {
+                    BlacklistSettings settings = getBlacklistSettings();
+                    list = new Blacklist(settings.getFalsePositiveRate());
+                    blacklist = list;
+                    AtomicLong fullSyncAt = new AtomicLong();
+                    scheduler.scheduleWithFixedDelay(
+                            () -> syncBlacklist(fullSyncAt, settings.getFullSyncIntervalMillis()),
+                            0,
+                            settings.getSyncIntervalMillis(),
+                            TimeUnit.MILLISECONDS
+                    );
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Returns the settings of the blacklist.
+     * By default, the settings are read from the "blacklist" section of the plugin configuration.
+     * The blacklist is loaded on first use by default. Each plugin which loads it keeps its own copy, and lists the
+     * blacklist bucket every sync interval, so only the plugins which enforce bans should enable it.
+     *
+     * @return The blacklist settings.
+     */
+    protected BlacklistSettings getBlacklistSettings() {
+        return BlacklistSettings.fromConfig(getConfig().getConfigurationSection("blacklist"));
+    }
+
+    /**
+     * Returns the catalog of every item, indexed by id and by material, see {@link #getPetCatalog()}.
+     *
+     * @return The item catalog.
+     */
+    public Catalog<ItemInfo> getItemCatalog() {
+        return catalogFor(Bucket.ITEMS, ItemInfo.class, ItemInfo::getId, ItemInfo::getType);
+    }
+
+    /**
+     * Returns the catalog of every pet, indexed by id and by type.
+     * The catalog is created on first use, or when the plugin is enabled if it is enabled in the catalog settings
+     * of the bucket, and then reloaded in the background every refresh interval, so it is empty until its first
+     * load completed, see {@link Catalog#getLoadedAt()}. Pets put or deleted by this server, or by other servers
+     * if the change feed is enabled, are updated right away.
+     *
+     * @return The pet catalog.
+     */
+    public Catalog<PetInfo> getPetCatalog() {
+        return catalogFor(Bucket.PETS, PetInfo.class, PetInfo::getId, PetInfo::getType);
+    }
+
+    /**
+     * Returns the catalog of every costume, indexed by id and by type, see {@link #getPetCatalog()}.
+     *
+     * @return The costume catalog.
+     */
+    public Catalog<CostumeInfo> getCostumeCatalog() {
+        return catalogFor(Bucket.COSTUMES, CostumeInfo.class, CostumeInfo::getId, CostumeInfo::getType);
+    }
+
+    /**
+     * Returns the catalog settings of a bucket.
+     * By default, the settings are read from the "storage.buckets.&lt;bucket&gt;.catalog" section of the plugin
+     * configuration, falling back to the "storage.catalog" section.
+     * Catalogs are loaded on first use by default. Each plugin which loads a catalog keeps its own copy of the
+     * bucket in memory and downloads it again every refresh interval, so only the plugins which look objects up
+     * by id or type should enable it. Player sessions only resolve pets through a loaded pet catalog.
+     *
+     * @param bucketName The name of the bucket.
+     * @return The catalog settings.
+     */
+    protected CatalogSettings getCatalogSettings(String bucketName) {
+        return CatalogSettings.fromConfig(getStorageSection(bucketName, "catalog"));
+    }
+
+    /**
+     * Returns the settings of the server directory and of heartbeats.
+     * By default, the settings are read from the "server-directory" section of the plugin configuration.
+     *
+     * @return The server directory settings.
+     */
+    protected ServerDirectorySettings getServerDirectorySettings() {
+        return ServerDirectorySettings.fromConfig(getConfig().getConfigurationSection("server-directory"));
+    }
+
+    /**
+     * Starts publishing heartbeats of a server, replacing the heartbeats of any previous server.
+     * Every heartbeat stores the server with an expiry of one TTL, so other servers drop it from their directory
+     * shortly after it stopped. The server is deleted when heartbeats are stopped or the plugin is disabled.
+     *
+     * @param serverInfo The server, usually this server.
+     */
+    public synchronized void startHeartbeat(ServerInfo serverInfo) {
+        if (heartbeatTask != null) {
+            heartbeatTask.cancel(false);
+        }
+        heartbeatServer = serverInfo;
+        long interval = getServerDirectorySettings().getHeartbeatIntervalMillis();
+        heartbeatTask = heartbeatScheduler.scheduleWithFixedDelay(
+                () -> publishHeartbeat(serverInfo),
+                0,
+                interval,
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    /**
+     * Stops publishing heartbeats and deletes the server, so other servers drop it right away.
+     * Does nothing if no heartbeats are published.
+     */
+    public synchronized void stopHeartbeat() {
+        if (heartbeatTask == null) {
+            return;
+        }
+        heartbeatTask.cancel(false);
+        heartbeatTask = null;
+        deleteServerInfo(heartbeatServer);
+        if (serverDirectory != null) {
+            serverDirectory.remove(heartbeatServer.createKey());
+        }
+        heartbeatServer = null;
+    }
+
+    /**
+     * Returns the session of an online player, which holds the data of the player loaded when the player logged in.
+     * The objects of a session are also served by the regular getters for as long as the player is online.
+     *
+     * @param playerId The id of the player.
+     * @return The session, or an empty Optional if the player is offline, or logged in before this plugin was
+     * enabled or while sessions were disabled.
+     */
+    public Optional<PlayerSession> getPlayerSession(UUID playerId) {
+        return playerSessions.get(playerId);
+    }
+
+    /**
+     * Loads the data of a player in parallel: the public and private player info, then the pet and the costume
+     * the public info refers to.
+     * <p>
+     * Pets are keyed by type, which the public info does not hold, so the pet is only resolved through the pet
+     * catalog, and is left out of sessions loaded while the catalog is disabled or not loaded yet.
+     * Objects which are changed while the session loads are refreshed once it opens.
+     *
+     * @param playerId The id of the player.
+     * @return A future which completes with the session of the player. The session is not opened.
+     */
+    public CompletableFuture<PlayerSession> loadPlayerSession(UUID playerId) {
+        playerSessions.beginLoad(playerId);
+        String playerKey = playerId.toString();
+        CompletableFuture<Optional<PublicPlayerInfo>> publicInfo = getPlayerPublicInfoAsync(playerKey);
+        CompletableFuture<Optional<PrivatePlayerInfo>> privateInfo = getPlayerPrivateInfoAsync(playerKey);
+
+        // Pets and costumes are served by their catalogs once loaded
+        Catalog<PetInfo> petCatalog = loadedCatalog(Bucket.PETS);
+        Catalog<CostumeInfo> costumeCatalog = loadedCatalog(Bucket.COSTUMES);
+        CompletableFuture<Optional<PetInfo>> pet = publicInfo.thenApply(info -> info
+                .map(PublicPlayerInfo::getPetId)
+                .flatMap(petId -> petCatalog != null ? petCatalog.getById(petId) : Optional.empty()));
+        CompletableFuture<Optional<CostumeInfo>> costume = publicInfo.thenCompose(info -> {
+            UUID costumeId = info.map(PublicPlayerInfo::getCostumeId).orElse(null);
+            if (costumeId == null) {
+                return CompletableFuture.completedFuture(Optional.empty());
+            }
+            Optional<CostumeInfo> cataloged = costumeCatalog != null
+                    ? costumeCatalog.getById(costumeId)
+                    : Optional.empty();
+            return cataloged.isPresent()
+                    ? CompletableFuture.completedFuture(cataloged)
+                    : getCostumeInfoAsync(costumeId.toString());
+        });
+
+        return CompletableFuture.allOf(privateInfo, pet, costume).thenApply(ignored -> {
+            Map<String, CloudCraftNetworkInfo> objects = new HashMap<>();
+            publicInfo.join().ifPresent(info -> objects.put(Bucket.PUBLIC_PLAYERS, info));
+            privateInfo.join().ifPresent(info -> objects.put(Bucket.PRIVATE_PLAYERS, info));
+            pet.join().ifPresent(info -> objects.put(Bucket.PETS, info));
+            costume.join().ifPresent(info -> objects.put(Bucket.COSTUMES, info));
+            return new PlayerSession(playerId, objects);
+        });
+    }
+
+    /**
+     * Returns the index of the friends and ignored lists of the players with a session, which answers
+     * "does this player ignore that sender?" and "who lists this player as a friend?" from memory.
+     * <p>
+     * The lists of a player are indexed when the session of the player opens, and kept up to date whenever the
+     * public info of the player is put or retrieved, until the session closes.
+     *
+     * @return The social graph.
+     */
+    public SocialGraph getSocialGraph() {
+        return socialGraph;
+    }
+
+    /**
+     * Returns the settings of player sessions.
+     * By default, the settings are read from the "player-sessions" section of the plugin configuration.
+     * Sessions are disabled by default. Each plugin which enables them loads the data of every player at login
+     * and keeps it in memory until the player quits, so only one plugin of a server should enable them.
+     *
+     * @return The player session settings.
+     */
+    protected PlayerSessionSettings getPlayerSessionSettings() {
+        return PlayerSessionSettings.fromConfig(getConfig().getConfigurationSection("player-sessions"));
+    }
+
+    /**
+     * Returns the feed of the changes made by every server, see {@link #getChangeFeedSettings()}.
+     *
+     * @return The change feed, or an empty Optional if it is disabled.
+     */
+    public Optional<ChangeFeed> getChangeFeed() {
+        return Optional.ofNullable(changeFeed);
+    }
+
+    /**
+     * Returns the settings of the change feed.
+     * By default, the settings are read from the "change-feed" section of the plugin configuration.
+     * The change feed is disabled by default.
+     * <p>
+     * When the change feed is enabled, every put and delete of this server is published to the other servers,
+     * which drop their cached copies of the object, and refresh the copies held by the server directory, the
+     * blacklist, the social graph and the sessions of online players. Every server of the network should enable it.
+     *
+     * @return The change feed settings.
+     */
+    protected ChangeFeedSettings getChangeFeedSettings() {
+        return ChangeFeedSettings.fromConfig(getConfig().getConfigurationSection("change-feed"));
+    }
+
+    /**
+     * Creates the transport of the change feed.
+     * By default, the "transport" of the settings is one of:
+     * <ul>
+     * <li>"storage", the default, which stores batches under the prefix of the settings in the changes bucket.</li>
+     * <li>"loopback", which keeps batches in memory, so changes never reach other servers.</li>
+     * </ul>
+     *
+     * @param settings The change feed settings.
+     * @return The transport.
+     */
+    protected ChangeFeedTransport createChangeFeedTransport(ChangeFeedSettings settings) {
+        switch (settings.getTransport()) {
+            case "loopback":
+                return new LoopbackChangeFeedTransport();
+            default:
+                if (!settings.getTransport().equals("storage")) {
+                    getLogger().warning("Unknown change feed transport \"" + settings.getTransport()
+                            + "\", using storage.");
+                }
+                return new StorageChangeFeedTransport(
+                        backendFor(Bucket.CHANGES),
+                        Bucket.CHANGES,
+                        settings.getPrefix(),
+                        settings.getClockSkewMillis(),
+                        settings.getRetentionMillis(),
+                        System::currentTimeMillis,
+                        e -> {
+                            getLogger().warning(e.toString());
+                            e.printStackTrace();
+                        }
+                );
+        }
+    }
+
+    /**
+     * Returns the settings of the currency ledger.
+     * By default, the settings are read from the "ledger" section of the plugin configuration.
+     * <p>
+     * Exactly one server of the network should enable compaction. Once the ledger is in use, the balances of
+     * PrivatePlayerInfo objects should only be written by that server.
+     *
+     * @return The ledger settings.
+     */
+    protected LedgerSettings getLedgerSettings() {
+        return LedgerSettings.fromConfig(getConfig().getConfigurationSection("ledger"));
+    }
+
+    /**
+     * Uploads every object buffered by write-behind right away.
+     *
+     * @return true if every object was uploaded, false if some objects are still buffered.
+     */
+    public boolean flushWrites() {
+        int failures = 0;
+        for (Optional<WriteBehindBuffer> buffer : writeBuffers.values()) {
+            if (buffer.isPresent()) {
+                failures += buffer.get().flush();
+            }
+        }
+        return failures == 0;
+    }
+
+    /**
+     * Returns the metrics of every storage call made by this plugin, by bucket and operation.
+     * The same metrics are available over JMX and, if the plugin declares a "storagemetrics" command,
+     * through that command, to senders with the "cloudcraft.storage.metrics" permission.
+     *
+     * @return The storage metrics.
+     */
+    public StorageMetrics getStorageMetrics() {
+        return storageMetrics;
+    }
+
+    /**
+     * Registers the "storagemetrics" command, if the plugin declares it, starts compacting the currency ledger,
+     * registers the player session listener, if sessions are enabled, starts the change feed and loading the
+     * blacklist and the catalogs, if they are enabled, and restores the disk caches in the background, if any is
+     * enabled. The currency ledger is flushed once the first currency change is made.
+     * Subclasses which override this method must call super.onEnable().
+     */
+    @Override
+    public void onEnable() {
+        PluginCommand command = getCommand("storagemetrics");
+        if (command != null) {
+            command.setExecutor(new StorageMetricsCommand(storageMetrics));
+        }
+        LedgerSettings ledgerSettings = getLedgerSettings();
+        if (ledgerSettings.isCompactionEnabled()) {
+            long compactionInterval = ledgerSettings.getCompactionIntervalMillis();
+            scheduler.scheduleWithFixedDelay(
+                    this::compactLedger,
+                    compactionInterval,
+                    compactionInterval,
+                    TimeUnit.MILLISECONDS
+            );
+        }
+        PlayerSessionSettings sessionSettings = getPlayerSessionSettings();
+        if (sessionSettings.isEnabled()) {
+            getServer().getPluginManager().registerEvents(new PlayerSessionListener(
+                    this::openPlayerSession,
+                    this::loadPlayerSession,
+                    this::closePlayerSession,
+                    playerSessions::discardLoad,
+                    sessionSettings.getPrefetchTimeoutMillis(),
+                    getLogger()
+            ), this);
+        }
+        ChangeFeedSettings feedSettings = getChangeFeedSettings();
+        if (feedSettings.isEnabled()) {
+            changeFeed = new ChangeFeed(createChangeFeedTransport(feedSettings), this::applyChange);
+            long feedFlushInterval = feedSettings.getFlushIntervalMillis();
+            long pollInterval = feedSettings.getPollIntervalMillis();
+            scheduler.scheduleWithFixedDelay(
+                    this::flushChangeFeed,
+                    feedFlushInterval,
+                    feedFlushInterval,
+                    TimeUnit.MILLISECONDS
+            );
+            scheduler.scheduleWithFixedDelay(this::pollChangeFeed, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+        }
+        if (getBlacklistSettings().isEnabled()) {
+            getBlacklist();
+        }
+        if (getCatalogSettings(Bucket.ITEMS).isEnabled()) {
+            getItemCatalog();
+        }
+        if (getCatalogSettings(Bucket.PETS).isEnabled()) {
+            getPetCatalog();
+        }
+        if (getCatalogSettings(Bucket.COSTUMES).isEnabled()) {
+            getCostumeCatalog();
+        }
+        for (String bucketName : Arrays.asList(Bucket.SERVERS, Bucket.ITEMS, Bucket.PETS, Bucket.COSTUMES,
+                Bucket.PUBLIC_PLAYERS, Bucket.PRIVATE_PLAYERS)) {
+            ioExecutor.execute(() -> warmCache(bucketName, infoClassOf(bucketName)));
+        }
+    }
+
+    /**
+     * Stops heartbeats, flushes buffered writes and stops the background S3 executor, waiting briefly for requests
+     * which are still in flight, then closes the disk caches and releases the S3 client. Subclasses which override
+     * this method must call super.onDisable().
+     */
+    @Override
+    public void onDisable() {
+        scheduler.shutdownNow();
+        heartbeatScheduler.shutdownNow();
+        stopHeartbeat();
+        if (currencyLedger.flush(record -> uploadObject(Bucket.LEDGER, record)) > 0) {
+            getLogger().warning("Some currency changes could not be uploaded to the ledger and were lost.");
+        }
+        if (!flushWrites()) {
+            getLogger().warning("Some buffered writes could not be uploaded to S3 and were lost.");
+        }
+        if (changeFeed != null) {
+            flushChangeFeed();
+        }
+        ioExecutor.shutdown();
+        try {
+            if (!ioExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                getLogger().warning("Timed out waiting for S3 requests to complete.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        storageExecutor.shutdownNow();
+        for (Optional<DiskCache> disk : diskCaches.values()) {
+            if (disk.isPresent()) {
+                try {
+                    disk.get().close();
+                } catch (IOException e) {
+                    getLogger().warning(e.toString());
+                    e.printStackTrace();
+                }
+            }
+        }
+        synchronized (this) {
+            if (s3Client != null) {
+                AwsClients.release(s3Client);
+                s3Client = null;
+            }
+        }
+        storageMetrics.unregister();
+    }
+
+    /**
+     * Returns the type of the server.
+     * Every server on the CloudCraftNetwork must give a type to better classify itself.
+     * Because of the potential variety of server types, the version or creator should be prefixed to the game type.
+     * For example, if your company is called "mycompany" and you want to register your own version of spleef,
+     * your type might be: "mycompany.spleef"
+     *
+     * @return The type of the server.
+     */
+    public abstract String getType();
+
+    /**
+     * Runs a blocking S3 request on the I/O executor.
+     *
+     * @param request The request.
+     * @param <T>     The type of the result.
+     * @return A future which completes with the result of the request.
+     */
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> request) {
+        return CompletableFuture.supplyAsync(request, ioExecutor);
+    }
+
+    /**
+     * Opens the session of a player and indexes the lists of the player in the social graph. Objects which were
+     * changed while the session loaded are refreshed in the background, from the write-behind buffer if they were
+     * put on this server and are not uploaded yet.
+     *
+     * @param session The session.
+     */
+    private void openPlayerSession(PlayerSession session) {
+        for (String bucketName : playerSessions.open(session)) {
+            PlayerSession.Pin pin = session.getPin(bucketName);
+            if (pin == null) {
+                continue;
+            }
+            String key = pin.getValue().createKey();
+            ioExecutor.execute(() -> {
+                Optional<CloudCraftNetworkInfo> buffered =
+                        writeBufferFor(bucketName).flatMap(buffer -> buffer.get(key));
+                if (buffered.isPresent()) {
+                    playerSessions.replacePinned(bucketName, key, pin.getValue(), buffered.get(), null);
+                } else {
+                    refreshObject(bucketName, key);
+                }
+            });
+        }
+        Optional<PublicPlayerInfo> publicInfo = session.getPublicInfo();
+        if (publicInfo.isPresent()) {
+            socialGraph.update(publicInfo.get());
+        } else {
+            socialGraph.update(session.getPlayerId(), null, null);
+        }
+    }
+
+    /**
+     * Closes the session of a player and removes the player from the social graph, then uploads the buffered writes
+     * of its objects and evicts them from the caches in the background.
+     *
+     * @param playerId The id of the player.
+     */
+    private void closePlayerSession(UUID playerId) {
+        socialGraph.remove(playerId);
+        playerSessions.close(playerId).ifPresent(session -> {
+            Runnable release = () -> {
+                for (Map.Entry<String, CloudCraftNetworkInfo> object : session.getObjects().entrySet()) {
+                    String key = object.getValue().createKey();
+                    writeBufferFor(object.getKey()).ifPresent(buffer -> buffer.flush(key));
+                    cacheFor(object.getKey()).invalidate(key);
+                }
+            };
+            try {
+                ioExecutor.execute(release);
+            } catch (RejectedExecutionException e) {
+                release.run();
+            }
+        });
+    }
+
+    /**
+     * Restores the objects of a bucket which are cached on disk into its in-memory cache, then revalidates them.
+     * Restored objects are stale, so each one costs a conditional request instead of a download, and is never
+     * served before S3 confirmed its ETag.
+     *
+     * @param bucketName The name of the bucket.
+     * @param infoClass  The class of the info objects of the bucket.
+     */
+    private <T extends CloudCraftNetworkInfo> void warmCache(String bucketName, Class<T> infoClass) {
+        Optional<DiskCache> disk = diskCacheFor(bucketName);
+        InfoCache cache = cacheFor(bucketName);
+        if (!disk.isPresent() || !cache.getSettings().isEnabled()) {
+            return;
+        }
+        List<String> keys = disk.get().getKeys();
+        for (String key : keys) {
+            try {
+                Optional<StoredObject> stored = disk.get().get(key);
+                if (stored.isPresent()) {
+                    try (StoredObject object = stored.get()) {
+                        T info = codec.read(
+                                object.getContent(),
+                                infoClass,
+                                object.getContentType(),
+                                object.getContentEncoding()
+                        );
+                        cache.put(key, info, object.getETag(), 0);
+                    }
+                }
+            } catch (IOException e) {
+                getLogger().warning("Unable to restore Object \"" + bucketName + ":" + key + "\" from disk: " + e);
+            }
+        }
+        getObjectsAsync(bucketName, keys, infoClass);
+    }
+
+    /**
+     * Uploads the currency changes made on this server to the ledger.
+     * Records are uploaded directly, since buffering them again would only delay them.
+     */
+    private void flushLedger() {
+        int failures = currencyLedger.flush(record -> uploadObject(Bucket.LEDGER, record));
+        if (failures > 0) {
+            getLogger().warning(failures + " currency ledger records could not be uploaded and will be retried.");
+        }
+    }
+
+    /**
+     * Publishes the changes made on this server to the change feed.
+     */
+    private void flushChangeFeed() {
+        try {
+            changeFeed.flush();
+        } catch (IOException e) {
+            getLogger().warning(e.toString());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Applies the changes other servers published to the change feed.
+     */
+    private void pollChangeFeed() {
+        try {
+            changeFeed.poll();
+        } catch (IOException e) {
+            getLogger().warning(e.toString());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Records a put or delete of this server in the change feed, if it is enabled.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     * @param eTag       The ETag of the stored object, or null if the object was deleted.
+     */
+    private void recordChange(String bucketName, String key, String eTag) {
+        ChangeFeed feed = changeFeed;
+        if (feed != null) {
+            feed.record(bucketName, key, eTag);
+        }
+    }
+
+    /**
+     * Applies a change made by another server. The cached and disk copies of the object are dropped, unless they
+     * already are the stored version, and the copies held by the server directory, the blacklist, the catalogs, the
+     * social graph and the sessions of online players are refreshed in the background. Objects with a pending
+     * write-behind upload are left alone, since the upload replaces the change.
+     *
+     * @param change The change.
+     */
+    private void applyChange(ChangeRecord change) {
+        String bucketName = change.getBucket();
+        String key = change.getKey();
+        if (writeBufferFor(bucketName).flatMap(buffer -> buffer.get(key)).isPresent()) {
+            return;
+        }
+        playerSessions.markChanged(bucketName, key);
+        Lock lock = keyLocks.get(bucketName + ":" + key);
+        lock.lock();
+        try {
+            InfoCache cache = cacheFor(bucketName);
+            InfoCache.Entry entry = cache.peek(key);
+            if (entry != null && (change.isDeleted() || !change.getVersion().equals(entry.getETag()))) {
+                cache.invalidate(key);
+            }
+            Optional<String> diskETag = diskCacheFor(bucketName)
+                    .flatMap(disk -> disk.lookup(key))
+                    .map(DiskCache.Entry::getETag);
+            if (diskETag.isPresent() && (change.isDeleted() || !change.getVersion().equals(diskETag.get()))) {
+                removeFromDisk(bucketName, key);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        boolean pinned = playerSessions.getPinned(bucketName, key) != null;
+        if (change.isDeleted()) {
+            if (pinned) {
+                playerSessions.updatePinned(bucketName, key, null);
+            }
+            if (bucketName.equals(Bucket.SERVERS) && serverDirectory != null) {
+                serverDirectory.remove(key);
+            } else if (bucketName.equals(Bucket.BLACKLIST) && blacklist != null) {
+                try {
+                    blacklist.remove(UUID.fromString(key));
+                } catch (IllegalArgumentException e) {
+                    // Not a player id, so not in the blacklist either
+                }
+            }
+            updateCatalog(bucketName, key, null);
+            return;
+        }
+        boolean held = pinned
+                || bucketName.equals(Bucket.SERVERS) && serverDirectory != null
+                || bucketName.equals(Bucket.BLACKLIST) && blacklist != null
+                || catalogs.containsKey(bucketName)
+                || bucketName.equals(Bucket.PUBLIC_PLAYERS) && isIndexed(key);
+        if (held) {
+            ioExecutor.execute(() -> refreshObject(bucketName, key));
+        }
+    }
+
+    /**
+     * Checks whether the key of a public player info is a player indexed in the social graph.
+     */
+    private boolean isIndexed(String publicPlayerKey) {
+        try {
+            return socialGraph.contains(UUID.fromString(publicPlayerKey));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Fetches the current version of an object changed by another server, and replaces the copies held by the
+     * sessions of online players, the server directory, the blacklist and the catalogs. Fetching replaces the
+     * pinned copy and re-indexes the social graph.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     */
+    private void refreshObject(String bucketName, String key) {
+        Optional<? extends CloudCraftNetworkInfo> object;
+        try {
+            object = fetchShared(bucketName, key, infoClassOf(bucketName), cacheFor(bucketName), null);
+        } catch (StorageException e) {
+            getLogger().warning(e.toString());
+            e.printStackTrace();
+            return;
+        }
+        if (!object.isPresent()) {
+            return;
+        }
+        CloudCraftNetworkInfo info = object.get();
+        if (info instanceof ServerInfo && serverDirectory != null) {
+            serverDirectory.update((ServerInfo) info);
+        } else if (info instanceof BlacklistInfo && blacklist != null) {
+            blacklist.update((BlacklistInfo) info);
+        }
+        updateCatalog(bucketName, key, info);
+    }
+
+    /**
+     * Adds every ledger record to the balance of its player, then deletes the records.
+     */
+    private void compactLedger() {
+        AtomicBoolean failed = new AtomicBoolean();
+        Map<String, List<String>> recordKeys = new LinkedHashMap<>();
+        try (Stream<String> keys = streamAllObjects(Bucket.LEDGER, null, null, e -> {
+            failed.set(true);
+            getLogger().warning(e.toString());
+            e.printStackTrace();
+        })) {
+            keys.forEach(key -> {
+                int separator = key.indexOf('/');
+                if (separator > 0) {
+                    recordKeys.computeIfAbsent(key.substring(0, separator), player -> new ArrayList<>()).add(key);
+                }
+            });
+        }
+        for (Map.Entry<String, List<String>> player : recordKeys.entrySet()) {
+            try {
+                compactLedger(UUID.fromString(player.getKey()), player.getValue());
+            } catch (RuntimeException e) {
+                getLogger().warning(e.toString());
+                e.printStackTrace();
+            }
+        }
+        if (failed.get()) {
+            getLogger().warning("The currency ledger could only be compacted partially.");
+        }
+    }
+
+    /**
+     * Adds the ledger records of a player to the stored balance of the player and to the changes of this server
+     * which were not uploaded yet.
+     *
+     * @param playerId The id of the player.
+     * @param records  The ledger records of the player, which were retrieved before the balance.
+     * @return The currencies of the player, or an empty Optional if the balance cannot be read.
+     */
+    private Optional<CurrencyBalance> sumCurrency(UUID playerId, FetchResult<CurrencyDeltaInfo> records) {
+        Optional<PrivatePlayerInfo> stored;
+        try {
+            stored = readBalance(playerId);
+        } catch (StorageException e) {
+            getLogger().warning(e.toString());
+            e.printStackTrace();
+            return Optional.empty();
+        }
+        Set<String> compacted = stored.map(PrivatePlayerInfo::getLedgerRecords).orElse(Collections.emptySet());
+
+        long dewPoints = stored.map(PrivatePlayerInfo::getDewPoints).orElse(0L)
+                + currencyLedger.getPendingDewPoints(playerId);
+        double frostPoints = stored.map(PrivatePlayerInfo::getFrostPoints).orElse(0.0)
+                + currencyLedger.getPendingFrostPoints(playerId);
+        for (CurrencyDeltaInfo record : records.getFound().values()) {
+            if (!compacted.contains(record.getRecordId())) {
+                dewPoints += record.getDewPoints();
+                frostPoints += record.getFrostPoints();
+            }
+        }
+        return Optional.of(new CurrencyBalance(dewPoints, frostPoints));
+    }
+
+    /**
+     * Reads the stored balance of a player from the storage backend. The write-behind buffer, the session of the
+     * player and the cache are skipped, since they may hold a copy older than the stored one: their copy is only
+     * used if a conditional request on its ETag confirms it is still current.
+     *
+     * @param playerId The id of the player.
+     * @return The private info of the player, or an empty Optional if it does not exist.
+     * @throws StorageException If the private info cannot be retrieved.
+     */
+    private Optional<PrivatePlayerInfo> readBalance(UUID playerId) throws StorageException {
+        String key = playerId.toString();
+        InfoCache cache = cacheFor(Bucket.PRIVATE_PLAYERS);
+        InfoCache.Entry entry = cache.getSettings().isEnabled() ? cache.peek(key) : null;
+        if (entry != null && !(entry.getValue() instanceof PrivatePlayerInfo)) {
+            entry = null;
+        }
+        return fetchObject(Bucket.PRIVATE_PLAYERS, key, PrivatePlayerInfo.class, cache, entry);
+    }
+
+    /**
+     * Adds the ledger records of a player to the balance of the player, then deletes the records.
+     * <p>
+     * The ids of the added records are stored along with the balance, in the same upload. If the records
+     * cannot be deleted afterwards, the next compaction deletes them without adding them a second time.
+     * <p>
+     * The balance is read fresh from the storage backend, after uploading any buffered put of it, and the player is
+     * skipped if it cannot be read, so the compacted balance never starts from an outdated or missing copy.
+     *
+     * @param playerId   The id of the player.
+     * @param recordKeys The keys of the records of the player.
+     */
+    private void compactLedger(UUID playerId, List<String> recordKeys) {
+        // Records which cannot be retrieved are left in the ledger for the next compaction
+        FetchResult<CurrencyDeltaInfo> records = getObjects(Bucket.LEDGER, recordKeys, CurrencyDeltaInfo.class);
+        Optional<WriteBehindBuffer> buffer = writeBufferFor(Bucket.PRIVATE_PLAYERS);
+        if (buffer.isPresent() && !buffer.get().flush(playerId.toString())) {
+            // The buffered put would overwrite the compacted balance once it is uploaded
+            return;
+        }
+        Optional<PrivatePlayerInfo> stored;
+        try {
+            stored = readBalance(playerId);
+        } catch (StorageException e) {
+            getLogger().warning(e.toString());
+            e.printStackTrace();
+            return;
+        }
+        Set<String> compacted = stored.map(PrivatePlayerInfo::getLedgerRecords).orElse(Collections.emptySet());
+
+        long dewPoints = stored.map(PrivatePlayerInfo::getDewPoints).orElse(0L);
+        double frostPoints = stored.map(PrivatePlayerInfo::getFrostPoints).orElse(0.0);
+        Set<String> added = new HashSet<>();
+        for (CurrencyDeltaInfo record : records.getFound().values()) {
+            if (!compacted.contains(record.getRecordId())) {
+                dewPoints += record.getDewPoints();
+                frostPoints += record.getFrostPoints();
+            }
+            added.add(record.getRecordId());
+        }
+        if (added.isEmpty()) {
+            return;
+        }
+
+        // Build a new object, since the stored one may be shared through the cache
+        PrivatePlayerInfo balance = new PrivatePlayerInfo(playerId, dewPoints, frostPoints, added);
+        if (!uploadObject(Bucket.PRIVATE_PLAYERS, balance)) {
+            return;
+        }
+        playerSessions.updatePinned(Bucket.PRIVATE_PLAYERS, balance.createKey(), balance);
+        for (CurrencyDeltaInfo record : records.getFound().values()) {
+            deleteObject(Bucket.LEDGER, record.createKey());
+        }
+    }
+
+    /**
+     * Stores a heartbeat of a server, extending its expiry by one TTL. The heartbeat is uploaded right away, even if
+     * write-behind is enabled for servers, since a buffered heartbeat would wait for the next flush.
+     *
+     * @param serverInfo The server.
+     */
+    private void publishHeartbeat(ServerInfo serverInfo) {
+        serverInfo.setExpiresAt(System.currentTimeMillis() + getServerDirectorySettings().getTtlMillis());
+        uploadObject(Bucket.SERVERS, serverInfo);
+        if (serverDirectory != null) {
+            serverDirectory.update(serverInfo);
+        }
+    }
+
+    /**
+     * Reloads every server of the directory. If the servers cannot be listed, the previous servers are kept,
+     * and they are only dropped once they expire. The same goes for servers which cannot be retrieved.
+     * Servers which expired longer than the purge delay ago are deleted, so servers which stopped without deleting
+     * themselves are not listed and retrieved by every refresh forever.
+     */
+    private void refreshServerDirectory() {
+        AtomicBoolean failed = new AtomicBoolean();
+        List<String> keys;
+        try (Stream<String> stream = streamAllObjects(Bucket.SERVERS, null, null, e -> {
+            failed.set(true);
+            getLogger().warning(e.toString());
+            e.printStackTrace();
+        })) {
+            keys = stream.collect(Collectors.toList());
+        }
+        if (failed.get()) {
+            return;
+        }
+        FetchResult<ServerInfo> fetched = getServerInfos(keys);
+        Map<String, ServerInfo> servers = new LinkedHashMap<>(fetched.getFound());
+        for (String key : fetched.getFailed().keySet()) {
+            serverDirectory.getServer(key).ifPresent(info -> servers.put(key, info));
+        }
+        serverDirectory.replace(servers);
+
+        long purgeAfter = getServerDirectorySettings().getPurgeAfterMillis();
+        if (purgeAfter > 0) {
+            long now = System.currentTimeMillis();
+            for (ServerInfo info : fetched.getFound().values()) {
+                if (info.isExpired(now - purgeAfter)) {
+                    deleteObject(Bucket.SERVERS, info.createKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the catalog of a bucket, creating it and scheduling its reloads on first use.
+     *
+     * @param bucketName The name of the bucket.
+     * @param infoClass  The class of the objects of the bucket.
+     * @param idOf       Returns the id of an object.
+     * @param typeOf     Returns the type of an object.
+     * @param <T>        The type of the objects.
+     * @return The catalog.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends CloudCraftNetworkInfo> Catalog<T> catalogFor(String bucketName, Class<T> infoClass,
+                                                                    Function<? super T, UUID> idOf,
+                                                                    Function<? super T, String> typeOf) {
+        return (Catalog<T>) catalogs.computeIfAbsent(bucketName, name -> {
+            Catalog<T> catalog = new Catalog<>(idOf, typeOf);
+            scheduler.scheduleWithFixedDelay(
+                    () -> refreshCatalog(name, infoClass, catalog),
+                    0,
+                    getCatalogSettings(name).getRefreshIntervalMillis(),
+                    TimeUnit.MILLISECONDS
+            );
+            return catalog;
+        });
+    }
+
+    /**
+     * Returns the catalog of a bucket if it was created and completed its first load.
+     *
+     * @param bucketName The name of the bucket.
+     * @param <T>        The type of the objects.
+     * @return The catalog, or null if it cannot serve lookups yet.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends CloudCraftNetworkInfo> Catalog<T> loadedCatalog(String bucketName) {
+        Catalog<T> catalog = (Catalog<T>) catalogs.get(bucketName);
+        return catalog != null && catalog.getLoadedAt() > 0 ? catalog : null;
+    }
+
+    /**
+     * Replaces or removes an object in the catalog of its bucket, if the bucket has a catalog.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     * @param object     The object, or null to remove it.
+     */
+    @SuppressWarnings("unchecked")
+    private void updateCatalog(String bucketName, String key, CloudCraftNetworkInfo object) {
+        Catalog<CloudCraftNetworkInfo> catalog = (Catalog<CloudCraftNetworkInfo>) catalogs.get(bucketName);
+        if (catalog == null) {
+            return;
+        }
+        if (object != null) {
+            catalog.update(key, object);
+        } else {
+            catalog.remove(key);
+        }
+    }
+
+    /**
+     * Reloads every object of a catalog, and swaps the new snapshot in once it is complete. If the bucket cannot be
+     * listed, the catalog is left unchanged, and objects which are listed but cannot be retrieved keep their
+     * previous copy. Objects which were deleted since they were listed are dropped, and objects put or deleted
+     * during the reload keep that change.
+     *
+     * @param bucketName The name of the bucket.
+     * @param infoClass  The class of the objects of the bucket.
+     * @param catalog    The catalog.
+     * @param <T>        The type of the objects.
+     */
+    private <T extends CloudCraftNetworkInfo> void refreshCatalog(String bucketName, Class<T> infoClass,
+                                                                  Catalog<T> catalog) {
+        Catalog.Snapshot<T> previous = catalog.snapshot();
+        AtomicBoolean failed = new AtomicBoolean();
+        List<String> keys;
+        try (Stream<String> stream = streamAllObjects(bucketName, null, null, e -> {
+            failed.set(true);
+            getLogger().warning(e.toString());
+            e.printStackTrace();
+        })) {
+            keys = stream.collect(Collectors.toList());
+        }
+        if (failed.get()) {
+            return;
+        }
+        FetchResult<T> fetched = getObjects(bucketName, keys, infoClass);
+        Map<String, T> objects = new HashMap<>(fetched.getFound());
+        for (String key : fetched.getFailed().keySet()) {
+            previous.getByKey(key).ifPresent(info -> objects.put(key, info));
+        }
+        catalog.replace(objects, previous.getVersion());
+    }
+
+    /**
+     * Stores a ban, and adds it to the blacklist if it is stored.
+     *
+     * @param blacklistInfo The ban.
+     * @return true if the ban was stored.
+     */
+    private boolean storeBan(BlacklistInfo blacklistInfo) {
+        boolean stored = putObject(Bucket.BLACKLIST, blacklistInfo);
+        if (stored && blacklist != null) {
+            blacklist.update(blacklistInfo);
+        }
+        return stored;
+    }
+
+    /**
+     * Deletes a ban, and removes it from the blacklist if it is deleted.
+     *
+     * @param blacklistInfo The ban.
+     * @return true if the ban was deleted.
+     */
+    private boolean liftBan(BlacklistInfo blacklistInfo) {
+        boolean deleted = deleteObject(Bucket.BLACKLIST, blacklistInfo.createKey());
+        if (deleted && blacklist != null) {
+            blacklist.remove(blacklistInfo.getPlayerId());
+        }
+        return deleted;
+    }
+
+    /**
+     * Syncs the blacklist with its bucket. A full sync downloads every entry, while an incremental sync lists the
+     * bucket, only downloads the entries it does not hold yet and drops those which were deleted. If the bucket
+     * cannot be listed, or a full sync cannot retrieve every entry, the blacklist is left unchanged, and entries
+     * which an incremental sync cannot retrieve are retried by the next sync. Bans stored or lifted during a sync,
+     * by this server or another one, are never undone by it.
+     *
+     * @param fullSyncAt       The time of the next full sync, updated by full syncs. The first sync is full.
+     * @param fullSyncInterval The time between two full syncs, in milliseconds.
+     */
+    private void syncBlacklist(AtomicLong fullSyncAt, long fullSyncInterval) {
+        long now = System.currentTimeMillis();
+        boolean full = now >= fullSyncAt.get();
+        long since = blacklist.getVersion();
+        AtomicBoolean failed = new AtomicBoolean();
+        List<String> keys;
+        try (Stream<String> stream = streamAllObjects(Bucket.BLACKLIST, null, null, e -> {
+            failed.set(true);
+            getLogger().warning(e.toString());
+            e.printStackTrace();
+        })) {
+            keys = stream.collect(Collectors.toList());
+        }
+        if (failed.get()) {
+            return;
+        }
+        Set<UUID> known = full ? Collections.emptySet() : blacklist.getPlayerIds();
+        Set<UUID> listed = new HashSet<>();
+        List<String> missing = new ArrayList<>();
+        for (String key : keys) {
+            UUID playerId;
+            try {
+                playerId = UUID.fromString(key);
+            } catch (IllegalArgumentException e) {
+                getLogger().warning("Blacklist entry \"" + key + "\" is not a player id.");
+                continue;
+            }
+            listed.add(playerId);
+            if (!known.contains(playerId)) {
+                missing.add(key);
+            }
+        }
+        FetchResult<BlacklistInfo> fetched = getBlacklistInfos(missing);
+        if (full && !fetched.isSuccessful()) {
+            // Replacing the blacklist now would lift every ban which failed to download
+            return;
+        }
+        List<BlacklistInfo> entries = new ArrayList<>(fetched.getFound().values());
+        if (full) {
+            blacklist.replace(entries, since);
+            fullSyncAt.set(now + fullSyncInterval);
+        } else {
+            List<UUID> removed = new ArrayList<>();
+            for (UUID playerId : known) {
+                if (!listed.contains(playerId)) {
+                    removed.add(playerId);
+                }
+            }
+            blacklist.apply(entries, removed, since);
+        }
+    }
+
+    /**
+     * Returns the storage configuration section of a bucket.
+     *
+     * @param bucketName The name of the bucket.
+     * @param name       The name of the section.
+     * @return The "storage.buckets.&lt;bucket&gt;.&lt;name&gt;" section if it exists,
+     * otherwise the "storage.&lt;name&gt;" section, or null if neither exists.
+     */
+    private ConfigurationSection getStorageSection(String bucketName, String name) {
+        ConfigurationSection section = getConfig().getConfigurationSection(
+                "storage.buckets." + Bucket.configPath(bucketName) + "." + name
+        );
+        return section != null ? section : getConfig().getConfigurationSection("storage." + name);
+    }
+
+    /**
+     * Returns the storage backend of a bucket, creating it if necessary.
+     * Calls to the backend are retried, bounded and hedged according to the resilience settings of the bucket,
+     * and every call is recorded once in the storage metrics: its latency and outcome cover all of its attempts,
+     * whose retries and hedges are not counted separately.
+     *
+     * @param bucketName The name of the bucket.
+     * @return The storage backend of the bucket.
+     */
+    private StorageBackend backendFor(String bucketName) {
+        return backends.computeIfAbsent(bucketName, name -> {
+            StorageBackend backend = createStorageBackend(name);
+            ResilienceSettings resilience = getResilienceSettings(name);
+            if (resilience.isEnabled()) {
+                backend = new ResilientStorageBackend(backend, resilience, storageExecutor);
+            }
+            return new InstrumentedStorageBackend(backend, storageMetrics, () -> getServer().isPrimaryThread());
+        });
+    }
+
+    /**
+     * Returns the in-memory cache of a bucket, creating it if necessary.
+     *
+     * @param bucketName The name of the bucket.
+     * @return The cache of the bucket.
+     */
+    private InfoCache cacheFor(String bucketName) {
+        return caches.computeIfAbsent(bucketName, name -> new InfoCache(getCacheSettings(name)));
+    }
+
+    /**
+     * Returns the on-disk cache of a bucket, opening it if necessary.
+     * Every bucket is cached in its own subdirectory of the cache directory.
+     *
+     * @param bucketName The name of the bucket.
+     * @return The disk cache, or an empty Optional if it is disabled for the bucket or cannot be opened.
+     */
+    private Optional<DiskCache> diskCacheFor(String bucketName) {
+        return diskCaches.computeIfAbsent(bucketName, name -> {
+            DiskCacheSettings settings = getDiskCacheSettings(name);
+            if (!settings.isEnabled()) {
+                return Optional.empty();
+            }
+            File directory = new File(settings.getDirectory());
+            if (!directory.isAbsolute()) {
+                directory = new File(getDataFolder(), settings.getDirectory());
+            }
+            DiskCache disk = new DiskCache(new File(directory, Bucket.configPath(name)).toPath(), settings);
+            try {
+                disk.open();
+                return Optional.of(disk);
+            } catch (IOException e) {
+                getLogger().warning("Unable to open the disk cache of " + name + ": " + e);
+                e.printStackTrace();
+                return Optional.empty();
+            }
+        });
+    }
+
+    /**
+     * Caches the raw bytes of an object on disk, if the bucket has a disk cache.
+     * A failure is logged and otherwise ignored, since the object is still stored in the backend.
+     *
+     * @param bucketName      The name of the bucket.
+     * @param key             The key of the object.
+     * @param content         The buffer holding the raw bytes of the object.
+     * @param length          The number of bytes.
+     * @param contentType     The content type of the object, may be null.
+     * @param contentEncoding The content encoding of the object, may be null.
+     * @param eTag            The ETag of the object, may be null.
+     */
+    private void storeOnDisk(String bucketName, String key, byte[] content, int length, String contentType,
+                             String contentEncoding, String eTag) {
+        Optional<DiskCache> disk = diskCacheFor(bucketName);
+        if (disk.isPresent()) {
+            try {
+                disk.get().put(key, content, 0, length, contentType, contentEncoding, eTag);
+            } catch (IOException e) {
+                getLogger().warning("Unable to cache Object \"" + bucketName + ":" + key + "\" on disk: " + e);
+            }
+        }
+    }
+
+    /**
+     * Removes an object from the disk cache, if the bucket has one.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     */
+    private void removeFromDisk(String bucketName, String key) {
+        Optional<DiskCache> disk = diskCacheFor(bucketName);
+        if (disk.isPresent()) {
+            try {
+                disk.get().remove(key);
+            } catch (IOException e) {
+                getLogger().warning("Unable to remove Object \"" + bucketName + ":" + key + "\" from disk: " + e);
+            }
+        }
+    }
+
+    /**
+     * Returns the write-behind buffer of a bucket, creating it and scheduling its flushes if necessary.
+     *
+     * @param bucketName The name of the bucket.
+     * @return The write-behind buffer, or an empty Optional if write-behind is disabled for the bucket.
+     */
+    private Optional<WriteBehindBuffer> writeBufferFor(String bucketName) {
+        return writeBuffers.computeIfAbsent(bucketName, name -> {
+            WriteBehindSettings settings = getWriteBehindSettings(name);
+            if (!settings.isEnabled()) {
+                return Optional.empty();
+            }
+            WriteBehindBuffer buffer = new WriteBehindBuffer(
+                    object -> uploadObject(name, object),
+                    key -> keyLocks.get(name + ":" + key),
+                    ioExecutor,
+                    batchParallelism
+            );
+            long interval = settings.getFlushIntervalMillis();
+            scheduler.scheduleWithFixedDelay(buffer::flush, interval, interval, TimeUnit.MILLISECONDS);
+            return Optional.of(buffer);
+        });
+    }
+
+    /**
+     * Deletes an object from the storage backend of the bucket.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object to be deleted
+     * @return true if the object was deleted, false otherwise.
+     */
+    private boolean deleteObject(String bucketName, String key) {
+        Lock lock = keyLocks.get(bucketName + ":" + key);
+        lock.lock();
+        try {
+            forgetObject(bucketName, key);
+            backendFor(bucketName).delete(bucketName, key);
+            recordChange(bucketName, key, null);
+            return true;
+        } catch (StorageException e) {
+            getLogger().warning(e.toString());
+            e.printStackTrace();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops every local copy of an object which is about to be deleted: the pinned, cataloged, buffered, cached and
+     * disk copies.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     */
+    private void forgetObject(String bucketName, String key) {
+        Lock lock = keyLocks.get(bucketName + ":" + key);
+        lock.lock();
+        try {
+            playerSessions.updatePinned(bucketName, key, null);
+            updateCatalog(bucketName, key, null);
+            writeBufferFor(bucketName).ifPresent(buffer -> buffer.discard(key));
+            cacheFor(bucketName).invalidate(key);
+            removeFromDisk(bucketName, key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores an object, either by buffering it if write-behind is enabled for the bucket, or by uploading it.
+     *
+     * @param bucketName The name of the bucket.
+     * @param object     The CloudCraftNetworkInfo object to store.
+     * @return true if the object was buffered or uploaded successfully, false otherwise.
+     */
+    private <T extends CloudCraftNetworkInfo> boolean putObject(String bucketName, T object) {
+        playerSessions.updatePinned(bucketName, object.createKey(), object);
+        updateCatalog(bucketName, object.createKey(), object);
+        updateSocialGraph(object);
+        Optional<WriteBehindBuffer> buffer = writeBufferFor(bucketName);
+        if (buffer.isPresent()) {
+            buffer.get().add(object);
+            cacheFor(bucketName).invalidate(object.createKey());
+            return true;
+        }
+        return uploadObject(bucketName, object);
+    }
+
+    /**
+     * Re-indexes the lists of a player in the social graph, if the object is the public info of an indexed player.
+     *
+     * @param object The object which was put or retrieved.
+     */
+    private void updateSocialGraph(CloudCraftNetworkInfo object) {
+        if (object instanceof PublicPlayerInfo) {
+            PublicPlayerInfo info = (PublicPlayerInfo) object;
+            if (socialGraph.contains(info.getId())) {
+                socialGraph.update(info);
+            }
+        }
+    }
+
+    /**
+     * Uploads an object to the storage backend of the bucket.
+     *
+     * @param bucketName The name of the bucket.
+     * @param object     The CloudCraftNetworkInfo object to upload.
+     * @return true if the object was uploaded successfully, false otherwise.
+     */
+    private boolean uploadObject(String bucketName, CloudCraftNetworkInfo object) {
+
+        // Serialize the object in the format of the bucket, compressing it if it is large enough
+        EncodingSettings encoding = encodings.computeIfAbsent(bucketName, this::getEncodingSettings);
+        ReusableByteArrayOutputStream buffer;
+        String contentEncoding = null;
+        try {
+            buffer = codec.write(object, encoding.getFormat());
+            int rawSize = buffer.size();
+            if (encoding.shouldCompress(rawSize)) {
+                ReusableByteArrayOutputStream compressed =
+                        codec.compress(buffer, encoding.getCompression(), encoding.getCompressionLevel());
+                if (compressed.size() < rawSize) {
+                    buffer = compressed;
+                    contentEncoding = encoding.getCompression().getContentEncoding();
+                }
+            }
+            storageMetrics.getCompression(bucketName).record(rawSize, buffer.size());
+        } catch (IOException e) {
+            getLogger().warning("Unable to serialize object into " + encoding.getFormat());
+            e.printStackTrace();
+            return false;
+        }
+
+        // upload the bytes, with a known length so the backend does not buffer them again.
+        // Uploads of the same key are serialized, so the cache always ends up with the object which was stored last
+        InfoCache cache = cacheFor(bucketName);
+        StoredObject stored = new StoredObject(
+                buffer.toInputStream(),
+                buffer.size(),
+                encoding.getFormat().getContentType(),
+                contentEncoding,
+                null
+        );
+        String key = object.createKey();
+        Lock lock = keyLocks.get(bucketName + ":" + key);
+        lock.lock();
+        try {
+            String eTag = backendFor(bucketName).put(bucketName, key, stored);
+            recordChange(bucketName, key, eTag);
+            if (cache.getSettings().isEnabled()) {
+                cache.put(key, object, eTag);
+            }
+            playerSessions.replacePinned(bucketName, key, object, object, eTag);
+            storeOnDisk(bucketName, key, buffer.getBuffer(), buffer.size(), stored.getContentType(),
+                    contentEncoding, eTag);
+            return true;
+        } catch (StorageException e) {
+            getLogger().warning(e.toString());
+            e.printStackTrace();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves an object, from the write-behind buffer, the session of an online player or the cache if a current
+     * copy is held, otherwise from the storage backend of the bucket.
+     * Stale cached and pinned objects are revalidated with a conditional request on their ETag.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     * @param infoClass  The class of the info object to return.
+     * @return the stored object mapped to a CloudCraftNetworkInfo object, or empty if it does not exist or cannot be
+     * retrieved.
+     */
+    private <T extends CloudCraftNetworkInfo> Optional<T> getObject(String bucketName, String key, Class<T> infoClass) {
+        try {
+            return loadObject(bucketName, key, infoClass);
+        } catch (StorageException e) {
+            getLogger().warning(e.toString());
+            e.printStackTrace();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Retrieves an object, see {@link #getObject(String, String, Class)}.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     * @param infoClass  The class of the info object to return.
+     * @return the stored object mapped to a CloudCraftNetworkInfo object, or empty if it does not exist.
+     * @throws StorageException If the object cannot be retrieved.
+     */
+    private <T extends CloudCraftNetworkInfo> Optional<T> loadObject(String bucketName, String key, Class<T> infoClass)
+            throws StorageException {
+
+        if (bucketName == null) {
+            return Optional.empty();
+        }
+
+        // Serve objects which have not been uploaded yet from the write-behind buffer
+        Optional<CloudCraftNetworkInfo> buffered = writeBufferFor(bucketName).flatMap(buffer -> buffer.get(key));
+        if (buffered.isPresent() && infoClass.isInstance(buffered.get())) {
+            return Optional.of(infoClass.cast(buffered.get()));
+        }
+
+        // Serve objects pinned by the session of an online player. The change feed refreshes pinned objects when
+        // other servers change them, so without it they are only served within the TTL of the cache, like cached ones
+        InfoCache cache = cacheFor(bucketName);
+        PlayerSession.Pin pin = playerSessions.getPin(bucketName, key);
+        if (pin != null && infoClass.isInstance(pin.getValue()) && (changeFeed != null
+                || System.currentTimeMillis() - pin.getValidatedAt() < cache.getSettings().getTtlMillis())) {
+            return Optional.of(infoClass.cast(pin.getValue()));
+        }
+
+        // Serve the object from the cache if it is current
+        InfoCache.Entry entry = null;
+        if (cache.getSettings().isEnabled()) {
+            entry = cache.lookup(key);
+            if (entry != null && !infoClass.isInstance(entry.getValue())) {
+                entry = null;
+            }
+        }
+        if (entry != null && cache.isFresh(entry)) {
+            return Optional.of(infoClass.cast(entry.getValue()));
+        }
+
+        return fetchShared(bucketName, key, infoClass, cache, entry);
+    }
+
+    /**
+     * Retrieves an object from the storage backend of the bucket, sharing the request of any concurrent read of the
+     * same object, see {@link #fetchObject(String, String, Class, InfoCache, InfoCache.Entry)}.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     * @param infoClass  The class of the info object to return.
+     * @param cache      The cache of the bucket.
+     * @param entry      The stale cached copy of the object, which is revalidated, or null if none is cached.
+     * @return the stored object mapped to a CloudCraftNetworkInfo object, or empty if it does not exist.
+     * @throws StorageException If the object cannot be retrieved.
+     */
+    private <T extends CloudCraftNetworkInfo> Optional<T> fetchShared(
+            String bucketName,
+            String key,
+            Class<T> infoClass,
+            InfoCache cache,
+            InfoCache.Entry entry
+    ) throws StorageException {
+        try {
+            return fetches.execute(bucketName + ":" + infoClass.getName() + ":" + key, () -> {
+                try {
+                    return fetchObject(bucketName, key, infoClass, cache, entry).map(CloudCraftNetworkInfo.class::cast);
+                } catch (StorageException e) {
+                    // Carry the failure through the single flight to every waiting reader
+                    throw new UncheckedIOException(e);
+                }
+            }).map(infoClass::cast);
+        } catch (UncheckedIOException e) {
+            if (e.getCause() instanceof StorageException) {
+                throw (StorageException) e.getCause();
+            }
+            throw new StorageException("Unable to retrieve Object \"" + bucketName + ":" + key + "\".", e.getCause());
+        }
+    }
+
+    /**
+     * Retrieves an object from the storage backend of the bucket, caches it, and replaces the copy pinned by the
+     * session of an online player.
+     * A copy is only replaced if it did not change while the object was being retrieved, so a slow request never
+     * replaces a newer copy stored, fetched or invalidated meanwhile.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     * @param infoClass  The class of the info object to return.
+     * @param cache      The cache of the bucket.
+     * @param entry      The stale cached copy of the object, which is revalidated, or null if none is cached.
+     * @return the stored object mapped to a CloudCraftNetworkInfo object, or empty if it does not exist.
+     * @throws StorageException If the object cannot be retrieved, read or parsed.
+     */
+    private <T extends CloudCraftNetworkInfo> Optional<T> fetchObject(
+            String bucketName,
+            String key,
+            Class<T> infoClass,
+            InfoCache cache,
+            InfoCache.Entry entry
+    ) throws StorageException {
+
+        // Remember the copies the request starts from, to detect whether they are replaced before it completes
+        Optional<DiskCache> disk = diskCacheFor(bucketName);
+        InfoCache.Entry cachedAtStart = cache.peek(key);
+        DiskCache.Entry storedAtStart = disk.flatMap(diskCache -> diskCache.lookup(key)).orElse(null);
+        PlayerSession.Pin pin = playerSessions.getPin(bucketName, key);
+        CloudCraftNetworkInfo pinnedAtStart = pin != null && infoClass.isInstance(pin.getValue())
+                ? pin.getValue()
+                : null;
+
+        // Revalidate the copy in memory, or else the pinned copy, or else the copy on disk, with its ETag
+        String eTag = null;
+        boolean fromPin = false;
+        if (entry != null) {
+            eTag = entry.getETag();
+        } else if (pinnedAtStart != null && pin.getETag() != null) {
+            eTag = pin.getETag();
+            fromPin = true;
+        } else if (storedAtStart != null) {
+            eTag = storedAtStart.getETag();
         }
 
+        // Retrieve the raw object, unless it still matches the cached copy
+        Optional<StoredObject> stored;
+        boolean fromDisk = false;
         try {
-            ListObjectsRequest request = new ListObjectsRequest();
-            request.setBucketName(bucketName);
-            request.setPrefix(prefix);
-            request.setDelimiter(delimiter);
-            for (
-                    ObjectListing listing = s3Client.listObjects(request);
-                    listing.getObjectSummaries().size() > 0;
-                    listing = s3Client.listNextBatchOfObjects(listing)
-                    ) {
-                results.addAll(listing.getObjectSummaries().stream().map(S3ObjectSummary::getKey).collect(Collectors.toList()));
-            }
-        } catch (AmazonClientException e) {
+            stored = backendFor(bucketName).get(bucketName, key, eTag);
+            if (entry == null && !fromPin && stored.isPresent() && !stored.get().isModified()) {
+
+                // Read the copy on disk, or download the object after all if the copy was dropped meanwhile
+                stored = disk.get().get(key);
+                fromDisk = stored.isPresent();
+                if (!fromDisk) {
+                    stored = backendFor(bucketName).get(bucketName, key, null);
+                }
+            }
+        } catch (StorageException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new StorageException("Unable to retrieve Object \"" + bucketName + ":" + key + "\".", e);
+        }
+        if (!stored.isPresent()) {
+            Lock lock = keyLocks.get(bucketName + ":" + key);
+            lock.lock();
+            try {
+                if (disk.isPresent() && disk.get().lookup(key).orElse(null) == storedAtStart) {
+                    removeFromDisk(bucketName, key);
+                }
+                if (pinnedAtStart != null) {
+                    playerSessions.replacePinned(bucketName, key, pinnedAtStart, null, null);
+                }
+            } finally {
+                lock.unlock();
+            }
+            return Optional.empty();
+        }
+        if (!stored.get().isModified()) {
+            if (fromPin) {
+                playerSessions.revalidatedPinned(bucketName, key, pinnedAtStart);
+                return Optional.of(infoClass.cast(pinnedAtStart));
+            }
+            cache.revalidated(entry);
+            if (pinnedAtStart == entry.getValue()) {
+                playerSessions.revalidatedPinned(bucketName, key, pinnedAtStart);
+            } else if (pinnedAtStart != null) {
+                playerSessions.replacePinned(bucketName, key, pinnedAtStart, entry.getValue(), entry.getETag());
+            }
+            return Optional.of(infoClass.cast(entry.getValue()));
+        }
+
+        // Parse the stored stream straight into a CloudCraftNetworkInfo object, decompressing it on the fly.
+        // Objects of a bucket with a disk cache are read into memory first, so their raw bytes can be cached on disk
+        try (StoredObject object = stored.get()) {
+            InputStream content = object.getContent();
+            byte[] raw = null;
+            if (disk.isPresent() && !fromDisk) {
+                raw = readContent(object);
+                content = new ByteArrayInputStream(raw);
+            }
+            T info = codec.read(
+                    content,
+                    infoClass,
+                    object.getContentType(),
+                    object.getContentEncoding()
+            );
+
+            // Cache the object under the key lock, unless a newer copy was stored or dropped meanwhile
+            Lock lock = keyLocks.get(bucketName + ":" + key);
+            lock.lock();
+            try {
+                if (raw != null && disk.get().lookup(key).orElse(null) == storedAtStart) {
+                    storeOnDisk(bucketName, key, raw, raw.length, object.getContentType(),
+                            object.getContentEncoding(), object.getETag());
+                }
+                if (cache.getSettings().isEnabled() && cache.peek(key) == cachedAtStart) {
+                    cache.put(key, info, object.getETag());
+                }
+                if (pinnedAtStart != null) {
+                    playerSessions.replacePinned(bucketName, key, pinnedAtStart, info, object.getETag());
+                }
+            } finally {
+                lock.unlock();
+            }
+            updateSocialGraph(info);
+            return Optional.of(info);
+        } catch (JsonProcessingException e) {
+            throw new StorageException(
+                    "Object \"" + bucketName + ":" + key + "\" is not a valid " + infoClass.getName() + ".",
+                    e
+            );
+        } catch (IOException e) {
+            throw new StorageException("Unable to read Object \"" + bucketName + ":" + key + "\".", e, true);
+        }
+    }
+
+    /**
+     * Retrieves several objects, fetching them in parallel on the I/O executor.
+     * This blocks until every object has been retrieved, so it must not be called from the I/O executor itself.
+     *
+     * @param bucketName The name of the bucket.
+     * @param keys       The keys of the objects.
+     * @param infoClass  The class of the info objects to return.
+     * @return The objects which were found, in the order of the keys, the keys which are missing and those which
+     * failed.
+     */
+    private <T extends CloudCraftNetworkInfo> FetchResult<T> getObjects(
+            String bucketName,
+            Collection<String> keys,
+            Class<T> infoClass
+    ) {
+        return getObjectsAsync(bucketName, keys, infoClass).join();
+    }
+
+    /**
+     * Retrieves several objects, fetching them in parallel on the I/O executor.
+     * A failure to retrieve one object never fails the whole batch, the failed key is reported with its error,
+     * apart from the keys which do not exist.
+     *
+     * @param bucketName The name of the bucket.
+     * @param keys       The keys of the objects.
+     * @param infoClass  The class of the info objects to return.
+     * @return A future which completes with the objects which were found, in the order of the keys, the keys which
+     * are missing and those which failed.
+     */
+    private <T extends CloudCraftNetworkInfo> CompletableFuture<FetchResult<T>> getObjectsAsync(
+            String bucketName,
+            Collection<String> keys,
+            Class<T> infoClass
+    ) {
+        Map<String, CompletableFuture<Optional<T>>> requests = new LinkedHashMap<>();
+        for (String key : keys) {
+            requests.computeIfAbsent(key, k -> supplyAsync(() -> {
+                try {
+                    return loadObject(bucketName, k, infoClass);
+                } catch (StorageException e) {
+                    throw new CompletionException(e);
+                }
+            }));
+        }
+        return CompletableFuture.allOf(requests.values().toArray(new CompletableFuture<?>[requests.size()]))
+                .handle((ignored, error) -> {
+                    Map<String, T> found = new LinkedHashMap<>();
+                    List<String> missing = new ArrayList<>();
+                    Map<String, StorageException> failed = new LinkedHashMap<>();
+                    requests.forEach((key, request) -> {
+                        try {
+                            Optional<T> object = request.join();
+                            if (object.isPresent()) {
+                                found.put(key, object.get());
+                            } else {
+                                missing.add(key);
+                            }
+                        } catch (CompletionException e) {
+                            StorageException failure = e.getCause() instanceof StorageException
+                                    ? (StorageException) e.getCause()
+                                    : new StorageException(
+                                            "Unable to retrieve Object \"" + bucketName + ":" + key + "\".",
+                                            e.getCause()
+                                    );
+                            getLogger().warning(failure.toString());
+                            failed.put(key, failure);
+                        }
+                    });
+                    return new FetchResult<>(found, missing, failed);
+                });
+    }
+
+    /**
+     * Queries the storage backend of the bucket for keys.
+     * Long responses might be truncated. This method ensures that all results are returned in a single list.
+     *
+     * @param bucketName The bucket name.
+     * @param prefix     The key prefix. Only keys which match the prefix are returned.
+     * @param delimiter  The delimiter. All suffixes after the delimiter are dropped from the keys.
+     * @return A list of keys which match the query. This list is never null.
+     */
+    private List<String> listAllObjects(String bucketName, String prefix, String delimiter) {
+        try (Stream<String> keys = streamAllObjects(bucketName, prefix, delimiter)) {
+            return keys.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Lazily queries the storage backend of the bucket for keys.
+     * Pages are requested as the stream is consumed, and the next page is requested in the background while
+     * the current page is consumed. Closing the stream, or abandoning it, stops the paging.
+     *
+     * @param bucketName The bucket name.
+     * @param prefix     The key prefix. Only keys which match the prefix are returned.
+     * @param delimiter  The delimiter. All suffixes after the delimiter are dropped from the keys.
+     * @return A stream of the keys which match the query. The stream ends early if the backend cannot be queried.
+     */
+    private Stream<String> streamAllObjects(String bucketName, String prefix, String delimiter) {
+        return streamAllObjects(bucketName, prefix, delimiter, e -> {
             getLogger().warning(e.toString());
             e.printStackTrace();
+        });
+    }
+
+    /**
+     * Lazily queries the storage backend of the bucket for keys, see
+     * {@link #streamAllObjects(String, String, String)}.
+     *
+     * @param bucketName   The bucket name.
+     * @param prefix       The key prefix. Only keys which match the prefix are returned.
+     * @param delimiter    The delimiter. All suffixes after the delimiter are dropped from the keys.
+     * @param errorHandler Receives the error which ended the stream early, if any.
+     * @return A stream of the keys which match the query. The stream ends early if the backend cannot be queried.
+     */
+    private Stream<String> streamAllObjects(String bucketName, String prefix, String delimiter,
+                                            Consumer<StorageException> errorHandler) {
+
+        if (bucketName == null) {
+            return Stream.empty();
+        }
+
+        StorageBackend backend = backendFor(bucketName);
+        ListingIterator iterator =
+                new ListingIterator(backend, bucketName, prefix, delimiter, ioExecutor, errorHandler);
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+                false
+        ).onClose(iterator::close);
+    }
+
+    /**
+     * Returns the class of the info objects stored in a bucket.
+     *
+     * @param bucketName The name of the bucket.
+     * @return The info class, or CloudCraftNetworkInfo for unknown buckets.
+     */
+    private static Class<? extends CloudCraftNetworkInfo> infoClassOf(String bucketName) {
+        switch (bucketName) {
+            case Bucket.SERVERS:
+                return ServerInfo.class;
+            case Bucket.PUBLIC_PLAYERS:
+                return PublicPlayerInfo.class;
+            case Bucket.PRIVATE_PLAYERS:
+                return PrivatePlayerInfo.class;
+            case Bucket.LEDGER:
+                return CurrencyDeltaInfo.class;
+            case Bucket.ITEMS:
+                return ItemInfo.class;
+            case Bucket.PETS:
+                return PetInfo.class;
+            case Bucket.COSTUMES:
+                return CostumeInfo.class;
+            case Bucket.BLACKLIST:
+                return BlacklistInfo.class;
+            default:
+                return CloudCraftNetworkInfo.class;
+        }
+    }
+
+    /**
+     * Returns the bucket an info object is stored in.
+     *
+     * @param object The info object.
+     * @return The name of the bucket, or null if the object is of an unknown type.
+     */
+    private static String bucketOf(CloudCraftNetworkInfo object) {
+        if (object instanceof ServerInfo) {
+            return Bucket.SERVERS;
+        } else if (object instanceof PublicPlayerInfo) {
+            return Bucket.PUBLIC_PLAYERS;
+        } else if (object instanceof PrivatePlayerInfo) {
+            return Bucket.PRIVATE_PLAYERS;
+        } else if (object instanceof CurrencyDeltaInfo) {
+            return Bucket.LEDGER;
+        } else if (object instanceof ItemInfo) {
+            return Bucket.ITEMS;
+        } else if (object instanceof PetInfo) {
+            return Bucket.PETS;
+        } else if (object instanceof CostumeInfo) {
+            return Bucket.COSTUMES;
+        } else if (object instanceof BlacklistInfo) {
+            return Bucket.BLACKLIST;
         }
+        return null;
+    }
 
-        return results;
+    /**
+     * Reads the whole content of a stored object.
+     *
+     * @param object The stored object.
+     * @return The content.
+     * @throws IOException If the content cannot be read.
+     */
+    private static byte[] readContent(StoredObject object) throws IOException {
+        long length = object.getContentLength();
+        ByteArrayOutputStream content = new ByteArrayOutputStream(length > 0 && length < Integer.MAX_VALUE
+                ? (int) length
+                : 4096);
+        byte[] buffer = new byte[8192];
+        InputStream in = object.getContent();
+        for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+            content.write(buffer, 0, read);
+        }
+        return content.toByteArray();
     }
 }
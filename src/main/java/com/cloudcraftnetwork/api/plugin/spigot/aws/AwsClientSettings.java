@@ -0,0 +1,188 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.aws;
+
+import com.amazonaws.ClientConfiguration;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The connection settings of the AWS clients.
+ * Clients are shared between the plugins whose settings and credentials are equal.
+ */
+public class AwsClientSettings {
+
+    public static final int DEFAULT_MAX_CONNECTIONS = ClientConfiguration.DEFAULT_MAX_CONNECTIONS;
+    public static final int DEFAULT_CONNECTION_TIMEOUT_MILLIS = ClientConfiguration.DEFAULT_CONNECTION_TIMEOUT;
+    public static final int DEFAULT_SOCKET_TIMEOUT_MILLIS = ClientConfiguration.DEFAULT_SOCKET_TIMEOUT;
+    public static final int DEFAULT_MAX_ERROR_RETRY = 3;
+    public static final boolean DEFAULT_TCP_KEEP_ALIVE = true;
+    public static final long DEFAULT_CONNECTION_MAX_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * The maximum number of open HTTP connections of a client.
+     */
+    private final int maxConnections;
+
+    /**
+     * The time to wait for a connection to be established.
+     */
+    private final int connectionTimeoutMillis;
+
+    /**
+     * The time to wait for data on an established connection.
+     */
+    private final int socketTimeoutMillis;
+
+    /**
+     * The number of times a failed request is retried by the client.
+     */
+    private final int maxErrorRetry;
+
+    /**
+     * Whether TCP keep-alive probes are sent on idle connections.
+     */
+    private final boolean tcpKeepAlive;
+
+    /**
+     * The time after which an idle pooled connection is closed instead of being reused.
+     */
+    private final long connectionMaxIdleMillis;
+
+    public AwsClientSettings(int maxConnections, int connectionTimeoutMillis, int socketTimeoutMillis,
+                             int maxErrorRetry, boolean tcpKeepAlive, long connectionMaxIdleMillis) {
+        this.maxConnections = maxConnections;
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+        this.socketTimeoutMillis = socketTimeoutMillis;
+        this.maxErrorRetry = maxErrorRetry;
+        this.tcpKeepAlive = tcpKeepAlive;
+        this.connectionMaxIdleMillis = connectionMaxIdleMillis;
+    }
+
+    /**
+     * Reads AWS client settings from a configuration section.
+     * Missing values, or a missing section, fall back to the defaults.
+     *
+     * @param section The configuration section, may be null.
+     * @return The AWS client settings.
+     */
+    public static AwsClientSettings fromConfig(ConfigurationSection section) {
+        return fromConfig(section, DEFAULT_MAX_ERROR_RETRY);
+    }
+
+    /**
+     * Reads AWS client settings from a configuration section, with another default number of retries.
+     * Missing values, or a missing section, fall back to the defaults.
+     *
+     * @param section              The configuration section, may be null.
+     * @param defaultMaxErrorRetry The number of times a failed request is retried if the section does not say.
+     * @return The AWS client settings.
+     */
+    public static AwsClientSettings fromConfig(ConfigurationSection section, int defaultMaxErrorRetry) {
+        if (section == null) {
+            return new AwsClientSettings(
+                    DEFAULT_MAX_CONNECTIONS,
+                    DEFAULT_CONNECTION_TIMEOUT_MILLIS,
+                    DEFAULT_SOCKET_TIMEOUT_MILLIS,
+                    defaultMaxErrorRetry,
+                    DEFAULT_TCP_KEEP_ALIVE,
+                    DEFAULT_CONNECTION_MAX_IDLE_MILLIS
+            );
+        }
+        return new AwsClientSettings(
+                section.getInt("max-connections", DEFAULT_MAX_CONNECTIONS),
+                section.getInt("connection-timeout-millis", DEFAULT_CONNECTION_TIMEOUT_MILLIS),
+                section.getInt("socket-timeout-millis", DEFAULT_SOCKET_TIMEOUT_MILLIS),
+                section.getInt("max-error-retry", defaultMaxErrorRetry),
+                section.getBoolean("tcp-keep-alive", DEFAULT_TCP_KEEP_ALIVE),
+                section.getLong("connection-max-idle-millis", DEFAULT_CONNECTION_MAX_IDLE_MILLIS)
+        );
+    }
+
+    /**
+     * Creates the client configuration of these settings.
+     *
+     * @return A new client configuration.
+     */
+    public ClientConfiguration toClientConfiguration() {
+        return new ClientConfiguration()
+                .withMaxConnections(maxConnections)
+                .withConnectionTimeout(connectionTimeoutMillis)
+                .withSocketTimeout(socketTimeoutMillis)
+                .withMaxErrorRetry(maxErrorRetry)
+                .withTcpKeepAlive(tcpKeepAlive)
+                .withConnectionMaxIdleMillis(connectionMaxIdleMillis);
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public int getConnectionTimeoutMillis() {
+        return connectionTimeoutMillis;
+    }
+
+    public int getSocketTimeoutMillis() {
+        return socketTimeoutMillis;
+    }
+
+    public int getMaxErrorRetry() {
+        return maxErrorRetry;
+    }
+
+    public boolean isTcpKeepAlive() {
+        return tcpKeepAlive;
+    }
+
+    public long getConnectionMaxIdleMillis() {
+        return connectionMaxIdleMillis;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AwsClientSettings)) {
+            return false;
+        }
+        AwsClientSettings that = (AwsClientSettings) o;
+        return maxConnections == that.maxConnections
+                && connectionTimeoutMillis == that.connectionTimeoutMillis
+                && socketTimeoutMillis == that.socketTimeoutMillis
+                && maxErrorRetry == that.maxErrorRetry
+                && tcpKeepAlive == that.tcpKeepAlive
+                && connectionMaxIdleMillis == that.connectionMaxIdleMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxConnections, connectionTimeoutMillis, socketTimeoutMillis, maxErrorRetry,
+                tcpKeepAlive, connectionMaxIdleMillis);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.aws;
+
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3Client;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A registry of the AWS clients shared by every plugin which loads this class.
+ * <p>
+ * Plugins with equal credentials and settings share one client, and so one connection pool. Clients are reference
+ * counted: a client is created by the first plugin which acquires it and shut down once every plugin released it.
+ * <p>
+ * Sharing spans the plugins which load this API from the same class loader, such as plugins which depend on a
+ * single installed copy of it. A plugin which shades its own copy has a registry of its own.
+ */
+public final class AwsClients {
+
+    /**
+     * The credentials and settings a client was created with.
+     */
+    private static final class Key {
+
+        private final String accessKeyId;
+        private final String secretKey;
+        private final AwsClientSettings settings;
+
+        private Key(AWSCredentials credentials, AwsClientSettings settings) {
+            this.accessKeyId = credentials.getAWSAccessKeyId();
+            this.secretKey = credentials.getAWSSecretKey();
+            this.settings = settings;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return Objects.equals(accessKeyId, that.accessKeyId)
+                    && Objects.equals(secretKey, that.secretKey)
+                    && settings.equals(that.settings);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(accessKeyId, secretKey, settings);
+        }
+    }
+
+    /**
+     * A shared client and the number of plugins which hold it.
+     */
+    private static final class Shared {
+
+        private final Key key;
+        private final AmazonS3Client client;
+        private int users;
+
+        private Shared(Key key, AmazonS3Client client) {
+            this.key = key;
+            this.client = client;
+        }
+    }
+
+    private static final Map<Key, Shared> S3_CLIENTS = new HashMap<>();
+    private static final Map<AmazonS3, Shared> S3_CLIENTS_BY_INSTANCE = new IdentityHashMap<>();
+
+    private AwsClients() {
+    }
+
+    /**
+     * Returns the S3 client of some credentials and settings, creating it if no plugin holds one yet.
+     * Every call must be matched by a call to {@link #release(AmazonS3)}.
+     *
+     * @param credentials The credentials of the client.
+     * @param settings    The connection settings of the client.
+     * @return The shared S3 client.
+     */
+    public static synchronized AmazonS3 acquireS3(AWSCredentials credentials, AwsClientSettings settings) {
+        Key key = new Key(credentials, settings);
+        Shared shared = S3_CLIENTS.get(key);
+        if (shared == null) {
+            shared = new Shared(key, new AmazonS3Client(credentials, settings.toClientConfiguration()));
+            S3_CLIENTS.put(key, shared);
+            S3_CLIENTS_BY_INSTANCE.put(shared.client, shared);
+        }
+        shared.users++;
+        return shared.client;
+    }
+
+    /**
+     * Releases a client acquired from this registry, shutting it down if no other plugin holds it.
+     *
+     * @param client The client.
+     */
+    public static synchronized void release(AmazonS3 client) {
+        Shared shared = S3_CLIENTS_BY_INSTANCE.get(client);
+        if (shared == null || --shared.users > 0) {
+            return;
+        }
+        S3_CLIENTS.remove(shared.key);
+        S3_CLIENTS_BY_INSTANCE.remove(client);
+        shared.client.shutdown();
+    }
+
+    /**
+     * Returns the number of S3 clients currently held by plugins.
+     *
+     * @return The number of S3 clients.
+     */
+    public static synchronized int getS3ClientCount() {
+        return S3_CLIENTS.size();
+    }
+}
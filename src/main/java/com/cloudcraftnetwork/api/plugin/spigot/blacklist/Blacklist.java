@@ -0,0 +1,371 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.blacklist;
+
+import com.cloudcraftnetwork.api.plugin.spigot.info.BlacklistInfo;
+import com.cloudcraftnetwork.api.plugin.spigot.info.collect.UuidBloomFilter;
+import com.cloudcraftnetwork.api.plugin.spigot.info.collect.UuidSet;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * An in-memory set of the blacklisted players of the network.
+ * <p>
+ * The blacklist holds an immutable snapshot which is replaced as a whole, so lookups never lock and never touch
+ * the storage backend. The ids are fronted by a Bloom filter, so the common case of a player who is not
+ * blacklisted is answered from a few bits, without probing the set.
+ * <p>
+ * Every snapshot has a version, which increases with every change. The single changes since the last complete
+ * reload are kept by player id, so a reload or sync which started before a change never undoes it, see
+ * {@link #replace(Collection, long)}.
+ */
+public class Blacklist {
+
+    /**
+     * A single change of an entry.
+     */
+    private static final class Change {
+
+        /**
+         * The version of the snapshot which the change was made in.
+         */
+        private final long version;
+
+        /**
+         * The added or updated entry, or null if the entry was removed.
+         */
+        private final BlacklistInfo entry;
+
+        private Change(long version, BlacklistInfo entry) {
+            this.version = version;
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * An immutable view of the blacklist.
+     */
+    private static final class Snapshot {
+
+        /**
+         * The ids of the blacklisted players, never modified once published.
+         */
+        private final UuidSet ids;
+
+        /**
+         * A filter holding at least every id of the set.
+         */
+        private final UuidBloomFilter filter;
+
+        /**
+         * The expiry of the temporary bans, by player id.
+         */
+        private final Map<UUID, Long> expiries;
+
+        /**
+         * The number of ids removed since the filter was built, which the filter still holds.
+         */
+        private final int removedSinceBuild;
+
+        /**
+         * The time of the last complete refresh, or 0 if the blacklist was never refreshed.
+         */
+        private final long refreshedAt;
+
+        private final long version;
+
+        /**
+         * The version of the last complete refresh, which the changes were made after.
+         */
+        private final long refreshVersion;
+
+        /**
+         * The single changes since the last complete refresh, by player id, never modified once published.
+         */
+        private final Map<UUID, Change> changes;
+
+        private Snapshot(UuidSet ids, UuidBloomFilter filter, Map<UUID, Long> expiries, int removedSinceBuild,
+                         long refreshedAt, long version, long refreshVersion, Map<UUID, Change> changes) {
+            this.ids = ids;
+            this.filter = filter;
+            this.expiries = expiries;
+            this.removedSinceBuild = removedSinceBuild;
+            this.refreshedAt = refreshedAt;
+            this.version = version;
+            this.refreshVersion = refreshVersion;
+            this.changes = changes;
+        }
+
+        /**
+         * Checks whether an entry changed after a version.
+         */
+        private boolean changedAfter(UUID playerId, long since) {
+            Change change = changes.get(playerId);
+            return change != null && change.version > since;
+        }
+    }
+
+    /**
+     * The smallest number of ids a filter is sized for.
+     */
+    private static final int MIN_FILTER_SIZE = 1024;
+
+    private final AtomicReference<Snapshot> snapshot;
+
+    /**
+     * The target false positive rate of the filter.
+     */
+    private final double falsePositiveRate;
+
+    /**
+     * The clock the expiry of bans is compared to, in milliseconds since the epoch.
+     */
+    private final LongSupplier clock;
+
+    public Blacklist(double falsePositiveRate) {
+        this(falsePositiveRate, System::currentTimeMillis);
+    }
+
+    public Blacklist(double falsePositiveRate, LongSupplier clock) {
+        this.falsePositiveRate = falsePositiveRate;
+        this.clock = clock;
+        this.snapshot = new AtomicReference<>(new Snapshot(
+                new UuidSet(),
+                new UuidBloomFilter(MIN_FILTER_SIZE, falsePositiveRate),
+                Collections.emptyMap(),
+                0,
+                0,
+                0,
+                0,
+                Collections.emptyMap()
+        ));
+    }
+
+    /**
+     * Checks whether a player is blacklisted. Safe to call from any thread, including the pre-login event.
+     *
+     * @param playerId The id of the player.
+     * @return True if the player has an active ban.
+     */
+    public boolean isBlacklisted(UUID playerId) {
+        Snapshot current = snapshot.get();
+        long msb = playerId.getMostSignificantBits();
+        long lsb = playerId.getLeastSignificantBits();
+        if (!current.filter.mightContain(msb, lsb) || !current.ids.contains(msb, lsb)) {
+            return false;
+        }
+        Long expiresAt = current.expiries.get(playerId);
+        return expiresAt == null || clock.getAsLong() < expiresAt;
+    }
+
+    /**
+     * Returns the ids of the blacklisted players, including bans which expired since they were loaded.
+     *
+     * @return An immutable set of the ids.
+     */
+    public Set<UUID> getPlayerIds() {
+        return Collections.unmodifiableSet(snapshot.get().ids);
+    }
+
+    public int size() {
+        return snapshot.get().ids.size();
+    }
+
+    /**
+     * Returns the time of the last complete refresh.
+     *
+     * @return The time in milliseconds since the epoch, or 0 if the blacklist was never refreshed.
+     */
+    public long getRefreshedAt() {
+        return snapshot.get().refreshedAt;
+    }
+
+    /**
+     * Returns the version of the blacklist, which a reload or sync passes back once it completes.
+     *
+     * @return The version, which increases with every change.
+     */
+    public long getVersion() {
+        return snapshot.get().version;
+    }
+
+    /**
+     * Replaces every entry of the blacklist after a complete reload, then applies the single changes made since the
+     * reload started, so a player banned or unbanned during the reload keeps that state.
+     *
+     * @param entries The entries of the blacklist.
+     * @param since   The version of the blacklist when the reload started, see {@link #getVersion()}.
+     * @return true if the entries were replaced, false if the blacklist was refreshed by a reload which started
+     * later, in which case the entries are outdated and dropped.
+     */
+    public boolean replace(Collection<BlacklistInfo> entries, long since) {
+        Snapshot current;
+        Snapshot next;
+        do {
+            current = snapshot.get();
+            if (since < current.refreshVersion) {
+                return false;
+            }
+            long now = clock.getAsLong();
+            UuidSet ids = new UuidSet(entries.size());
+            Map<UUID, Long> expiries = new HashMap<>();
+            for (BlacklistInfo entry : entries) {
+                if (!current.changedAfter(entry.getPlayerId(), since)) {
+                    add(entry, now, ids, expiries);
+                }
+            }
+            for (Map.Entry<UUID, Change> change : current.changes.entrySet()) {
+                if (change.getValue().version > since && change.getValue().entry != null) {
+                    add(change.getValue().entry, now, ids, expiries);
+                }
+            }
+            long version = current.version + 1;
+            next = new Snapshot(ids, buildFilter(ids), expiries, 0, now, version, version, Collections.emptyMap());
+        } while (!snapshot.compareAndSet(current, next));
+        return true;
+    }
+
+    /**
+     * Applies changes made by this server or another one, which always take effect.
+     * Expired entries are removed instead of added.
+     *
+     * @param updated The added or updated entries.
+     * @param removed The ids of the removed entries.
+     */
+    public void apply(Collection<BlacklistInfo> updated, Collection<UUID> removed) {
+        apply(updated, removed, Long.MAX_VALUE);
+    }
+
+    /**
+     * Applies the changes found by an incremental sync, except for the entries which changed since the sync
+     * started, since the sync may have seen them before that change.
+     * Expired entries are removed instead of added.
+     *
+     * @param updated The added or updated entries.
+     * @param removed The ids of the removed entries.
+     * @param since   The version of the blacklist when the sync started, see {@link #getVersion()}.
+     */
+    public void apply(Collection<BlacklistInfo> updated, Collection<UUID> removed, long since) {
+        if (updated.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        Snapshot current;
+        Snapshot next;
+        do {
+            current = snapshot.get();
+            long now = clock.getAsLong();
+            long version = current.version + 1;
+            UuidSet ids = UuidSet.copyOf(current.ids);
+            Map<UUID, Long> expiries = new HashMap<>(current.expiries);
+            Map<UUID, Change> changes = new HashMap<>(current.changes);
+            int removedSinceBuild = current.removedSinceBuild;
+            for (UUID id : removed) {
+                if (current.changedAfter(id, since)) {
+                    continue;
+                }
+                changes.put(id, new Change(version, null));
+                if (ids.remove(id)) {
+                    expiries.remove(id);
+                    removedSinceBuild++;
+                }
+            }
+            UuidBloomFilter filter = current.filter.copy();
+            for (BlacklistInfo entry : updated) {
+                UUID id = entry.getPlayerId();
+                if (current.changedAfter(id, since)) {
+                    continue;
+                }
+                changes.put(id, new Change(version, entry));
+                if (entry.isExpired(now)) {
+                    if (ids.remove(id)) {
+                        expiries.remove(id);
+                        removedSinceBuild++;
+                    }
+                    continue;
+                }
+                ids.add(id);
+                filter.add(id);
+                if (entry.getExpiresAt() > 0) {
+                    expiries.put(id, entry.getExpiresAt());
+                } else {
+                    expiries.remove(id);
+                }
+            }
+            // Removed ids keep their bits, and a filter past its size loses precision, so rebuild it then
+            if (ids.size() > filter.getExpectedSize() || removedSinceBuild > filter.getExpectedSize() / 2) {
+                filter = buildFilter(ids);
+                removedSinceBuild = 0;
+            }
+            next = new Snapshot(ids, filter, expiries, removedSinceBuild, current.refreshedAt, version,
+                    current.refreshVersion, changes);
+        } while (!snapshot.compareAndSet(current, next));
+    }
+
+    /**
+     * Adds or replaces a single entry, for example after this server banned a player.
+     *
+     * @param entry The entry.
+     */
+    public void update(BlacklistInfo entry) {
+        apply(Collections.singletonList(entry), Collections.emptyList());
+    }
+
+    /**
+     * Removes a single entry, for example after this server lifted a ban.
+     *
+     * @param playerId The id of the player.
+     */
+    public void remove(UUID playerId) {
+        apply(Collections.emptyList(), Collections.singletonList(playerId));
+    }
+
+    /**
+     * Adds an entry to the ids and expiries of a new snapshot, unless it expired.
+     */
+    private static void add(BlacklistInfo entry, long now, UuidSet ids, Map<UUID, Long> expiries) {
+        if (!entry.isExpired(now)) {
+            ids.add(entry.getPlayerId());
+            if (entry.getExpiresAt() > 0) {
+                expiries.put(entry.getPlayerId(), entry.getExpiresAt());
+            }
+        }
+    }
+
+    /**
+     * Builds a filter of a set of ids, sized for twice as many ids so entries can be added without a rebuild.
+     */
+    private UuidBloomFilter buildFilter(UuidSet ids) {
+        int expectedSize = (int) Math.min(Integer.MAX_VALUE, Math.max(MIN_FILTER_SIZE, 2L * ids.size()));
+        return UuidBloomFilter.of(ids, expectedSize, falsePositiveRate);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.blacklist;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The settings of the in-memory blacklist.
+ */
+public class BlacklistSettings {
+
+    public static final boolean DEFAULT_ENABLED = false;
+    public static final long DEFAULT_SYNC_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    public static final long DEFAULT_FULL_SYNC_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    /**
+     * Whether the blacklist is loaded when the plugin is enabled, rather than on first use.
+     * Disabled by default, since every plugin built on this library would otherwise sync the blacklist.
+     */
+    private final boolean enabled;
+
+    /**
+     * The time between two incremental syncs, which list the bucket and only download the new entries.
+     */
+    private final long syncIntervalMillis;
+
+    /**
+     * The time between two full syncs, which download every entry again, so changed entries are seen too.
+     */
+    private final long fullSyncIntervalMillis;
+
+    /**
+     * The target false positive rate of the Bloom filter in front of the blacklist.
+     */
+    private final double falsePositiveRate;
+
+    public BlacklistSettings(boolean enabled, long syncIntervalMillis, long fullSyncIntervalMillis,
+                             double falsePositiveRate) {
+        this.enabled = enabled;
+        this.syncIntervalMillis = syncIntervalMillis;
+        this.fullSyncIntervalMillis = fullSyncIntervalMillis;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Reads blacklist settings from a configuration section.
+     * Missing values, or a missing section, fall back to the defaults.
+     *
+     * @param section The configuration section, may be null.
+     * @return The blacklist settings.
+     */
+    public static BlacklistSettings fromConfig(ConfigurationSection section) {
+        if (section == null) {
+            return new BlacklistSettings(
+                    DEFAULT_ENABLED,
+                    DEFAULT_SYNC_INTERVAL_MILLIS,
+                    DEFAULT_FULL_SYNC_INTERVAL_MILLIS,
+                    DEFAULT_FALSE_POSITIVE_RATE
+            );
+        }
+        return new BlacklistSettings(
+                section.getBoolean("enabled", DEFAULT_ENABLED),
+                section.getLong("sync-interval-millis", DEFAULT_SYNC_INTERVAL_MILLIS),
+                section.getLong("full-sync-interval-millis", DEFAULT_FULL_SYNC_INTERVAL_MILLIS),
+                section.getDouble("false-positive-rate", DEFAULT_FALSE_POSITIVE_RATE)
+        );
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getSyncIntervalMillis() {
+        return syncIntervalMillis;
+    }
+
+    public long getFullSyncIntervalMillis() {
+        return fullSyncIntervalMillis;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+}
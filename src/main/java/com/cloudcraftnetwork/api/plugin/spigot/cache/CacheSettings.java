@@ -0,0 +1,91 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.cache;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The settings of the in-memory cache of a single bucket.
+ */
+public class CacheSettings {
+
+    public static final int DEFAULT_MAX_SIZE = 1000;
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * Whether objects of the bucket are cached at all.
+     */
+    private final boolean enabled;
+
+    /**
+     * The maximum number of objects held in the cache. The least recently used objects are evicted first.
+     */
+    private final int maxSize;
+
+    /**
+     * The time after which a cached object must be revalidated against S3.
+     */
+    private final long ttlMillis;
+
+    public CacheSettings(boolean enabled, int maxSize, long ttlMillis) {
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Reads cache settings from a configuration section.
+     * Missing values, or a missing section, fall back to the defaults.
+     *
+     * @param section        The configuration section, may be null.
+     * @param defaultEnabled Whether the cache is enabled if the section does not say.
+     * @return The cache settings.
+     */
+    public static CacheSettings fromConfig(ConfigurationSection section, boolean defaultEnabled) {
+        if (section == null) {
+            return new CacheSettings(defaultEnabled, DEFAULT_MAX_SIZE, DEFAULT_TTL_MILLIS);
+        }
+        return new CacheSettings(
+                section.getBoolean("enabled", defaultEnabled),
+                section.getInt("max-size", DEFAULT_MAX_SIZE),
+                section.getLong("ttl-millis", DEFAULT_TTL_MILLIS)
+        );
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+}
@@ -0,0 +1,526 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.cache;
+
+import com.cloudcraftnetwork.api.plugin.spigot.storage.StoredObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+/**
+ * A size-bounded cache of the raw stored objects of a single bucket, kept on disk so it survives restarts.
+ * <p>
+ * Objects are appended to segment files, along with their ETag, content type and content encoding, and a CRC of
+ * every record. Removals append a tombstone. When the segments outgrow the limit, the least recently used objects
+ * are dropped and the others are copied into fresh segments. Opening the cache replays the segments; a record whose
+ * CRC does not match, such as one half-written when the server crashed, ends its segment.
+ * <p>
+ * Objects are stored exactly as the storage backend returned them, so they can be revalidated with their ETag.
+ */
+public class DiskCache implements Closeable {
+
+    /**
+     * The first bytes of every record, "CCDC".
+     */
+    private static final int RECORD_MAGIC = 0x43434443;
+
+    /**
+     * The bytes of a record outside of its body: the magic, the body length and the CRC.
+     */
+    private static final int RECORD_OVERHEAD = 12;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    /**
+     * The metadata of a cached object.
+     */
+    public static class Entry {
+
+        private final String eTag;
+        private final String contentType;
+        private final String contentEncoding;
+        private final long storedAt;
+
+        /**
+         * The segment, offset and length of the content.
+         */
+        private final int segment;
+        private final long offset;
+        private final int length;
+
+        /**
+         * The length of the whole record.
+         */
+        private final int recordLength;
+
+        private Entry(String eTag, String contentType, String contentEncoding, long storedAt, int segment,
+                      long offset, int length, int recordLength) {
+            this.eTag = eTag;
+            this.contentType = contentType;
+            this.contentEncoding = contentEncoding;
+            this.storedAt = storedAt;
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.recordLength = recordLength;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getContentEncoding() {
+            return contentEncoding;
+        }
+
+        public long getStoredAt() {
+            return storedAt;
+        }
+
+        public int getLength() {
+            return length;
+        }
+    }
+
+    private final Path directory;
+    private final DiskCacheSettings settings;
+
+    /**
+     * The cached objects, by key, from the least to the most recently used.
+     */
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The ids of the segment files.
+     */
+    private final TreeSet<Integer> segments = new TreeSet<>();
+
+    /**
+     * The channels the segments are read through, by segment id.
+     */
+    private final Map<Integer, FileChannel> readers = new HashMap<>();
+
+    /**
+     * The buffer records are built in before they are appended.
+     */
+    private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream();
+
+    private FileChannel writer;
+    private int writerSegment;
+    private long writerPosition;
+
+    /**
+     * The size of every segment file.
+     */
+    private long fileBytes;
+
+    /**
+     * The size of the records of the cached objects.
+     */
+    private long liveBytes;
+
+    /**
+     * @param directory The directory of the segment files, which is created if necessary.
+     * @param settings  The settings of the cache.
+     */
+    public DiskCache(Path directory, DiskCacheSettings settings) {
+        this.directory = directory;
+        this.settings = settings;
+    }
+
+    /**
+     * Opens the cache, replaying the segments which are already on disk.
+     *
+     * @return The number of objects in the cache.
+     * @throws IOException If the directory or a segment cannot be read.
+     */
+    public synchronized int open() throws IOException {
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    segments.add(Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Not a segment of this cache
+                }
+            }
+        }
+        for (int segment : segments) {
+            replay(segment);
+        }
+        if (segments.isEmpty()) {
+            startSegment(1);
+        } else if (Files.size(segmentPath(segments.last())) < settings.getSegmentBytes()) {
+            startSegment(segments.last());
+        } else {
+            startSegment(segments.last() + 1);
+        }
+        return entries.size();
+    }
+
+    /**
+     * Returns the metadata of a cached object.
+     *
+     * @param key The key of the object.
+     * @return The metadata, or an empty Optional if the object is not cached.
+     */
+    public synchronized Optional<Entry> lookup(String key) {
+        return Optional.ofNullable(entries.get(key));
+    }
+
+    /**
+     * Reads a cached object.
+     *
+     * @param key The key of the object.
+     * @return The object, or an empty Optional if the object is not cached.
+     * @throws IOException If the segment of the object cannot be read.
+     */
+    public synchronized Optional<StoredObject> get(String key) throws IOException {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        byte[] content = new byte[entry.length];
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        FileChannel reader = readerOf(entry.segment);
+        while (buffer.hasRemaining()) {
+            if (reader.read(buffer, entry.offset + buffer.position()) < 0) {
+                forget(key);
+                return Optional.empty();
+            }
+        }
+        return Optional.of(new StoredObject(
+                new ByteArrayInputStream(content),
+                content.length,
+                entry.contentType,
+                entry.contentEncoding,
+                entry.eTag
+        ));
+    }
+
+    /**
+     * Caches an object, replacing any cached copy.
+     *
+     * @param key             The key of the object.
+     * @param content         The buffer holding the content of the object.
+     * @param offset          The offset of the content in the buffer.
+     * @param length          The length of the content.
+     * @param contentType     The content type of the object, may be null.
+     * @param contentEncoding The content encoding of the object, may be null.
+     * @param eTag            The ETag of the object, may be null.
+     * @throws IOException If the object cannot be written.
+     */
+    public synchronized void put(String key, byte[] content, int offset, int length, String contentType,
+                                 String contentEncoding, String eTag) throws IOException {
+        Entry entry = append(PUT, key, System.currentTimeMillis(), eTag, contentType, contentEncoding,
+                content, offset, length);
+        Entry previous = entries.put(key, entry);
+        liveBytes += entry.recordLength - (previous != null ? previous.recordLength : 0);
+        compactIfFull();
+    }
+
+    /**
+     * Removes an object from the cache.
+     *
+     * @param key The key of the object.
+     * @throws IOException If the removal cannot be written.
+     */
+    public synchronized void remove(String key) throws IOException {
+        if (forget(key)) {
+            append(REMOVE, key, System.currentTimeMillis(), null, null, null, null, 0, 0);
+            compactIfFull();
+        }
+    }
+
+    /**
+     * Returns the keys of the cached objects, from the least to the most recently used.
+     *
+     * @return A copy of the keys.
+     */
+    public synchronized List<String> getKeys() {
+        return new ArrayList<>(entries.keySet());
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the size of the segment files.
+     *
+     * @return The size of the segment files, in bytes.
+     */
+    public synchronized long getFileBytes() {
+        return fileBytes;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closeReaders(new ArrayList<>(readers.keySet()));
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    /**
+     * Reads the records of a segment into the index.
+     * The segment is truncated at its first record which is incomplete or whose CRC does not match.
+     *
+     * @param segment The id of the segment.
+     * @throws IOException If the segment cannot be read.
+     */
+    private void replay(int segment) throws IOException {
+        Path path = segmentPath(segment);
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        CRC32 crc = new CRC32();
+        int position = 0;
+        while (bytes.length - position >= RECORD_OVERHEAD) {
+            int bodyLength = buffer.getInt(position + 4);
+            if (buffer.getInt(position) != RECORD_MAGIC
+                    || bodyLength < 0
+                    || bodyLength > bytes.length - position - RECORD_OVERHEAD) {
+                break;
+            }
+            int bodyOffset = position + 8;
+            crc.reset();
+            crc.update(bytes, bodyOffset, bodyLength);
+            if ((int) crc.getValue() != buffer.getInt(bodyOffset + bodyLength)) {
+                break;
+            }
+            DataInputStream body = new DataInputStream(new ByteArrayInputStream(bytes, bodyOffset, bodyLength));
+            byte type = body.readByte();
+            long storedAt = body.readLong();
+            String key = body.readUTF();
+            if (type == PUT) {
+                String eTag = emptyToNull(body.readUTF());
+                String contentType = emptyToNull(body.readUTF());
+                String contentEncoding = emptyToNull(body.readUTF());
+                int length = body.readInt();
+                int recordLength = bodyLength + RECORD_OVERHEAD;
+                Entry entry = new Entry(eTag, contentType, contentEncoding, storedAt, segment,
+                        bodyOffset + bodyLength - length, length, recordLength);
+                Entry previous = entries.put(key, entry);
+                liveBytes += recordLength - (previous != null ? previous.recordLength : 0);
+            } else if (type == REMOVE) {
+                forget(key);
+            }
+            position = bodyOffset + bodyLength + 4;
+        }
+        if (position < bytes.length) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(position);
+            }
+        }
+        fileBytes += position;
+    }
+
+    /**
+     * Appends a record to the current segment, starting a new segment if the current one is full.
+     *
+     * @return The entry of the appended object.
+     */
+    private Entry append(byte type, String key, long storedAt, String eTag, String contentType,
+                         String contentEncoding, byte[] content, int offset, int length) throws IOException {
+        recordBuffer.reset();
+        DataOutputStream body = new DataOutputStream(recordBuffer);
+        body.writeByte(type);
+        body.writeLong(storedAt);
+        body.writeUTF(key);
+        if (type == PUT) {
+            body.writeUTF(nullToEmpty(eTag));
+            body.writeUTF(nullToEmpty(contentType));
+            body.writeUTF(nullToEmpty(contentEncoding));
+            body.writeInt(length);
+        }
+        byte[] header = recordBuffer.toByteArray();
+        int bodyLength = header.length + length;
+        CRC32 crc = new CRC32();
+        crc.update(header);
+        if (length > 0) {
+            crc.update(content, offset, length);
+        }
+
+        int recordLength = bodyLength + RECORD_OVERHEAD;
+        if (writerPosition > 0 && writerPosition + recordLength > settings.getSegmentBytes()) {
+            startSegment(writerSegment + 1);
+        }
+        ByteBuffer head = ByteBuffer.allocate(8 + header.length);
+        head.putInt(RECORD_MAGIC).putInt(bodyLength).put(header);
+        head.flip();
+        ByteBuffer tail = ByteBuffer.allocate(4);
+        tail.putInt((int) crc.getValue());
+        tail.flip();
+        ByteBuffer[] record = {head, ByteBuffer.wrap(content != null ? content : new byte[0], offset, length), tail};
+        while (tail.hasRemaining()) {
+            writer.write(record);
+        }
+
+        long contentOffset = writerPosition + 8 + header.length;
+        writerPosition += recordLength;
+        fileBytes += recordLength;
+        return new Entry(eTag, contentType, contentEncoding, storedAt, writerSegment, contentOffset, length,
+                recordLength);
+    }
+
+    /**
+     * Drops the least recently used objects and rewrites the others into fresh segments, once the segments
+     * outgrow the limit. The objects which are kept fill at most half of the limit, so compactions stay rare.
+     * If the compaction fails, the cache is emptied.
+     */
+    private void compactIfFull() throws IOException {
+        if (fileBytes <= settings.getMaxBytes()) {
+            return;
+        }
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (liveBytes > settings.getMaxBytes() / 2 && eldest.hasNext()) {
+            liveBytes -= eldest.next().recordLength;
+            eldest.remove();
+        }
+
+        List<Integer> oldSegments = new ArrayList<>(segments);
+        try {
+            startSegment(writerSegment + 1);
+            fileBytes = 0;
+            Map<String, Entry> copied = new LinkedHashMap<>();
+            for (Map.Entry<String, Entry> object : entries.entrySet()) {
+                Entry entry = object.getValue();
+                byte[] content = new byte[entry.length];
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                FileChannel reader = readerOf(entry.segment);
+                while (buffer.hasRemaining()) {
+                    if (reader.read(buffer, entry.offset + buffer.position()) < 0) {
+                        throw new IOException("Segment " + entry.segment + " is shorter than its index");
+                    }
+                }
+                copied.put(object.getKey(), append(PUT, object.getKey(), entry.storedAt, entry.eTag,
+                        entry.contentType, entry.contentEncoding, content, 0, content.length));
+            }
+            entries.clear();
+            entries.putAll(copied);
+            liveBytes = fileBytes;
+        } catch (IOException e) {
+            entries.clear();
+            liveBytes = 0;
+            throw e;
+        } finally {
+            oldSegments.remove(Integer.valueOf(writerSegment));
+            closeReaders(oldSegments);
+            for (int segment : oldSegments) {
+                Files.deleteIfExists(segmentPath(segment));
+                segments.remove(segment);
+            }
+        }
+    }
+
+    /**
+     * Closes the current segment and appends to another one from now on.
+     *
+     * @param segment The id of the segment.
+     */
+    private void startSegment(int segment) throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+        writer = FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        writerPosition = writer.size();
+        writer.position(writerPosition);
+        writerSegment = segment;
+        segments.add(segment);
+    }
+
+    private FileChannel readerOf(int segment) throws IOException {
+        FileChannel reader = readers.get(segment);
+        if (reader == null) {
+            reader = FileChannel.open(segmentPath(segment), StandardOpenOption.READ);
+            readers.put(segment, reader);
+        }
+        return reader;
+    }
+
+    private void closeReaders(List<Integer> segmentIds) throws IOException {
+        for (int segment : segmentIds) {
+            FileChannel reader = readers.remove(segment);
+            if (reader != null) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Removes an object from the index.
+     *
+     * @return true if the object was cached.
+     */
+    private boolean forget(String key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        liveBytes -= entry.recordLength;
+        return true;
+    }
+
+    private Path segmentPath(int segment) {
+        return directory.resolve(String.format("%08d", segment) + SEGMENT_SUFFIX);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
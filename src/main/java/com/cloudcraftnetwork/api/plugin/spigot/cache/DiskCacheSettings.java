@@ -0,0 +1,103 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.cache;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * The settings of the on-disk cache of a single bucket.
+ */
+public class DiskCacheSettings {
+
+    public static final String DEFAULT_DIRECTORY = "cache";
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    public static final long DEFAULT_SEGMENT_BYTES = 4L * 1024 * 1024;
+
+    /**
+     * Whether objects of the bucket are cached on disk at all.
+     */
+    private final boolean enabled;
+
+    /**
+     * The directory of the cache, relative to the plugin data folder unless absolute.
+     * Every bucket is cached in its own subdirectory.
+     */
+    private final String directory;
+
+    /**
+     * The maximum number of bytes the segment files of the bucket may take up. The least recently used objects
+     * are dropped first when the segments are compacted.
+     */
+    private final long maxBytes;
+
+    /**
+     * The size after which a segment file is closed and a new one is started.
+     */
+    private final long segmentBytes;
+
+    public DiskCacheSettings(boolean enabled, String directory, long maxBytes, long segmentBytes) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Reads disk cache settings from a configuration section.
+     * Missing values, or a missing section, fall back to the defaults.
+     *
+     * @param section        The configuration section, may be null.
+     * @param defaultEnabled Whether the disk cache is enabled if the section does not say.
+     * @return The disk cache settings.
+     */
+    public static DiskCacheSettings fromConfig(ConfigurationSection section, boolean defaultEnabled) {
+        if (section == null) {
+            return new DiskCacheSettings(defaultEnabled, DEFAULT_DIRECTORY, DEFAULT_MAX_BYTES, DEFAULT_SEGMENT_BYTES);
+        }
+        return new DiskCacheSettings(
+                section.getBoolean("enabled", defaultEnabled),
+                section.getString("directory", DEFAULT_DIRECTORY),
+                section.getLong("max-bytes", DEFAULT_MAX_BYTES),
+                section.getLong("segment-bytes", DEFAULT_SEGMENT_BYTES)
+        );
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getSegmentBytes() {
+        return segmentBytes;
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.cache;
+
+import com.cloudcraftnetwork.api.plugin.spigot.info.CloudCraftNetworkInfo;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A size-bounded, least recently used cache of the info objects of a single bucket.
+ * <p>
+ * Every entry remembers the ETag S3 returned for it. Entries older than the TTL are not discarded,
+ * they are only marked stale, so that they can be revalidated with a conditional request instead of
+ * being downloaded again.
+ */
+public class InfoCache {
+
+    /**
+     * A cached info object.
+     */
+    public static class Entry {
+
+        /**
+         * The cached object.
+         */
+        private final CloudCraftNetworkInfo value;
+
+        /**
+         * The ETag of the object in S3, may be null.
+         */
+        private final String eTag;
+
+        /**
+         * The time (since epoch) at which the object was last known to be current.
+         */
+        private volatile long validatedAt;
+
+        private Entry(CloudCraftNetworkInfo value, String eTag, long validatedAt) {
+            this.value = value;
+            this.eTag = eTag;
+            this.validatedAt = validatedAt;
+        }
+
+        public CloudCraftNetworkInfo getValue() {
+            return value;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        public long getValidatedAt() {
+            return validatedAt;
+        }
+    }
+
+    private final CacheSettings settings;
+    private final CacheStats stats = new CacheStats();
+    private final Map<String, Entry> entries;
+
+    public InfoCache(CacheSettings settings) {
+        this.settings = settings;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, InfoCache.Entry> eldest) {
+                if (size() > InfoCache.this.settings.getMaxSize()) {
+                    stats.recordEviction();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Looks up an object, recording a hit if a fresh entry is found and a miss otherwise.
+     *
+     * @param key The key of the object.
+     * @return The entry, which may be stale, or null if the object is not cached.
+     */
+    public Entry lookup(String key) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null && isFresh(entry)) {
+            stats.recordHit();
+        } else {
+            stats.recordMiss();
+        }
+        return entry;
+    }
+
+    /**
+     * Looks up an object without recording a hit or a miss, for bookkeeping which is not a read.
+     *
+     * @param key The key of the object.
+     * @return The entry, which may be stale, or null if the object is not cached.
+     */
+    public Entry peek(String key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    /**
+     * Checks whether an entry can be served without asking S3.
+     *
+     * @param entry The entry.
+     * @return true if the entry is younger than the TTL.
+     */
+    public boolean isFresh(Entry entry) {
+        return System.currentTimeMillis() - entry.validatedAt < settings.getTtlMillis();
+    }
+
+    /**
+     * Marks an entry as current after S3 confirmed that its ETag still matches.
+     *
+     * @param entry The entry.
+     */
+    public void revalidated(Entry entry) {
+        entry.validatedAt = System.currentTimeMillis();
+        stats.recordRevalidation();
+    }
+
+    /**
+     * Caches an object.
+     *
+     * @param key   The key of the object.
+     * @param value The object.
+     * @param eTag  The ETag of the object in S3, may be null.
+     */
+    public void put(String key, CloudCraftNetworkInfo value, String eTag) {
+        put(key, value, eTag, System.currentTimeMillis());
+    }
+
+    /**
+     * Caches an object which was last known to be current at some time.
+     * An object restored from the disk cache is put with a validation time of 0, so it is revalidated before
+     * it is served.
+     *
+     * @param key         The key of the object.
+     * @param value       The object.
+     * @param eTag        The ETag of the object in S3, may be null.
+     * @param validatedAt The time (since epoch) at which the object was last known to be current.
+     */
+    public void put(String key, CloudCraftNetworkInfo value, String eTag, long validatedAt) {
+        Entry entry = new Entry(value, eTag, validatedAt);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Removes an object from the cache.
+     *
+     * @param key The key of the object.
+     */
+    public void invalidate(String key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Removes every object from the cache.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public CacheSettings getSettings() {
+        return settings;
+    }
+
+    public CacheStats getStats() {
+        return stats;
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.catalog;
+
+import com.cloudcraftnetwork.api.plugin.spigot.info.CloudCraftNetworkInfo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * An in-memory catalog of the reference objects of a bucket, such as items, pets or costumes, indexed by key,
+ * by id and by type.
+ * <p>
+ * The catalog holds an immutable snapshot which is replaced as a whole, so readers never lock, never touch the
+ * storage backend, and always see a consistent set of objects. Every snapshot has a version, which increases with
+ * every change, so callers can tell whether something they derived from the catalog is still current.
+ * <p>
+ * The single changes since the last complete load are kept by key, so a load which started before a change never
+ * undoes it, see {@link #replace(Map, long)}.
+ * <p>
+ * The objects of a catalog are shared with every reader, so they must not be modified. To change an object, put a
+ * modified copy, which replaces it in the catalog.
+ *
+ * @param <T> The type of the objects.
+ */
+public class Catalog<T extends CloudCraftNetworkInfo> {
+
+    /**
+     * A single change of an object.
+     *
+     * @param <T> The type of the objects.
+     */
+    private static final class Change<T> {
+
+        /**
+         * The version of the snapshot which the change was made in.
+         */
+        private final long version;
+
+        /**
+         * The added or replaced object, or null if the object was removed.
+         */
+        private final T object;
+
+        private Change(long version, T object) {
+            this.version = version;
+            this.object = object;
+        }
+    }
+
+    /**
+     * An immutable view of the catalog.
+     *
+     * @param <T> The type of the objects.
+     */
+    public static final class Snapshot<T extends CloudCraftNetworkInfo> {
+
+        /**
+         * The objects, by key, sorted by key.
+         */
+        private final Map<String, T> byKey;
+
+        /**
+         * The objects, by id.
+         */
+        private final Map<UUID, T> byId;
+
+        /**
+         * The objects, by type. The objects of a type are sorted by key.
+         */
+        private final Map<String, List<T>> byType;
+
+        private final long version;
+
+        /**
+         * The time of the last complete load, or 0 if the catalog was never loaded.
+         */
+        private final long loadedAt;
+
+        /**
+         * The version of the last complete load, which the changes were made after.
+         */
+        private final long loadVersion;
+
+        /**
+         * The single changes since the last complete load, by key.
+         */
+        private final Map<String, Change<T>> changes;
+
+        private Snapshot(Map<String, T> objects, Function<? super T, UUID> idOf,
+                         Function<? super T, String> typeOf, long version, long loadedAt, long loadVersion,
+                         Map<String, Change<T>> changes) {
+            Map<String, T> byKey = new TreeMap<>(objects);
+            Map<UUID, T> byId = new HashMap<>();
+            Map<String, List<T>> byType = new HashMap<>();
+            for (T object : byKey.values()) {
+                UUID id = idOf.apply(object);
+                if (id != null) {
+                    byId.put(id, object);
+                }
+                String type = typeOf.apply(object);
+                if (type != null) {
+                    byType.computeIfAbsent(type, t -> new ArrayList<>()).add(object);
+                }
+            }
+            for (Map.Entry<String, List<T>> type : byType.entrySet()) {
+                type.setValue(Collections.unmodifiableList(type.getValue()));
+            }
+            this.byKey = Collections.unmodifiableMap(byKey);
+            this.byId = Collections.unmodifiableMap(byId);
+            this.byType = Collections.unmodifiableMap(byType);
+            this.version = version;
+            this.loadedAt = loadedAt;
+            this.loadVersion = loadVersion;
+            this.changes = Collections.unmodifiableMap(changes);
+        }
+
+        public Optional<T> getByKey(String key) {
+            return Optional.ofNullable(byKey.get(key));
+        }
+
+        public Optional<T> getById(UUID id) {
+            return Optional.ofNullable(byId.get(id));
+        }
+
+        /**
+         * Returns the objects of a type.
+         *
+         * @param type The type.
+         * @return The objects, sorted by key. Empty if there is no object of the type.
+         */
+        public List<T> getByType(String type) {
+            List<T> objects = byType.get(type);
+            return objects != null ? objects : Collections.emptyList();
+        }
+
+        public Set<String> getTypes() {
+            return byType.keySet();
+        }
+
+        /**
+         * Returns every object.
+         *
+         * @return The objects, sorted by key.
+         */
+        public Collection<T> getAll() {
+            return byKey.values();
+        }
+
+        public int size() {
+            return byKey.size();
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public long getLoadedAt() {
+            return loadedAt;
+        }
+    }
+
+    private final AtomicReference<Snapshot<T>> snapshot;
+
+    /**
+     * Returns the id of an object, or null if it has none.
+     */
+    private final Function<? super T, UUID> idOf;
+
+    /**
+     * Returns the type of an object, or null if it has none.
+     */
+    private final Function<? super T, String> typeOf;
+
+    /**
+     * The clock of the load times, in milliseconds since the epoch.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * @param idOf   Returns the id of an object, or null if it has none.
+     * @param typeOf Returns the type of an object, or null if it has none.
+     */
+    public Catalog(Function<? super T, UUID> idOf, Function<? super T, String> typeOf) {
+        this(idOf, typeOf, System::currentTimeMillis);
+    }
+
+    public Catalog(Function<? super T, UUID> idOf, Function<? super T, String> typeOf, LongSupplier clock) {
+        this.idOf = idOf;
+        this.typeOf = typeOf;
+        this.clock = clock;
+        this.snapshot = new AtomicReference<>(
+                new Snapshot<>(Collections.emptyMap(), idOf, typeOf, 0, 0, 0, Collections.emptyMap())
+        );
+    }
+
+    /**
+     * Returns the current snapshot, whose lookups are consistent with each other.
+     *
+     * @return The snapshot.
+     */
+    public Snapshot<T> snapshot() {
+        return snapshot.get();
+    }
+
+    public Optional<T> getByKey(String key) {
+        return snapshot.get().getByKey(key);
+    }
+
+    public Optional<T> getById(UUID id) {
+        return snapshot.get().getById(id);
+    }
+
+    /**
+     * Returns the objects of a type, see {@link Snapshot#getByType(String)}.
+     *
+     * @param type The type.
+     * @return The objects, sorted by key.
+     */
+    public List<T> getByType(String type) {
+        return snapshot.get().getByType(type);
+    }
+
+    public Set<String> getTypes() {
+        return snapshot.get().getTypes();
+    }
+
+    public Collection<T> getAll() {
+        return snapshot.get().getAll();
+    }
+
+    public int size() {
+        return snapshot.get().size();
+    }
+
+    public long getVersion() {
+        return snapshot.get().getVersion();
+    }
+
+    /**
+     * Returns the time of the last complete load.
+     *
+     * @return The time in milliseconds since the epoch, or 0 if the catalog was never loaded.
+     */
+    public long getLoadedAt() {
+        return snapshot.get().getLoadedAt();
+    }
+
+    /**
+     * Replaces every object of the catalog after a complete load, then applies the single changes made since the
+     * load started, so an object put or removed during the load is neither lost nor brought back.
+     *
+     * @param objects The objects, by key.
+     * @param since   The version of the catalog when the load started, see {@link #getVersion()}.
+     * @return true if the objects were replaced, false if the catalog was replaced by a load which started later,
+     * in which case the objects are outdated and dropped.
+     */
+    public boolean replace(Map<String, T> objects, long since) {
+        Snapshot<T> current;
+        Snapshot<T> next;
+        long now = clock.getAsLong();
+        do {
+            current = snapshot.get();
+            if (since < current.loadVersion) {
+                return false;
+            }
+            Map<String, T> merged = new HashMap<>(objects);
+            for (Map.Entry<String, Change<T>> change : current.changes.entrySet()) {
+                if (change.getValue().version <= since) {
+                    continue;
+                }
+                if (change.getValue().object != null) {
+                    merged.put(change.getKey(), change.getValue().object);
+                } else {
+                    merged.remove(change.getKey());
+                }
+            }
+            long version = current.version + 1;
+            next = new Snapshot<>(merged, idOf, typeOf, version, now, version, Collections.emptyMap());
+        } while (!snapshot.compareAndSet(current, next));
+        return true;
+    }
+
+    /**
+     * Adds or replaces a single object, for example after it was put.
+     *
+     * @param key    The key of the object.
+     * @param object The object.
+     */
+    public void update(String key, T object) {
+        change(key, object);
+    }
+
+    /**
+     * Removes a single object, for example after it was deleted.
+     *
+     * @param key The key of the object.
+     */
+    public void remove(String key) {
+        change(key, null);
+    }
+
+    /**
+     * Applies a single change, and records it for a load which is in progress. A removal is recorded even if the
+     * object is not in the catalog, since the load may have retrieved it before it was removed.
+     */
+    private void change(String key, T object) {
+        Snapshot<T> current;
+        Snapshot<T> next;
+        do {
+            current = snapshot.get();
+            long version = current.version + 1;
+            Map<String, T> objects = new HashMap<>(current.byKey);
+            if (object != null) {
+                objects.put(key, object);
+            } else {
+                objects.remove(key);
+            }
+            Map<String, Change<T>> changes = new HashMap<>(current.changes);
+            changes.put(key, new Change<>(version, object));
+            next = new Snapshot<>(objects, idOf, typeOf, version, current.loadedAt, current.loadVersion, changes);
+        } while (!snapshot.compareAndSet(current, next));
+    }
+}
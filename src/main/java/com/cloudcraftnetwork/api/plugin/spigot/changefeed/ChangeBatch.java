@@ -0,0 +1,85 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.changefeed;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The changes a server published at once. The batches of a server are numbered in the order they are published.
+ */
+public class ChangeBatch {
+
+    /**
+     * The id of the server which made the changes, random for every start of the server.
+     */
+    private final UUID nodeId;
+
+    /**
+     * The number of the batch among the batches of its server, starting at 1.
+     */
+    private final long sequence;
+
+    /**
+     * The time at which the batch was published, in milliseconds since the epoch.
+     */
+    private final long createdAt;
+
+    private final List<ChangeRecord> changes;
+
+    @JsonCreator
+    public ChangeBatch(
+            @JsonProperty(value = "nodeId") UUID nodeId,
+            @JsonProperty(value = "sequence") long sequence,
+            @JsonProperty(value = "createdAt") long createdAt,
+            @JsonProperty(value = "changes") List<ChangeRecord> changes
+    ) {
+        this.nodeId = nodeId;
+        this.sequence = sequence;
+        this.createdAt = createdAt;
+        this.changes = changes != null ? Collections.unmodifiableList(changes) : Collections.emptyList();
+    }
+
+    public UUID getNodeId() {
+        return nodeId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public List<ChangeRecord> getChanges() {
+        return changes;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.changefeed;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * A feed of the objects stored and deleted by the servers of the network, which lets every server drop precisely
+ * the copies other servers made outdated.
+ * <p>
+ * Changes made on this server are accumulated and published as a single numbered batch on every flush, keeping
+ * only the last change of every object. Every poll hands the changes published by other servers to a listener.
+ */
+public class ChangeFeed {
+
+    /**
+     * The id of this server in the feed.
+     */
+    private final UUID nodeId = UUID.randomUUID();
+
+    /**
+     * The number of the last batch published by this server.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * The changes which were not published yet, by bucket name and key.
+     */
+    private Map<String, ChangeRecord> pending = new LinkedHashMap<>();
+
+    private final ChangeFeedTransport transport;
+    private final Consumer<ChangeRecord> listener;
+    private final LongSupplier clock;
+
+    /**
+     * @param transport Carries the batches between servers.
+     * @param listener  Receives the changes made by other servers.
+     */
+    public ChangeFeed(ChangeFeedTransport transport, Consumer<ChangeRecord> listener) {
+        this(transport, listener, System::currentTimeMillis);
+    }
+
+    public ChangeFeed(ChangeFeedTransport transport, Consumer<ChangeRecord> listener, LongSupplier clock) {
+        this.transport = transport;
+        this.listener = listener;
+        this.clock = clock;
+    }
+
+    /**
+     * Records a change made on this server, to be published by the next flush.
+     *
+     * @param bucketName The name of the bucket of the object.
+     * @param key        The key of the object.
+     * @param version    The ETag of the stored object, or null if the object was deleted.
+     */
+    public void record(String bucketName, String key, String version) {
+        ChangeRecord change = new ChangeRecord(bucketName, key, version);
+        synchronized (this) {
+            // Remove first, so the object moves to the end and the order of the changes is kept
+            String id = bucketName + ":" + key;
+            pending.remove(id);
+            pending.put(id, change);
+        }
+    }
+
+    /**
+     * Publishes the changes recorded since the previous flush. Changes which could not be published are kept for
+     * the next flush, unless a newer change of the same object was recorded meanwhile.
+     *
+     * @return The number of published changes.
+     * @throws IOException If the changes could not be published.
+     */
+    public int flush() throws IOException {
+        Map<String, ChangeRecord> changes;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            changes = pending;
+            pending = new LinkedHashMap<>();
+        }
+        try {
+            transport.publish(new ChangeBatch(
+                    nodeId,
+                    sequence.incrementAndGet(),
+                    clock.getAsLong(),
+                    new ArrayList<>(changes.values())
+            ));
+            return changes.size();
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                changes.putAll(pending);
+                pending = changes;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Hands the changes published by other servers since the previous poll to the listener.
+     *
+     * @return The number of changes handed to the listener.
+     * @throws IOException If the changes could not be read.
+     */
+    public int poll() throws IOException {
+        List<ChangeBatch> batches = transport.poll();
+        batches.sort((a, b) -> Long.compare(a.getCreatedAt(), b.getCreatedAt()));
+        int count = 0;
+        for (ChangeBatch batch : batches) {
+            if (nodeId.equals(batch.getNodeId())) {
+                continue;
+            }
+            for (ChangeRecord change : batch.getChanges()) {
+                listener.accept(change);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public UUID getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Returns the number of changes which were not published yet.
+     *
+     * @return The number of pending changes.
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+}
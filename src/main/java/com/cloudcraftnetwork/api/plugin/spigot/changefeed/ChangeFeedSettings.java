@@ -0,0 +1,149 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.changefeed;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The settings of the change feed.
+ */
+public class ChangeFeedSettings {
+
+    public static final boolean DEFAULT_ENABLED = false;
+    public static final String DEFAULT_TRANSPORT = "storage";
+    public static final String DEFAULT_PREFIX = "feed/";
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 250;
+    public static final long DEFAULT_POLL_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    public static final long DEFAULT_RETENTION_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    public static final long DEFAULT_CLOCK_SKEW_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    /**
+     * Whether this server publishes its changes and applies the changes of other servers.
+     */
+    private final boolean enabled;
+
+    /**
+     * The transport of the feed: "storage", which stores batches in the changes bucket, or "loopback", which keeps
+     * them in memory.
+     */
+    private final String transport;
+
+    /**
+     * The prefix of the batch keys in the changes bucket.
+     */
+    private final String prefix;
+
+    /**
+     * The time between two publications of the changes made by this server.
+     */
+    private final long flushIntervalMillis;
+
+    /**
+     * The time between two reads of the changes made by other servers.
+     */
+    private final long pollIntervalMillis;
+
+    /**
+     * The time after which the batches of this server are deleted. Must be well above the poll interval.
+     */
+    private final long retentionMillis;
+
+    /**
+     * The largest difference between the clocks of two servers.
+     */
+    private final long clockSkewMillis;
+
+    public ChangeFeedSettings(boolean enabled, String transport, String prefix, long flushIntervalMillis,
+                              long pollIntervalMillis, long retentionMillis, long clockSkewMillis) {
+        this.enabled = enabled;
+        this.transport = transport;
+        this.prefix = prefix;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.retentionMillis = retentionMillis;
+        this.clockSkewMillis = clockSkewMillis;
+    }
+
+    /**
+     * Reads change feed settings from a configuration section.
+     * Missing values, or a missing section, fall back to the defaults.
+     *
+     * @param section The configuration section, may be null.
+     * @return The change feed settings.
+     */
+    public static ChangeFeedSettings fromConfig(ConfigurationSection section) {
+        if (section == null) {
+            return new ChangeFeedSettings(
+                    DEFAULT_ENABLED,
+                    DEFAULT_TRANSPORT,
+                    DEFAULT_PREFIX,
+                    DEFAULT_FLUSH_INTERVAL_MILLIS,
+                    DEFAULT_POLL_INTERVAL_MILLIS,
+                    DEFAULT_RETENTION_MILLIS,
+                    DEFAULT_CLOCK_SKEW_MILLIS
+            );
+        }
+        return new ChangeFeedSettings(
+                section.getBoolean("enabled", DEFAULT_ENABLED),
+                section.getString("transport", DEFAULT_TRANSPORT),
+                section.getString("prefix", DEFAULT_PREFIX),
+                section.getLong("flush-interval-millis", DEFAULT_FLUSH_INTERVAL_MILLIS),
+                section.getLong("poll-interval-millis", DEFAULT_POLL_INTERVAL_MILLIS),
+                section.getLong("retention-millis", DEFAULT_RETENTION_MILLIS),
+                section.getLong("clock-skew-millis", DEFAULT_CLOCK_SKEW_MILLIS)
+        );
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getTransport() {
+        return transport;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public long getPollIntervalMillis() {
+        return pollIntervalMillis;
+    }
+
+    public long getRetentionMillis() {
+        return retentionMillis;
+    }
+
+    public long getClockSkewMillis() {
+        return clockSkewMillis;
+    }
+}
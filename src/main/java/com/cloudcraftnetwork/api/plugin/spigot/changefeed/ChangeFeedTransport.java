@@ -0,0 +1,54 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.changefeed;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Carries the change batches of the change feed between servers.
+ * <p>
+ * Implementations must be safe to use from several threads at once.
+ */
+public interface ChangeFeedTransport {
+
+    /**
+     * Publishes a batch to every server.
+     *
+     * @param batch The batch.
+     * @throws IOException If the batch cannot be published.
+     */
+    void publish(ChangeBatch batch) throws IOException;
+
+    /**
+     * Returns the batches published since the previous poll, including those of this server.
+     * A batch may be returned by more than one poll if the transport cannot tell whether it was already returned.
+     *
+     * @return The batches, in no particular order.
+     * @throws IOException If the batches cannot be read. The next poll returns them again.
+     */
+    List<ChangeBatch> poll() throws IOException;
+}
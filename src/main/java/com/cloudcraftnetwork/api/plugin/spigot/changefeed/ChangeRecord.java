@@ -0,0 +1,89 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.changefeed;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Records that an object was stored or deleted, so other servers can drop their copies of it.
+ */
+public class ChangeRecord {
+
+    /**
+     * The name of the bucket of the object.
+     */
+    private final String bucket;
+
+    /**
+     * The key of the object.
+     */
+    private final String key;
+
+    /**
+     * The ETag of the stored object, or null if the object was deleted.
+     */
+    private final String version;
+
+    @JsonCreator
+    public ChangeRecord(
+            @JsonProperty(value = "bucket") String bucket,
+            @JsonProperty(value = "key") String key,
+            @JsonProperty(value = "version") String version
+    ) {
+        this.bucket = bucket;
+        this.key = key;
+        this.version = version;
+    }
+
+    public String getBucket() {
+        return bucket;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Checks whether the object was deleted.
+     *
+     * @return true if the object was deleted, false if it was stored.
+     */
+    @JsonIgnore
+    public boolean isDeleted() {
+        return version == null;
+    }
+
+    @Override
+    public String toString() {
+        return bucket + ":" + key + (version == null ? " deleted" : " " + version);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.changefeed;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A transport which carries change batches in memory, between transports connected to each other.
+ * It stands in for a real transport in tests, or when every plugin sharing caches runs in the same process.
+ * <p>
+ * Batches are kept for as long as the transports are referenced.
+ */
+public class LoopbackChangeFeedTransport implements ChangeFeedTransport {
+
+    /**
+     * The batches published by every connected transport, in publication order.
+     */
+    private final List<ChangeBatch> log;
+
+    /**
+     * The number of batches of the log this transport already returned.
+     */
+    private int cursor;
+
+    public LoopbackChangeFeedTransport() {
+        this(new ArrayList<>());
+    }
+
+    private LoopbackChangeFeedTransport(List<ChangeBatch> log) {
+        this.log = log;
+        synchronized (log) {
+            this.cursor = log.size();
+        }
+    }
+
+    /**
+     * Creates another transport connected to this one, which receives the batches published from now on.
+     *
+     * @return The connected transport.
+     */
+    public LoopbackChangeFeedTransport connect() {
+        return new LoopbackChangeFeedTransport(log);
+    }
+
+    @Override
+    public void publish(ChangeBatch batch) {
+        synchronized (log) {
+            log.add(batch);
+        }
+    }
+
+    @Override
+    public List<ChangeBatch> poll() {
+        synchronized (log) {
+            List<ChangeBatch> batches = new ArrayList<>(log.subList(cursor, log.size()));
+            cursor = log.size();
+            return batches;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.changefeed;
+
+import com.cloudcraftnetwork.api.plugin.spigot.storage.KeyPage;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.StorageBackend;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.StorageException;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.StoredObject;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * A transport which stores every change batch as an object under a common prefix of a bucket.
+ * <p>
+ * Batch keys start with the publication time, so a poll only lists the keys after the time of the previous poll.
+ * Since the clocks of servers drift apart, every poll lists again the keys of the last clock skew window, and skips
+ * the batches it already returned.
+ * <p>
+ * Every server deletes its own batches once they are older than the retention time. Batches of servers which
+ * stopped abruptly are left behind, so the prefix should also have an expiry rule in the bucket, such as an S3
+ * lifecycle rule.
+ */
+public class StorageChangeFeedTransport implements ChangeFeedTransport {
+
+    private static final String CONTENT_TYPE = "application/json";
+
+    /**
+     * The format of the time at the start of batch keys, wide enough to sort as text.
+     */
+    private static final String TIME_FORMAT = "%013d";
+
+    /**
+     * Ignores unknown properties, so batches published by newer versions can still be read.
+     */
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final StorageBackend backend;
+    private final String bucketName;
+    private final String prefix;
+
+    /**
+     * The largest difference between the clocks of two servers the transport tolerates.
+     */
+    private final long clockSkewMillis;
+
+    /**
+     * The time after which the batches of this server are deleted.
+     */
+    private final long retentionMillis;
+
+    /**
+     * The clock of this server, in milliseconds since the epoch.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Receives the errors which do not fail a call: unreadable batches and batches which could not be deleted.
+     */
+    private final Consumer<? super IOException> errorHandler;
+
+    /**
+     * The time of the previous poll.
+     */
+    private long polledAt;
+
+    /**
+     * The keys of the batches returned within the last clock skew window.
+     */
+    private final NavigableSet<String> seen = new TreeSet<>();
+
+    /**
+     * The keys of the batches this server published and did not delete yet, oldest first.
+     */
+    private final Deque<String> published = new ArrayDeque<>();
+
+    /**
+     * @param backend         The backend of the bucket.
+     * @param bucketName      The name of the bucket.
+     * @param prefix          The prefix of the batch keys.
+     * @param clockSkewMillis The largest difference between the clocks of two servers.
+     * @param retentionMillis The time after which the batches of this server are deleted.
+     * @param clock           The clock of this server, in milliseconds since the epoch.
+     * @param errorHandler    Receives the errors which do not fail a call.
+     */
+    public StorageChangeFeedTransport(StorageBackend backend, String bucketName, String prefix, long clockSkewMillis,
+                                      long retentionMillis, LongSupplier clock,
+                                      Consumer<? super IOException> errorHandler) {
+        this.backend = backend;
+        this.bucketName = bucketName;
+        this.prefix = prefix;
+        this.clockSkewMillis = clockSkewMillis;
+        this.retentionMillis = retentionMillis;
+        this.clock = clock;
+        this.errorHandler = errorHandler;
+        this.polledAt = clock.getAsLong();
+    }
+
+    @Override
+    public void publish(ChangeBatch batch) throws IOException {
+        String key = prefix + String.format(TIME_FORMAT, batch.getCreatedAt()) + "-" + batch.getNodeId()
+                + "-" + batch.getSequence();
+        byte[] content = objectMapper.writeValueAsBytes(batch);
+        backend.put(bucketName, key, new StoredObject(
+                new ByteArrayInputStream(content),
+                content.length,
+                CONTENT_TYPE,
+                null
+        ));
+        List<String> expired = new ArrayList<>();
+        synchronized (published) {
+            published.addLast(key);
+            String oldest = markerAt(clock.getAsLong() - retentionMillis);
+            while (!published.isEmpty() && published.peekFirst().compareTo(oldest) < 0) {
+                expired.add(published.pollFirst());
+            }
+        }
+        if (!expired.isEmpty()) {
+            Map<String, StorageException> failures = backend.deleteAll(bucketName, expired);
+            if (!failures.isEmpty()) {
+                errorHandler.accept(failures.values().iterator().next());
+            }
+        }
+    }
+
+    @Override
+    public synchronized List<ChangeBatch> poll() throws IOException {
+        long now = clock.getAsLong();
+        String marker = markerAt(polledAt - clockSkewMillis);
+        List<String> keys = new ArrayList<>();
+        do {
+            KeyPage page = backend.list(bucketName, prefix, null, marker);
+            keys.addAll(page.getKeys());
+            marker = page.getNextMarker();
+        } while (marker != null);
+
+        List<ChangeBatch> batches = new ArrayList<>();
+        for (String key : keys) {
+            if (seen.contains(key)) {
+                continue;
+            }
+            Optional<StoredObject> stored;
+            try {
+                stored = backend.get(bucketName, key, null);
+            } catch (StorageException e) {
+                // Return the batches read so far, the next poll lists the remaining ones again
+                errorHandler.accept(e);
+                return batches;
+            }
+            // A batch deleted after the listing was older than the retention time
+            if (stored.isPresent()) {
+                try (StoredObject object = stored.get()) {
+                    batches.add(objectMapper.readValue(object.getContent(), ChangeBatch.class));
+                } catch (IOException e) {
+                    errorHandler.accept(e);
+                }
+            }
+            seen.add(key);
+        }
+        polledAt = now;
+        seen.headSet(markerAt(now - clockSkewMillis)).clear();
+        return batches;
+    }
+
+    /**
+     * Returns the key which sorts before the keys of every batch published at or after a time.
+     */
+    private String markerAt(long time) {
+        return prefix + String.format(TIME_FORMAT, Math.max(0, time));
+    }
+}
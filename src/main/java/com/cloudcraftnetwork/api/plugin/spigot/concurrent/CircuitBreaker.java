@@ -0,0 +1,122 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.concurrent;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops calls to a dependency which keeps failing, so callers fail fast instead of piling up behind it.
+ * <p>
+ * The breaker opens after a number of consecutive failures. While it is open every call is refused, until the
+ * open duration elapsed. Then a single trial call is let through: the breaker closes if it succeeds, and opens
+ * again if it fails.
+ * <p>
+ * Every call let through by {@link #tryAcquire()} must be followed by {@link #onSuccess()} or {@link #onFailure()}.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * The number of consecutive failures which opens the breaker, or 0 if it never opens.
+     */
+    private final int failureThreshold;
+
+    /**
+     * The time calls are refused for once the breaker opened.
+     */
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+
+    /**
+     * @param failureThreshold The number of consecutive failures which opens the breaker, 0 or less to never open.
+     * @param openDuration     The time calls are refused for once the breaker opened.
+     * @param unit             The unit of the open duration.
+     */
+    public CircuitBreaker(int failureThreshold, long openDuration, TimeUnit unit) {
+        this.failureThreshold = Math.max(0, failureThreshold);
+        this.openNanos = unit.toNanos(openDuration);
+    }
+
+    /**
+     * Asks to make a call.
+     *
+     * @return True if the call may be made, false if it must be refused.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                return true;
+            default:
+                // The trial call is still running
+                return false;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        failures = 0;
+        state = State.CLOSED;
+    }
+
+    public synchronized void onFailure() {
+        if (failureThreshold == 0) {
+            return;
+        }
+        if (state == State.HALF_OPEN || ++failures >= failureThreshold) {
+            failures = 0;
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Returns the time left before the breaker lets a trial call through.
+     *
+     * @param unit The unit of the time.
+     * @return The time left, or 0 if the breaker is not open.
+     */
+    public synchronized long getRemainingOpenTime(TimeUnit unit) {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return unit.convert(Math.max(0, openNanos - (System.nanoTime() - openedAt)), TimeUnit.NANOSECONDS);
+    }
+}
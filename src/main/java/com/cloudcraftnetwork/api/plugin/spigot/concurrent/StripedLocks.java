@@ -0,0 +1,77 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.concurrent;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks which keys are spread over, so operations on the same key are serialized while
+ * operations on different keys almost always proceed in parallel, without a lock per key.
+ */
+public class StripedLocks {
+
+    private final Lock[] locks;
+
+    /**
+     * The mask which maps a hash to a lock, since the number of locks is a power of two.
+     */
+    private final int mask;
+
+    /**
+     * @param stripes The minimum number of locks. It is rounded up to a power of two.
+     */
+    public StripedLocks(int stripes) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        locks = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Returns the lock of a key. Equal keys always get the same lock.
+     *
+     * @param key The key.
+     * @return The lock.
+     */
+    public Lock get(Object key) {
+        int hash = key.hashCode();
+        // Spread the high bits, since only the low bits select the lock
+        hash ^= (hash >>> 16);
+        return locks[hash & mask];
+    }
+
+    /**
+     * Returns the number of locks.
+     *
+     * @return The number of locks.
+     */
+    public int size() {
+        return locks.length;
+    }
+}
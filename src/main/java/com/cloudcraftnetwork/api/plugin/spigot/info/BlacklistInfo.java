@@ -0,0 +1,135 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.info;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.UUID;
+
+/**
+ * BlacklistInfo records that a player is banned from the network.
+ * <p>
+ * BlacklistInfo JSONs are stored in the "com.cloudcraftnetwork.blacklist" S3 bucket.
+ * The key for each entry is the player's UUID, so a player has at most one entry.
+ */
+public class BlacklistInfo extends CloudCraftNetworkInfo {
+
+    /**
+     * The id of the player (This is the player's Minecraft UUID)
+     */
+    private final UUID playerId;
+
+    /**
+     * The reason of the ban, shown to the player.
+     */
+    private String reason;
+
+    /**
+     * The id of the player who issued the ban, or null if it was not issued by a player.
+     */
+    private UUID issuedBy;
+
+    /**
+     * The time at which the ban was issued, in milliseconds since the epoch.
+     */
+    private long issuedAt;
+
+    /**
+     * The time at which the ban expires, in milliseconds since the epoch. 0 if the ban never expires.
+     */
+    private long expiresAt;
+
+    public BlacklistInfo(UUID playerId, String reason) {
+        this(playerId, reason, null, System.currentTimeMillis(), 0);
+    }
+
+    @JsonCreator
+    public BlacklistInfo(
+            @JsonProperty(value = "playerId") UUID playerId,
+            @JsonProperty(value = "reason") String reason,
+            @JsonProperty(value = "issuedBy") UUID issuedBy,
+            @JsonProperty(value = "issuedAt") long issuedAt,
+            @JsonProperty(value = "expiresAt") long expiresAt
+    ) {
+        this.playerId = playerId;
+        this.reason = reason;
+        this.issuedBy = issuedBy;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public String createKey() {
+        return playerId.toString();
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public UUID getIssuedBy() {
+        return issuedBy;
+    }
+
+    public void setIssuedBy(UUID issuedBy) {
+        this.issuedBy = issuedBy;
+    }
+
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    public void setIssuedAt(long issuedAt) {
+        this.issuedAt = issuedAt;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Checks whether the ban expired.
+     *
+     * @param now The current time in milliseconds since the epoch.
+     * @return true if the ban expired, false if it is active or never expires.
+     */
+    public boolean isExpired(long now) {
+        return expiresAt > 0 && now >= expiresAt;
+    }
+}
@@ -25,10 +25,50 @@
 
 package com.cloudcraftnetwork.api.plugin.spigot.info;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.UUID;
+
 public class CostumeInfo extends CloudCraftNetworkInfo {
 
+    /**
+     * The id of the costume.
+     */
+    private final UUID id;
+
+    /**
+     * The type of the costume, may be null.
+     */
+    private String type;
+
+    public CostumeInfo(UUID id) {
+        this.id = id;
+    }
+
+    @JsonCreator
+    public CostumeInfo(
+            @JsonProperty(value = "id") UUID id,
+            @JsonProperty(value = "type") String type
+    ) {
+        this(id);
+        this.type = type;
+    }
+
     @Override
     public String createKey() {
-        return null;
+        return id.toString();
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
     }
 }
@@ -0,0 +1,96 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.info;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.UUID;
+
+/**
+ * CurrencyDeltaInfo records a change to the currencies of a player, which is added to the balance of the
+ * {@link PrivatePlayerInfo} of the player when the ledger is compacted.
+ * <p>
+ * CurrencyDeltaInfo JSONs are stored in the "com.cloudcraftnetwork.players.ledger" S3 bucket.
+ * The key for each record is the player's UUID followed by the id of the record, so the records of a player
+ * share a common prefix. Records are never modified, only created and deleted.
+ */
+public class CurrencyDeltaInfo extends CloudCraftNetworkInfo {
+
+    /**
+     * The id of the player (This is the player's Minecraft UUID)
+     */
+    private final UUID playerId;
+
+    /**
+     * The id of the record, unique across every server.
+     */
+    private final String recordId;
+
+    /**
+     * The change to the DewPoints of the player.
+     */
+    private final long dewPoints;
+
+    /**
+     * The change to the FrostPoints of the player.
+     */
+    private final double frostPoints;
+
+    @JsonCreator
+    public CurrencyDeltaInfo(
+            @JsonProperty(value = "playerId") UUID playerId,
+            @JsonProperty(value = "recordId") String recordId,
+            @JsonProperty(value = "dewPoints") long dewPoints,
+            @JsonProperty(value = "frostPoints") double frostPoints
+    ) {
+        this.playerId = playerId;
+        this.recordId = recordId;
+        this.dewPoints = dewPoints;
+        this.frostPoints = frostPoints;
+    }
+
+    @Override
+    public String createKey() {
+        return playerId + "/" + recordId;
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public String getRecordId() {
+        return recordId;
+    }
+
+    public long getDewPoints() {
+        return dewPoints;
+    }
+
+    public double getFrostPoints() {
+        return frostPoints;
+    }
+}
@@ -29,6 +29,9 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -55,19 +58,33 @@ public class PrivatePlayerInfo extends CloudCraftNetworkInfo {
      */
     private double frostPoints;
 
+    /**
+     * The ids of the currency ledger records which were compacted into the balance, but may not be deleted yet.
+     * Records with these ids are never added to the balance again.
+     */
+    private Set<String> ledgerRecords = Collections.emptySet();
+
     public PrivatePlayerInfo(UUID id) {
         this.id = id;
     }
 
+    public PrivatePlayerInfo(UUID id, long dewPoints, double frostPoints) {
+        this(id, dewPoints, frostPoints, null);
+    }
+
     @JsonCreator
     public PrivatePlayerInfo(
-            @JsonProperty(value = "dewPoints") UUID id,
+            @JsonProperty(value = "id") UUID id,
             @JsonProperty(value = "dewPoints") long dewPoints,
-            @JsonProperty(value = "frostPoints") double frostPoints
+            @JsonProperty(value = "frostPoints") double frostPoints,
+            @JsonProperty(value = "ledgerRecords") Set<String> ledgerRecords
     ) {
         this(id);
         this.dewPoints = dewPoints;
         this.frostPoints = frostPoints;
+        if (ledgerRecords != null) {
+            this.ledgerRecords = new HashSet<>(ledgerRecords);
+        }
     }
 
     @Override
@@ -94,4 +111,12 @@ public class PrivatePlayerInfo extends CloudCraftNetworkInfo {
     public void setFrostPoints(double frostPoints) {
         this.frostPoints = frostPoints;
     }
-}
\ No newline at end of file
+
+    public Set<String> getLedgerRecords() {
+        return ledgerRecords;
+    }
+
+    public void setLedgerRecords(Set<String> ledgerRecords) {
+        this.ledgerRecords = ledgerRecords;
+    }
+}
@@ -1,5 +1,7 @@
 package com.cloudcraftnetwork.api.plugin.spigot.info;
 
+import com.cloudcraftnetwork.api.plugin.spigot.info.collect.UuidIntMap;
+import com.cloudcraftnetwork.api.plugin.spigot.info.collect.UuidSet;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
@@ -13,6 +15,9 @@ import java.util.UUID;
  * <p>
  * PublicPlayerInfo JSONs are stored in the "com.cloudcraftnetwork.players" S3 bucket
  * The key for each player info is the player's UUID.
+ * <p>
+ * The friends list, ignored list and inventory are held in {@link UuidSet} and {@link UuidIntMap}, which store
+ * each UUID as two longs rather than as an object, and are copied into them when set.
  */
 @JsonSerialize
 public class PublicPlayerInfo extends CloudCraftNetworkInfo {
@@ -25,12 +30,12 @@ public class PublicPlayerInfo extends CloudCraftNetworkInfo {
     /**
      * The UUIDs of all the player's friends
      */
-    private Set<UUID> friendsList;
+    private UuidSet friendsList;
 
     /**
      * The UUIDs of all the other players which have been ignored by the player
      */
-    private Set<UUID> ignoredList;
+    private UuidSet ignoredList;
 
     /**
      * The UUID of the player's pet, if the player owns a pet
@@ -45,22 +50,36 @@ public class PublicPlayerInfo extends CloudCraftNetworkInfo {
     /**
      * The special items the player is currently holding
      */
-    private Map<UUID, Integer> inventory;
+    private UuidIntMap inventory;
 
     public PublicPlayerInfo(UUID id) {
         this.id = id;
     }
 
-    @JsonCreator
     public PublicPlayerInfo(
-            @JsonProperty(value = "dewPoints") UUID id,
+            UUID id,
+            long dewPoints,
+            double frostPoints,
+            Set<UUID> friendsList,
+            Set<UUID> ignoredList,
+            UUID petId,
+            UUID costumeId,
+            Map<UUID, Integer> inventory
+    ) {
+        this(id, dewPoints, frostPoints, UuidSet.copyOf(friendsList), UuidSet.copyOf(ignoredList), petId, costumeId,
+                UuidIntMap.copyOf(inventory));
+    }
+
+    @JsonCreator
+    private PublicPlayerInfo(
+            @JsonProperty(value = "id") UUID id,
             @JsonProperty(value = "dewPoints") long dewPoints,
             @JsonProperty(value = "frostPoints") double frostPoints,
-            @JsonProperty(value = "friendsList") Set<UUID> friendsList,
-            @JsonProperty(value = "ignoredList") Set<UUID> ignoredList,
+            @JsonProperty(value = "friendsList") UuidSet friendsList,
+            @JsonProperty(value = "ignoredList") UuidSet ignoredList,
             @JsonProperty(value = "petId") UUID petId,
             @JsonProperty(value = "costumeId") UUID costumeId,
-            @JsonProperty(value = "inventory") Map<UUID, Integer> inventory
+            @JsonProperty(value = "inventory") UuidIntMap inventory
     ) {
         this(id);
         this.friendsList = friendsList;
@@ -84,7 +103,7 @@ public class PublicPlayerInfo extends CloudCraftNetworkInfo {
     }
 
     public void setFriendsList(Set<UUID> friendsList) {
-        this.friendsList = friendsList;
+        this.friendsList = UuidSet.copyOf(friendsList);
     }
 
     public Set<UUID> getIgnoredList() {
@@ -92,7 +111,7 @@ public class PublicPlayerInfo extends CloudCraftNetworkInfo {
     }
 
     public void setIgnoredList(Set<UUID> ignoredList) {
-        this.ignoredList = ignoredList;
+        this.ignoredList = UuidSet.copyOf(ignoredList);
     }
 
     public UUID getPetId() {
@@ -116,6 +135,6 @@ public class PublicPlayerInfo extends CloudCraftNetworkInfo {
     }
 
     public void setInventory(Map<UUID, Integer> inventory) {
-        this.inventory = inventory;
+        this.inventory = UuidIntMap.copyOf(inventory);
     }
 }
\ No newline at end of file
@@ -24,19 +24,31 @@ public class ServerInfo extends CloudCraftNetworkInfo {
      */
     private String address;
 
+    /**
+     * The time at which the last heartbeat of the server expires, in milliseconds since the epoch.
+     * 0 if the server never expires, which is the case of servers published without a heartbeat.
+     */
+    private long expiresAt;
+
     public ServerInfo(UUID id, String type) {
         this.id = id;
         this.type = type;
     }
 
+    public ServerInfo(UUID id, String type, String address) {
+        this(id, type, address, 0);
+    }
+
     @JsonCreator
     public ServerInfo(
             @JsonProperty(value = "id") UUID id,
             @JsonProperty(value = "type") String type,
-            @JsonProperty(value = "address") String address
+            @JsonProperty(value = "address") String address,
+            @JsonProperty(value = "expiresAt") long expiresAt
     ) {
         this(id, type);
         this.address = address;
+        this.expiresAt = expiresAt;
     }
 
     @Override
@@ -59,4 +71,22 @@ public class ServerInfo extends CloudCraftNetworkInfo {
     public void setAddress(String address) {
         this.address = address;
     }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Checks whether the last heartbeat of the server expired.
+     *
+     * @param now The current time in milliseconds since the epoch.
+     * @return true if the server expired, false if it is alive or never expires.
+     */
+    public boolean isExpired(long now) {
+        return expiresAt > 0 && now >= expiresAt;
+    }
 }
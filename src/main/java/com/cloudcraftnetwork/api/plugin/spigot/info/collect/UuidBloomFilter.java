@@ -0,0 +1,183 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.info.collect;
+
+import java.util.UUID;
+
+/**
+ * A Bloom filter of UUIDs: a bit array which tells that a UUID was certainly never added, or was probably added.
+ * Membership costs a few bit reads, so a filter is a cheap way to answer the common negative case before looking
+ * a UUID up in a larger collection.
+ * <p>
+ * UUIDs cannot be removed from a filter. Not thread-safe while UUIDs are added.
+ */
+public final class UuidBloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    /**
+     * The largest number of bits of a filter, a power of two.
+     */
+    private static final long MAX_BITS = 1L << 31;
+
+    private final long[] words;
+
+    /**
+     * The number of bits minus one, the number of bits being a power of two.
+     */
+    private final long mask;
+
+    /**
+     * The number of bits set for every UUID.
+     */
+    private final int hashCount;
+
+    /**
+     * The number of UUIDs the filter was sized for.
+     */
+    private final int expectedSize;
+
+    /**
+     * Creates a filter sized so the false positive rate stays below a target until a number of UUIDs were added.
+     *
+     * @param expectedSize      The number of UUIDs which will be added.
+     * @param falsePositiveRate The target false positive rate, between 0 and 1 exclusive.
+     */
+    public UuidBloomFilter(int expectedSize, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid false positive rate " + falsePositiveRate);
+        }
+        this.expectedSize = Math.max(1, expectedSize);
+        long optimalBits = (long) Math.ceil(-this.expectedSize * Math.log(falsePositiveRate) / (LN2 * LN2));
+        long bits = Long.SIZE;
+        while (bits < optimalBits && bits < MAX_BITS) {
+            bits <<= 1;
+        }
+        this.words = new long[(int) (bits / Long.SIZE)];
+        this.mask = bits - 1;
+        this.hashCount = Math.max(1, Math.min(16, (int) Math.round((double) bits / this.expectedSize * LN2)));
+    }
+
+    private UuidBloomFilter(UuidBloomFilter other) {
+        this.words = other.words.clone();
+        this.mask = other.mask;
+        this.hashCount = other.hashCount;
+        this.expectedSize = other.expectedSize;
+    }
+
+    /**
+     * Creates a filter holding every UUID of a collection, sized for a larger number of UUIDs so more can be added.
+     *
+     * @param uuids             The UUIDs.
+     * @param expectedSize      The number of UUIDs the filter is sized for, at least the number of UUIDs.
+     * @param falsePositiveRate The target false positive rate.
+     * @return The filter.
+     */
+    public static UuidBloomFilter of(Iterable<UUID> uuids, int expectedSize, double falsePositiveRate) {
+        UuidBloomFilter filter = new UuidBloomFilter(expectedSize, falsePositiveRate);
+        for (UUID uuid : uuids) {
+            filter.add(uuid);
+        }
+        return filter;
+    }
+
+    public void add(UUID uuid) {
+        add(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public void add(long msb, long lsb) {
+        long hash = mix(msb ^ mix(lsb));
+        // Double hashing: the bits of a UUID are h1, h1 + h2, h1 + 2 * h2...
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = (h1 + i * h2) & mask;
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain(UUID uuid) {
+        return mightContain(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Checks whether a UUID might have been added.
+     *
+     * @param msb The most significant bits of the UUID.
+     * @param lsb The least significant bits of the UUID.
+     * @return False if the UUID was never added, true if it probably was.
+     */
+    public boolean mightContain(long msb, long lsb) {
+        long hash = mix(msb ^ mix(lsb));
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = (h1 + i * h2) & mask;
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a copy of this filter, which more UUIDs can be added to without changing this filter.
+     *
+     * @return The copy.
+     */
+    public UuidBloomFilter copy() {
+        return new UuidBloomFilter(this);
+    }
+
+    public int getExpectedSize() {
+        return expectedSize;
+    }
+
+    /**
+     * Returns the size of the filter.
+     *
+     * @return The number of bits.
+     */
+    public long getBitCount() {
+        return mask + 1;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * The finalizer of MurmurHash3, which spreads every input bit over the whole output.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,309 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.info.collect;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A map from UUIDs to ints which stores its keys as pairs of longs and its values as ints in flat arrays.
+ * <p>
+ * Not thread safe, like {@link java.util.HashMap}. Null keys and values are not permitted.
+ */
+@JsonSerialize(using = UuidIntMap.Serializer.class)
+@JsonDeserialize(using = UuidIntMap.Deserializer.class)
+public final class UuidIntMap extends AbstractMap<UUID, Integer> {
+
+    private final UuidTable table;
+
+    /**
+     * Creates an empty map.
+     */
+    public UuidIntMap() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty map.
+     *
+     * @param expectedSize The number of entries the map should hold without resizing.
+     */
+    public UuidIntMap(int expectedSize) {
+        table = new UuidTable(expectedSize, true);
+    }
+
+    /**
+     * Creates a map containing the entries of another map.
+     *
+     * @param map The map.
+     * @return The new map, or null if the map is null.
+     */
+    public static UuidIntMap copyOf(Map<UUID, Integer> map) {
+        if (map == null) {
+            return null;
+        }
+        UuidIntMap copy = new UuidIntMap(map.size());
+        copy.putAll(map);
+        return copy;
+    }
+
+    /**
+     * Gets the value of a UUID.
+     *
+     * @param msb          The most significant bits of the UUID.
+     * @param lsb          The least significant bits of the UUID.
+     * @param defaultValue The value to return if the map does not contain the UUID.
+     * @return The value.
+     */
+    public int getInt(long msb, long lsb, int defaultValue) {
+        int index = table.indexOf(msb, lsb);
+        return index < 0 ? defaultValue : table.valueAt(index);
+    }
+
+    /**
+     * Gets the value of a UUID.
+     *
+     * @param uuid         The UUID.
+     * @param defaultValue The value to return if the map does not contain the UUID.
+     * @return The value.
+     */
+    public int getInt(UUID uuid, int defaultValue) {
+        return getInt(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), defaultValue);
+    }
+
+    /**
+     * Sets the value of a UUID.
+     *
+     * @param msb   The most significant bits of the UUID.
+     * @param lsb   The least significant bits of the UUID.
+     * @param value The value.
+     * @return true if the map did not already contain the UUID.
+     */
+    public boolean putInt(long msb, long lsb, int value) {
+        int index = table.insert(msb, lsb, value);
+        if (index < 0) {
+            return true;
+        }
+        table.setValueAt(index, value);
+        return false;
+    }
+
+    /**
+     * Sets the value of a UUID.
+     *
+     * @param uuid  The UUID.
+     * @param value The value.
+     * @return true if the map did not already contain the UUID.
+     */
+    public boolean putInt(UUID uuid, int value) {
+        return putInt(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), value);
+    }
+
+    @Override
+    public Integer get(Object key) {
+        int index = indexOf(key);
+        return index < 0 ? null : table.valueAt(index);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public Integer put(UUID key, Integer value) {
+        int index = table.insert(key.getMostSignificantBits(), key.getLeastSignificantBits(), value);
+        if (index < 0) {
+            return null;
+        }
+        Integer previous = table.valueAt(index);
+        table.setValueAt(index, value);
+        return previous;
+    }
+
+    @Override
+    public Integer remove(Object key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        Integer previous = table.valueAt(index);
+        table.removeAt(index);
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return table.size();
+    }
+
+    @Override
+    public void clear() {
+        table.clear();
+    }
+
+    @Override
+    public Set<Entry<UUID, Integer>> entrySet() {
+        return new AbstractSet<Entry<UUID, Integer>>() {
+
+            @Override
+            public Iterator<Entry<UUID, Integer>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return table.size();
+            }
+
+            @Override
+            public void clear() {
+                table.clear();
+            }
+        };
+    }
+
+    private int indexOf(Object key) {
+        if (!(key instanceof UUID)) {
+            return -1;
+        }
+        UUID uuid = (UUID) key;
+        return table.indexOf(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    private class EntryIterator implements Iterator<Entry<UUID, Integer>> {
+
+        private int next = table.nextIndex(0);
+        private int last = -1;
+        private int expectedModCount = table.modCount();
+
+        @Override
+        public boolean hasNext() {
+            return next >= 0;
+        }
+
+        @Override
+        public Entry<UUID, Integer> next() {
+            if (next < 0) {
+                throw new NoSuchElementException();
+            }
+            if (table.modCount() != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            last = next;
+            next = table.nextIndex(next + 1);
+            int index = last;
+            UUID key = new UUID(table.mostSigBitsAt(index), table.leastSigBitsAt(index));
+            return new SimpleEntry<UUID, Integer>(key, table.valueAt(index)) {
+
+                @Override
+                public Integer setValue(Integer value) {
+                    if (table.modCount() != expectedModCount) {
+                        throw new ConcurrentModificationException();
+                    }
+                    table.setValueAt(index, value);
+                    return super.setValue(value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (table.modCount() != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            table.removeAt(last);
+            last = -1;
+            expectedModCount = table.modCount();
+        }
+    }
+
+    /**
+     * Writes the map as an object with a field per UUID, without boxing the values.
+     */
+    public static class Serializer extends JsonSerializer<UuidIntMap> {
+
+        @Override
+        public void serialize(UuidIntMap value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            UuidTable table = value.table;
+            char[] buffer = new char[Uuids.TEXT_LENGTH];
+            gen.writeStartObject();
+            for (int i = table.nextIndex(0); i >= 0; i = table.nextIndex(i + 1)) {
+                Uuids.writeFieldName(gen, table.mostSigBitsAt(i), table.leastSigBitsAt(i), buffer);
+                gen.writeNumber(table.valueAt(i));
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Reads an object with a field per UUID into a map, without boxing the values.
+     */
+    public static class Deserializer extends JsonDeserializer<UuidIntMap> {
+
+        @Override
+        public UuidIntMap deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.getCurrentToken();
+            if (token == JsonToken.START_OBJECT) {
+                token = p.nextToken();
+            } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+                throw new JsonMappingException("Expected an object of UUIDs to ints", p.getCurrentLocation());
+            }
+            UuidIntMap map = new UuidIntMap();
+            long[] key = new long[2];
+            for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+                Uuids.read(p, (msb, lsb) -> {
+                    key[0] = msb;
+                    key[1] = lsb;
+                });
+                p.nextToken();
+                map.putInt(key[0], key[1], p.getValueAsInt());
+            }
+            return map;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.info.collect;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * A set of UUIDs which stores each UUID as two longs in flat arrays, rather than as a UUID object in a hash node.
+ * <p>
+ * Not thread safe, like {@link java.util.HashSet}. Null is not permitted.
+ */
+@JsonSerialize(using = UuidSet.Serializer.class)
+@JsonDeserialize(using = UuidSet.Deserializer.class)
+public final class UuidSet extends AbstractSet<UUID> {
+
+    private final UuidTable table;
+
+    /**
+     * Creates an empty set.
+     */
+    public UuidSet() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty set.
+     *
+     * @param expectedSize The number of UUIDs the set should hold without resizing.
+     */
+    public UuidSet(int expectedSize) {
+        table = new UuidTable(expectedSize, false);
+    }
+
+    /**
+     * Creates a set containing the UUIDs of a collection.
+     *
+     * @param uuids The UUIDs.
+     * @return The set, or null if the collection is null.
+     */
+    public static UuidSet copyOf(Collection<UUID> uuids) {
+        if (uuids == null) {
+            return null;
+        }
+        UuidSet set = new UuidSet(uuids.size());
+        set.addAll(uuids);
+        return set;
+    }
+
+    /**
+     * Checks whether the set contains a UUID.
+     *
+     * @param msb The most significant bits of the UUID.
+     * @param lsb The least significant bits of the UUID.
+     * @return true if the set contains the UUID.
+     */
+    public boolean contains(long msb, long lsb) {
+        return table.indexOf(msb, lsb) >= 0;
+    }
+
+    /**
+     * Adds a UUID to the set.
+     *
+     * @param msb The most significant bits of the UUID.
+     * @param lsb The least significant bits of the UUID.
+     * @return true if the set did not already contain the UUID.
+     */
+    public boolean add(long msb, long lsb) {
+        return table.insert(msb, lsb, 0) < 0;
+    }
+
+    /**
+     * Removes a UUID from the set.
+     *
+     * @param msb The most significant bits of the UUID.
+     * @param lsb The least significant bits of the UUID.
+     * @return true if the set contained the UUID.
+     */
+    public boolean remove(long msb, long lsb) {
+        int index = table.indexOf(msb, lsb);
+        if (index < 0) {
+            return false;
+        }
+        table.removeAt(index);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof UUID)) {
+            return false;
+        }
+        UUID uuid = (UUID) o;
+        return contains(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    @Override
+    public boolean add(UUID uuid) {
+        return add(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof UUID)) {
+            return false;
+        }
+        UUID uuid = (UUID) o;
+        return remove(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    @Override
+    public int size() {
+        return table.size();
+    }
+
+    @Override
+    public void clear() {
+        table.clear();
+    }
+
+    @Override
+    public Iterator<UUID> iterator() {
+        return new Iterator<UUID>() {
+
+            private int next = table.nextIndex(0);
+            private int last = -1;
+            private int expectedModCount = table.modCount();
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public UUID next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                if (table.modCount() != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                last = next;
+                next = table.nextIndex(next + 1);
+                return new UUID(table.mostSigBitsAt(last), table.leastSigBitsAt(last));
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                if (table.modCount() != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                table.removeAt(last);
+                last = -1;
+                expectedModCount = table.modCount();
+            }
+        };
+    }
+
+    /**
+     * Writes the set as an array of UUIDs, without creating a UUID object for each element.
+     */
+    public static class Serializer extends JsonSerializer<UuidSet> {
+
+        @Override
+        public void serialize(UuidSet value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            UuidTable table = value.table;
+            char[] buffer = new char[Uuids.TEXT_LENGTH];
+            gen.writeStartArray(table.size());
+            for (int i = table.nextIndex(0); i >= 0; i = table.nextIndex(i + 1)) {
+                Uuids.write(gen, table.mostSigBitsAt(i), table.leastSigBitsAt(i), buffer);
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    /**
+     * Reads an array of UUIDs into a set, without creating a UUID object for each element.
+     */
+    public static class Deserializer extends JsonDeserializer<UuidSet> {
+
+        @Override
+        public UuidSet deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.getCurrentToken() != JsonToken.START_ARRAY) {
+                throw new JsonMappingException("Expected an array of UUIDs", p.getCurrentLocation());
+            }
+            UuidSet set = new UuidSet();
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                Uuids.read(p, set::add);
+            }
+            return set;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.info.collect;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash table of UUIDs, stored as pairs of longs in flat arrays, with an optional int value
+ * per UUID. Collisions are resolved by linear probing, and removed slots are marked until the next rehash,
+ * so removing never moves other entries and iterating by slot index stays valid.
+ * <p>
+ * Not thread-safe.
+ */
+final class UuidTable {
+
+    private static final byte FREE = 0;
+    private static final byte FULL = 1;
+    private static final byte REMOVED = 2;
+
+    /**
+     * The smallest capacity of a table, a power of two.
+     */
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] mostSigBits;
+    private long[] leastSigBits;
+    private int[] values;
+    private byte[] states;
+
+    /**
+     * Whether the table stores a value per UUID.
+     */
+    private final boolean hasValues;
+
+    /**
+     * The number of UUIDs in the table.
+     */
+    private int size;
+
+    /**
+     * The number of slots which are not free, full or removed.
+     */
+    private int used;
+
+    /**
+     * The number of structural modifications, which invalidates iterators.
+     */
+    private int modCount;
+
+    UuidTable(int expectedSize, boolean hasValues) {
+        this.hasValues = hasValues;
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Returns the slot of a UUID.
+     *
+     * @param msb The most significant bits of the UUID.
+     * @param lsb The least significant bits of the UUID.
+     * @return The slot, or -1 if the UUID is not in the table.
+     */
+    int indexOf(long msb, long lsb) {
+        int mask = states.length - 1;
+        for (int i = hash(msb, lsb) & mask; states[i] != FREE; i = (i + 1) & mask) {
+            if (states[i] == FULL && mostSigBits[i] == msb && leastSigBits[i] == lsb) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a UUID, unless it is already in the table.
+     *
+     * @param msb   The most significant bits of the UUID.
+     * @param lsb   The least significant bits of the UUID.
+     * @param value The value of the UUID if it is added, ignored by tables without values.
+     * @return -1 if the UUID was added, otherwise the slot of the UUID which was already in the table.
+     */
+    int insert(long msb, long lsb, int value) {
+        int mask = states.length - 1;
+        int removed = -1;
+        int i = hash(msb, lsb) & mask;
+        for (; states[i] != FREE; i = (i + 1) & mask) {
+            if (states[i] == FULL) {
+                if (mostSigBits[i] == msb && leastSigBits[i] == lsb) {
+                    return i;
+                }
+            } else if (removed < 0) {
+                removed = i;
+            }
+        }
+        if (removed >= 0) {
+            i = removed;
+        } else {
+            used++;
+        }
+        mostSigBits[i] = msb;
+        leastSigBits[i] = lsb;
+        if (hasValues) {
+            values[i] = value;
+        }
+        states[i] = FULL;
+        size++;
+        modCount++;
+        if (used > maxUsed(states.length)) {
+            rehash(capacityFor(size));
+        }
+        return -1;
+    }
+
+    /**
+     * Removes the UUID of a full slot.
+     *
+     * @param index The slot.
+     */
+    void removeAt(int index) {
+        states[index] = REMOVED;
+        size--;
+        modCount++;
+    }
+
+    void clear() {
+        Arrays.fill(states, FREE);
+        size = 0;
+        used = 0;
+        modCount++;
+    }
+
+    /**
+     * Returns the first full slot at or after a slot.
+     *
+     * @param from The slot to start from.
+     * @return The full slot, or -1 if there is none.
+     */
+    int nextIndex(int from) {
+        for (int i = from; i < states.length; i++) {
+            if (states[i] == FULL) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    long mostSigBitsAt(int index) {
+        return mostSigBits[index];
+    }
+
+    long leastSigBitsAt(int index) {
+        return leastSigBits[index];
+    }
+
+    int valueAt(int index) {
+        return values[index];
+    }
+
+    void setValueAt(int index, int value) {
+        values[index] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int modCount() {
+        return modCount;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldMostSigBits = mostSigBits;
+        long[] oldLeastSigBits = leastSigBits;
+        int[] oldValues = values;
+        byte[] oldStates = states;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldStates.length; j++) {
+            if (oldStates[j] != FULL) {
+                continue;
+            }
+            int i = hash(oldMostSigBits[j], oldLeastSigBits[j]) & mask;
+            while (states[i] != FREE) {
+                i = (i + 1) & mask;
+            }
+            mostSigBits[i] = oldMostSigBits[j];
+            leastSigBits[i] = oldLeastSigBits[j];
+            if (hasValues) {
+                values[i] = oldValues[j];
+            }
+            states[i] = FULL;
+        }
+        used = size;
+    }
+
+    private void allocate(int capacity) {
+        mostSigBits = new long[capacity];
+        leastSigBits = new long[capacity];
+        values = hasValues ? new int[capacity] : null;
+        states = new byte[capacity];
+    }
+
+    /**
+     * Returns the smallest capacity which holds a number of UUIDs below the maximum load.
+     *
+     * @param size The number of UUIDs.
+     * @return The capacity, a power of two.
+     */
+    private static int capacityFor(int size) {
+        int capacity = MIN_CAPACITY;
+        while (maxUsed(capacity) < size) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Returns the number of slots which may be used before the table is rehashed, three quarters of the capacity,
+     * so a free slot always ends every probe.
+     *
+     * @param capacity The capacity.
+     * @return The maximum number of used slots.
+     */
+    private static int maxUsed(int capacity) {
+        return capacity - (capacity >>> 2);
+    }
+
+    private static int hash(long msb, long lsb) {
+        long hash = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.info.collect;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Reads and writes UUIDs as pairs of longs, without creating UUID objects or intermediate strings.
+ */
+final class Uuids {
+
+    /**
+     * The length of the canonical text form of a UUID.
+     */
+    static final int TEXT_LENGTH = 36;
+
+    /**
+     * The length of the binary form of a UUID.
+     */
+    static final int BINARY_LENGTH = 16;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * The number of field names cached by every thread, a power of two.
+     */
+    private static final int FIELD_NAME_CACHE_SIZE = 1024;
+
+    /**
+     * The field names recently written by every thread.
+     */
+    private static final ThreadLocal<FieldNameCache> FIELD_NAMES = ThreadLocal.withInitial(FieldNameCache::new);
+
+    private Uuids() {
+    }
+
+    /**
+     * A direct-mapped cache of the text forms of UUIDs, by UUID.
+     * <p>
+     * Jackson can write values from a char array, but always needs a String for field names, even when given a
+     * SerializableString. The same UUIDs are written over and over, such as the friends of an online player each
+     * time the player is stored, so caching their text form makes writing them allocation-free once warm.
+     */
+    private static final class FieldNameCache {
+
+        private final long[] mostSigBits = new long[FIELD_NAME_CACHE_SIZE];
+        private final long[] leastSigBits = new long[FIELD_NAME_CACHE_SIZE];
+        private final String[] names = new String[FIELD_NAME_CACHE_SIZE];
+
+        String get(long msb, long lsb, char[] buffer) {
+            long hash = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+            int i = (int) (hash >>> 32) & (FIELD_NAME_CACHE_SIZE - 1);
+            String name = names[i];
+            if (name == null || mostSigBits[i] != msb || leastSigBits[i] != lsb) {
+                format(msb, lsb, buffer);
+                name = new String(buffer, 0, TEXT_LENGTH);
+                mostSigBits[i] = msb;
+                leastSigBits[i] = lsb;
+                names[i] = name;
+            }
+            return name;
+        }
+    }
+
+    /**
+     * Receives the two halves of a UUID.
+     */
+    interface Consumer {
+
+        void accept(long msb, long lsb) throws IOException;
+    }
+
+    /**
+     * Reads the UUID of the current token, a string or, for binary formats, 16 bytes.
+     *
+     * @param parser   The parser.
+     * @param consumer Receives the UUID.
+     * @throws IOException If the token is not a UUID.
+     */
+    static void read(JsonParser parser, Consumer consumer) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        if (token == JsonToken.VALUE_EMBEDDED_OBJECT) {
+            byte[] bytes = parser.getBinaryValue();
+            if (bytes.length != BINARY_LENGTH) {
+                throw new JsonMappingException("Expected " + BINARY_LENGTH + " bytes for a UUID",
+                        parser.getCurrentLocation());
+            }
+            consumer.accept(readLong(bytes, 0), readLong(bytes, 8));
+        } else if (token == JsonToken.VALUE_STRING || token == JsonToken.FIELD_NAME) {
+            char[] text = parser.getTextCharacters();
+            int offset = parser.getTextOffset();
+            int length = parser.getTextLength();
+            if (!parse(text, offset, length, consumer)) {
+                UUID uuid = parseLenient(new String(text, offset, length), parser);
+                consumer.accept(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            }
+        } else {
+            throw new JsonMappingException("Expected a UUID, found " + token, parser.getCurrentLocation());
+        }
+    }
+
+    /**
+     * Writes a UUID, in binary if the format supports it, otherwise in its canonical text form.
+     *
+     * @param generator The generator.
+     * @param msb       The most significant bits of the UUID.
+     * @param lsb       The least significant bits of the UUID.
+     * @param buffer    A buffer of at least 36 chars, reused between calls.
+     * @throws IOException If the UUID cannot be written.
+     */
+    static void write(JsonGenerator generator, long msb, long lsb, char[] buffer) throws IOException {
+        if (generator.canWriteBinaryNatively()) {
+            byte[] bytes = new byte[BINARY_LENGTH];
+            writeLong(bytes, 0, msb);
+            writeLong(bytes, 8, lsb);
+            generator.writeBinary(bytes);
+        } else {
+            format(msb, lsb, buffer);
+            generator.writeString(buffer, 0, TEXT_LENGTH);
+        }
+    }
+
+    /**
+     * Writes a UUID as a field name, in its canonical text form.
+     * The text forms of recently written UUIDs are cached by the thread, so they are only created once.
+     *
+     * @param generator The generator.
+     * @param msb       The most significant bits of the UUID.
+     * @param lsb       The least significant bits of the UUID.
+     * @param buffer    A buffer of at least 36 chars, reused between calls.
+     * @throws IOException If the field name cannot be written.
+     */
+    static void writeFieldName(JsonGenerator generator, long msb, long lsb, char[] buffer) throws IOException {
+        generator.writeFieldName(FIELD_NAMES.get().get(msb, lsb, buffer));
+    }
+
+    /**
+     * Writes the canonical text form of a UUID into a buffer.
+     *
+     * @param msb    The most significant bits of the UUID.
+     * @param lsb    The least significant bits of the UUID.
+     * @param buffer A buffer of at least 36 chars.
+     */
+    static void format(long msb, long lsb, char[] buffer) {
+        formatHex(msb >>> 32, buffer, 0, 8);
+        buffer[8] = '-';
+        formatHex(msb >>> 16, buffer, 9, 4);
+        buffer[13] = '-';
+        formatHex(msb, buffer, 14, 4);
+        buffer[18] = '-';
+        formatHex(lsb >>> 48, buffer, 19, 4);
+        buffer[23] = '-';
+        formatHex(lsb, buffer, 24, 12);
+    }
+
+    /**
+     * Parses the canonical text form of a UUID.
+     *
+     * @param text     The characters.
+     * @param offset   The offset of the UUID.
+     * @param length   The length of the UUID.
+     * @param consumer Receives the UUID.
+     * @return false if the text is not a UUID in its canonical form.
+     * @throws IOException If the consumer fails.
+     */
+    static boolean parse(char[] text, int offset, int length, Consumer consumer) throws IOException {
+        if (length != TEXT_LENGTH
+                || text[offset + 8] != '-'
+                || text[offset + 13] != '-'
+                || text[offset + 18] != '-'
+                || text[offset + 23] != '-') {
+            return false;
+        }
+        long high = parseHex(text, offset, 8);
+        long mid = parseHex(text, offset + 9, 4);
+        long low = parseHex(text, offset + 14, 4);
+        long sequence = parseHex(text, offset + 19, 4);
+        long node = parseHex(text, offset + 24, 12);
+        if ((high | mid | low | sequence | node) < 0) {
+            return false;
+        }
+        consumer.accept(high << 32 | mid << 16 | low, sequence << 48 | node);
+        return true;
+    }
+
+    /**
+     * Parses any text form of a UUID which {@link UUID#fromString(String)} accepts.
+     *
+     * @param text   The text.
+     * @param parser The parser, for the location of errors.
+     * @return The UUID.
+     * @throws JsonMappingException If the text is not a UUID.
+     */
+    static UUID parseLenient(String text, JsonParser parser) throws JsonMappingException {
+        try {
+            return UUID.fromString(text);
+        } catch (IllegalArgumentException e) {
+            throw new JsonMappingException("Invalid UUID \"" + text + "\"", parser.getCurrentLocation(), e);
+        }
+    }
+
+    /**
+     * Parses hexadecimal digits.
+     *
+     * @return The value, or -1 if a character is not a hexadecimal digit.
+     */
+    private static long parseHex(char[] text, int offset, int digits) {
+        long value = 0;
+        for (int i = offset; i < offset + digits; i++) {
+            int digit = Character.digit(text[i], 16);
+            if (digit < 0) {
+                return -1;
+            }
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+
+    private static void formatHex(long value, char[] buffer, int offset, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            value = value << 8 | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static void writeLong(byte[] bytes, int offset, long value) {
+        for (int i = offset + 7; i >= offset; i--) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+}
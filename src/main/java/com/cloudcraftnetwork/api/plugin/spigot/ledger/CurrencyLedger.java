@@ -0,0 +1,285 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.ledger;
+
+import com.cloudcraftnetwork.api.plugin.spigot.info.CurrencyDeltaInfo;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Accumulates the currency changes made on this server, and turns them into ledger records.
+ * <p>
+ * Changes are added to a per-player accumulator without locking. Every flush drains the accumulators into one
+ * record per player and uploads the records. A record which fails to upload is retried under the same key,
+ * so a record whose upload only appeared to fail is never counted twice.
+ * <p>
+ * Record ids start with the creation time, followed by the id of this ledger and a sequence number,
+ * so they are unique across servers and the records of a player list in roughly chronological order.
+ * <p>
+ * An accumulator is removed by the first flush which finds it empty, so only the players whose currencies changed
+ * recently keep one. A change racing the removal is either drained by that flush or added to a new accumulator.
+ */
+public class CurrencyLedger {
+
+    /**
+     * The accumulated changes of a single player.
+     */
+    private static final class Accumulator {
+
+        private final AtomicLong dewPoints = new AtomicLong();
+
+        /**
+         * The bits of the accumulated FrostPoints, since there is no atomic double.
+         */
+        private final AtomicLong frostPoints = new AtomicLong(Double.doubleToRawLongBits(0));
+
+        /**
+         * The number of changes which are being added.
+         */
+        private final AtomicInteger writers = new AtomicInteger();
+
+        /**
+         * Whether the accumulator was removed, so changes must be added to a new one.
+         */
+        private volatile boolean retired;
+
+        private void addFrostPoints(double delta) {
+            long current;
+            do {
+                current = frostPoints.get();
+            } while (!frostPoints.compareAndSet(
+                    current,
+                    Double.doubleToRawLongBits(Double.longBitsToDouble(current) + delta)
+            ));
+        }
+
+        private double getFrostPoints() {
+            return Double.longBitsToDouble(frostPoints.get());
+        }
+
+        private double drainFrostPoints() {
+            return Double.longBitsToDouble(frostPoints.getAndSet(Double.doubleToRawLongBits(0)));
+        }
+
+        /**
+         * Starts adding a change, unless the accumulator was removed.
+         *
+         * @return true if the change may be added, in which case {@link #end()} must be called afterwards.
+         */
+        private boolean begin() {
+            writers.incrementAndGet();
+            if (retired) {
+                writers.decrementAndGet();
+                return false;
+            }
+            return true;
+        }
+
+        private void end() {
+            writers.decrementAndGet();
+        }
+
+        /**
+         * Rejects further changes, and waits for the changes which are being added.
+         */
+        private void retire() {
+            retired = true;
+            while (writers.get() != 0) {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * The id of this ledger, which keeps the record ids of different servers apart.
+     */
+    private final String ledgerId = UUID.randomUUID().toString().substring(0, 8);
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * The accumulated changes, by player id.
+     */
+    private final Map<UUID, Accumulator> accumulators = new ConcurrentHashMap<>();
+
+    /**
+     * The records which were drained from the accumulators but not uploaded yet, oldest first.
+     */
+    private final Queue<CurrencyDeltaInfo> unflushed = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Lock which keeps two flushes from uploading the same record concurrently.
+     */
+    private final Object flushLock = new Object();
+
+    /**
+     * Adds DewPoints to a player. Use a negative delta to remove DewPoints.
+     *
+     * @param playerId The id of the player.
+     * @param delta    The change.
+     */
+    public void addDewPoints(UUID playerId, long delta) {
+        Accumulator accumulator = beginChange(playerId);
+        try {
+            accumulator.dewPoints.addAndGet(delta);
+        } finally {
+            accumulator.end();
+        }
+    }
+
+    /**
+     * Adds FrostPoints to a player. Use a negative delta to remove FrostPoints.
+     *
+     * @param playerId The id of the player.
+     * @param delta    The change.
+     */
+    public void addFrostPoints(UUID playerId, double delta) {
+        Accumulator accumulator = beginChange(playerId);
+        try {
+            accumulator.addFrostPoints(delta);
+        } finally {
+            accumulator.end();
+        }
+    }
+
+    /**
+     * Returns the DewPoints changes of a player which this server did not upload yet.
+     *
+     * @param playerId The id of the player.
+     * @return The sum of the changes.
+     */
+    public long getPendingDewPoints(UUID playerId) {
+        Accumulator accumulator = accumulators.get(playerId);
+        long pending = accumulator != null ? accumulator.dewPoints.get() : 0;
+        for (CurrencyDeltaInfo record : unflushed) {
+            if (record.getPlayerId().equals(playerId)) {
+                pending += record.getDewPoints();
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Returns the FrostPoints changes of a player which this server did not upload yet.
+     *
+     * @param playerId The id of the player.
+     * @return The sum of the changes.
+     */
+    public double getPendingFrostPoints(UUID playerId) {
+        Accumulator accumulator = accumulators.get(playerId);
+        double pending = accumulator != null ? accumulator.getFrostPoints() : 0;
+        for (CurrencyDeltaInfo record : unflushed) {
+            if (record.getPlayerId().equals(playerId)) {
+                pending += record.getFrostPoints();
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Drains every accumulator into a record and uploads every record which is not uploaded yet.
+     * Accumulators which were already empty are removed.
+     *
+     * @param uploader Uploads a record, returning true on success.
+     * @return The number of records which failed to upload and will be retried on the next flush.
+     */
+    public int flush(Predicate<CurrencyDeltaInfo> uploader) {
+        synchronized (flushLock) {
+            for (Map.Entry<UUID, Accumulator> accumulator : accumulators.entrySet()) {
+                if (!drain(accumulator.getKey(), accumulator.getValue())
+                        && accumulators.remove(accumulator.getKey(), accumulator.getValue())) {
+                    // Drain the changes which were added while the accumulator was being removed
+                    accumulator.getValue().retire();
+                    drain(accumulator.getKey(), accumulator.getValue());
+                }
+            }
+
+            int failures = 0;
+            Iterator<CurrencyDeltaInfo> records = unflushed.iterator();
+            while (records.hasNext()) {
+                if (uploader.test(records.next())) {
+                    records.remove();
+                } else {
+                    failures++;
+                }
+            }
+            return failures;
+        }
+    }
+
+    /**
+     * Returns the number of records which were not uploaded yet.
+     *
+     * @return The number of records.
+     */
+    public int getUnflushedRecords() {
+        return unflushed.size();
+    }
+
+    /**
+     * Returns the accumulator of a player to add a change to, creating a new one if the current one was removed.
+     *
+     * @param playerId The id of the player.
+     * @return The accumulator, on which {@link Accumulator#end()} must be called once the change is added.
+     */
+    private Accumulator beginChange(UUID playerId) {
+        while (true) {
+            Accumulator accumulator = accumulators.computeIfAbsent(playerId, id -> new Accumulator());
+            if (accumulator.begin()) {
+                return accumulator;
+            }
+        }
+    }
+
+    /**
+     * Drains an accumulator into a record which is uploaded by the flush.
+     *
+     * @param playerId    The id of the player.
+     * @param accumulator The accumulator of the player.
+     * @return true if the accumulator held a change.
+     */
+    private boolean drain(UUID playerId, Accumulator accumulator) {
+        long dewPoints = accumulator.dewPoints.getAndSet(0);
+        double frostPoints = accumulator.drainFrostPoints();
+        if (dewPoints == 0 && frostPoints == 0) {
+            return false;
+        }
+        unflushed.add(new CurrencyDeltaInfo(playerId, nextRecordId(), dewPoints, frostPoints));
+        return true;
+    }
+
+    private String nextRecordId() {
+        return String.format("%013d-%s-%d", System.currentTimeMillis(), ledgerId, sequence.incrementAndGet());
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.ledger;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The settings of the currency ledger.
+ */
+public class LedgerSettings {
+
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    public static final boolean DEFAULT_COMPACTION_ENABLED = false;
+    public static final long DEFAULT_COMPACTION_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * The time between two uploads of the changes accumulated by this server.
+     */
+    private final long flushIntervalMillis;
+
+    /**
+     * Whether this server compacts the ledger. Exactly one server of the network should.
+     */
+    private final boolean compactionEnabled;
+
+    /**
+     * The time between two compactions of the ledger.
+     */
+    private final long compactionIntervalMillis;
+
+    public LedgerSettings(long flushIntervalMillis, boolean compactionEnabled, long compactionIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.compactionEnabled = compactionEnabled;
+        this.compactionIntervalMillis = compactionIntervalMillis;
+    }
+
+    /**
+     * Reads ledger settings from a configuration section.
+     * Missing values, or a missing section, fall back to the defaults.
+     *
+     * @param section The configuration section, may be null.
+     * @return The ledger settings.
+     */
+    public static LedgerSettings fromConfig(ConfigurationSection section) {
+        if (section == null) {
+            return new LedgerSettings(
+                    DEFAULT_FLUSH_INTERVAL_MILLIS,
+                    DEFAULT_COMPACTION_ENABLED,
+                    DEFAULT_COMPACTION_INTERVAL_MILLIS
+            );
+        }
+        return new LedgerSettings(
+                section.getLong("flush-interval-millis", DEFAULT_FLUSH_INTERVAL_MILLIS),
+                section.getBoolean("compaction.enabled", DEFAULT_COMPACTION_ENABLED),
+                section.getLong("compaction.interval-millis", DEFAULT_COMPACTION_INTERVAL_MILLIS)
+        );
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public boolean isCompactionEnabled() {
+        return compactionEnabled;
+    }
+
+    public long getCompactionIntervalMillis() {
+        return compactionIntervalMillis;
+    }
+}
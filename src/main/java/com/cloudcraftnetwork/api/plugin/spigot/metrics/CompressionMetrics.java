@@ -0,0 +1,100 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The compression metrics of the objects stored in a single bucket.
+ */
+public class CompressionMetrics implements CompressionMetricsMXBean {
+
+    /**
+     * The objects stored, compressed or not.
+     */
+    private final LongAdder objects = new LongAdder();
+
+    /**
+     * The objects stored compressed.
+     */
+    private final LongAdder compressedObjects = new LongAdder();
+
+    /**
+     * The serialized size of every stored object, before compression.
+     */
+    private final LongAdder rawBytes = new LongAdder();
+
+    /**
+     * The size of every stored object, after compression.
+     */
+    private final LongAdder storedBytes = new LongAdder();
+
+    /**
+     * Records a stored object.
+     *
+     * @param rawBytes    The serialized size of the object, before compression.
+     * @param storedBytes The stored size of the object, which equals the raw size if it was not compressed.
+     */
+    public void record(long rawBytes, long storedBytes) {
+        objects.increment();
+        if (storedBytes != rawBytes) {
+            compressedObjects.increment();
+        }
+        this.rawBytes.add(rawBytes);
+        this.storedBytes.add(storedBytes);
+    }
+
+    @Override
+    public long getObjects() {
+        return objects.sum();
+    }
+
+    @Override
+    public long getCompressedObjects() {
+        return compressedObjects.sum();
+    }
+
+    @Override
+    public long getRawBytes() {
+        return rawBytes.sum();
+    }
+
+    @Override
+    public long getStoredBytes() {
+        return storedBytes.sum();
+    }
+
+    /**
+     * Returns the ratio of stored to raw bytes over every stored object.
+     *
+     * @return The ratio, 1 if nothing was compressed, lower is better.
+     */
+    @Override
+    public double getRatio() {
+        long raw = getRawBytes();
+        return raw == 0 ? 1 : (double) getStoredBytes() / raw;
+    }
+}
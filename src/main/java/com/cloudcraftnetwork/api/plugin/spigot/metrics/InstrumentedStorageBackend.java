@@ -0,0 +1,142 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.metrics;
+
+import com.cloudcraftnetwork.api.plugin.spigot.metrics.StorageMetrics.Operation;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.KeyPage;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.StorageBackend;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.StorageException;
+import com.cloudcraftnetwork.api.plugin.spigot.storage.StoredObject;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A storage backend which records the latency, transferred bytes, errors and main thread calls
+ * of every call to another backend.
+ * <p>
+ * The latency of a get covers the request only, not reading its content.
+ */
+public class InstrumentedStorageBackend implements StorageBackend {
+
+    private final StorageBackend delegate;
+    private final StorageMetrics metrics;
+
+    /**
+     * Tells whether the current thread is the main server thread.
+     */
+    private final BooleanSupplier mainThread;
+
+    public InstrumentedStorageBackend(StorageBackend delegate, StorageMetrics metrics, BooleanSupplier mainThread) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.mainThread = mainThread;
+    }
+
+    @Override
+    public Optional<StoredObject> get(String bucketName, String key, String eTag) throws StorageException {
+        OperationMetrics operation = metrics.get(bucketName, Operation.GET);
+        boolean onMainThread = mainThread.getAsBoolean();
+        long start = System.nanoTime();
+        try {
+            Optional<StoredObject> object = delegate.get(bucketName, key, eTag);
+            long bytes = object.isPresent() && object.get().isModified() ? object.get().getContentLength() : 0;
+            operation.record(System.nanoTime() - start, bytes, onMainThread);
+            return object;
+        } catch (StorageException | RuntimeException e) {
+            operation.recordError(System.nanoTime() - start, e, onMainThread);
+            throw e;
+        }
+    }
+
+    @Override
+    public String put(String bucketName, String key, StoredObject object) throws StorageException {
+        OperationMetrics operation = metrics.get(bucketName, Operation.PUT);
+        boolean onMainThread = mainThread.getAsBoolean();
+        long start = System.nanoTime();
+        try {
+            String eTag = delegate.put(bucketName, key, object);
+            operation.record(System.nanoTime() - start, object.getContentLength(), onMainThread);
+            return eTag;
+        } catch (StorageException | RuntimeException e) {
+            operation.recordError(System.nanoTime() - start, e, onMainThread);
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(String bucketName, String key) throws StorageException {
+        OperationMetrics operation = metrics.get(bucketName, Operation.DELETE);
+        boolean onMainThread = mainThread.getAsBoolean();
+        long start = System.nanoTime();
+        try {
+            delegate.delete(bucketName, key);
+            operation.record(System.nanoTime() - start, 0, onMainThread);
+        } catch (StorageException | RuntimeException e) {
+            operation.recordError(System.nanoTime() - start, e, onMainThread);
+            throw e;
+        }
+    }
+
+    /**
+     * Records a batch delete as a single call, which counts as an error if any key could not be deleted.
+     */
+    @Override
+    public Map<String, StorageException> deleteAll(String bucketName, Collection<String> keys) {
+        OperationMetrics operation = metrics.get(bucketName, Operation.DELETE_ALL);
+        boolean onMainThread = mainThread.getAsBoolean();
+        long start = System.nanoTime();
+        try {
+            Map<String, StorageException> failures = delegate.deleteAll(bucketName, keys);
+            if (failures.isEmpty()) {
+                operation.record(System.nanoTime() - start, 0, onMainThread);
+            } else {
+                operation.recordError(System.nanoTime() - start, failures.values().iterator().next(), onMainThread);
+            }
+            return failures;
+        } catch (RuntimeException e) {
+            operation.recordError(System.nanoTime() - start, e, onMainThread);
+            throw e;
+        }
+    }
+
+    @Override
+    public KeyPage list(String bucketName, String prefix, String delimiter, String marker) throws StorageException {
+        OperationMetrics operation = metrics.get(bucketName, Operation.LIST);
+        boolean onMainThread = mainThread.getAsBoolean();
+        long start = System.nanoTime();
+        try {
+            KeyPage page = delegate.list(bucketName, prefix, delimiter, marker);
+            operation.record(System.nanoTime() - start, 0, onMainThread);
+            return page;
+        } catch (StorageException | RuntimeException e) {
+            operation.recordError(System.nanoTime() - start, e, onMainThread);
+            throw e;
+        }
+    }
+}
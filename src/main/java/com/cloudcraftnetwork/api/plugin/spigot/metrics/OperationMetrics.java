@@ -0,0 +1,140 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of a single storage operation on a single bucket.
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    /**
+     * The calls made from the main server thread, which stalled the server for their whole latency.
+     */
+    private final LongAdder mainThreadCalls = new LongAdder();
+
+    /**
+     * The bytes transferred to or from the backend.
+     */
+    private final LongAdder bytes = new LongAdder();
+
+    /**
+     * The failed calls, by simple name of the exception type.
+     */
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    /**
+     * Records a completed call.
+     *
+     * @param durationNanos The latency of the call, in nanoseconds.
+     * @param bytes         The bytes transferred by the call.
+     * @param mainThread    Whether the call was made from the main server thread.
+     */
+    public void record(long durationNanos, long bytes, boolean mainThread) {
+        latencies.record(durationNanos, TimeUnit.NANOSECONDS);
+        if (bytes > 0) {
+            this.bytes.add(bytes);
+        }
+        if (mainThread) {
+            mainThreadCalls.increment();
+        }
+    }
+
+    /**
+     * Records a failed call.
+     *
+     * @param durationNanos The latency of the call, in nanoseconds.
+     * @param error         The cause of the failure. If it wraps another exception, the wrapped type is counted.
+     * @param mainThread    Whether the call was made from the main server thread.
+     */
+    public void recordError(long durationNanos, Throwable error, boolean mainThread) {
+        record(durationNanos, 0, mainThread);
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        errors.computeIfAbsent(cause.getClass().getSimpleName(), type -> new LongAdder()).increment();
+    }
+
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    @Override
+    public long getCalls() {
+        return latencies.getCount();
+    }
+
+    @Override
+    public long getMainThreadCalls() {
+        return mainThreadCalls.sum();
+    }
+
+    @Override
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        long total = 0;
+        for (LongAdder count : errors.values()) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public Map<String, Long> getErrorsByType() {
+        Map<String, Long> errorsByType = new TreeMap<>();
+        errors.forEach((type, count) -> errorsByType.put(type, count.sum()));
+        return errorsByType;
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latencies.getMeanMicros();
+    }
+
+    @Override
+    public long getP50Micros() {
+        return latencies.getPercentileMicros(50);
+    }
+
+    @Override
+    public long getP99Micros() {
+        return latencies.getPercentileMicros(99);
+    }
+
+    @Override
+    public long getP999Micros() {
+        return latencies.getPercentileMicros(99.9);
+    }
+}
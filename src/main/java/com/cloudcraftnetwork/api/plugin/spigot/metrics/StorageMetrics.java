@@ -0,0 +1,189 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * The metrics of every storage operation, by bucket.
+ * <p>
+ * The metrics of every bucket and operation are registered as an MXBean named
+ * "com.cloudcraftnetwork:type=StorageMetrics,plugin=&lt;plugin&gt;,bucket=&lt;bucket&gt;,operation=&lt;operation&gt;".
+ * The compression metrics of every bucket which stored objects are registered as
+ * "com.cloudcraftnetwork:type=CompressionMetrics,plugin=&lt;plugin&gt;,bucket=&lt;bucket&gt;".
+ */
+public class StorageMetrics {
+
+    /**
+     * The operations of a storage backend.
+     */
+    public enum Operation {
+        GET, PUT, DELETE, DELETE_ALL, LIST
+    }
+
+    private final String pluginName;
+    private final Logger logger;
+    private final Map<String, Map<Operation, OperationMetrics>> buckets = new ConcurrentHashMap<>();
+    private final Map<String, CompressionMetrics> compression = new ConcurrentHashMap<>();
+
+    public StorageMetrics(String pluginName, Logger logger) {
+        this.pluginName = pluginName;
+        this.logger = logger;
+    }
+
+    /**
+     * Returns the metrics of an operation on a bucket, creating and registering them if necessary.
+     *
+     * @param bucketName The name of the bucket.
+     * @param operation  The operation.
+     * @return The metrics.
+     */
+    public OperationMetrics get(String bucketName, Operation operation) {
+        return buckets.computeIfAbsent(bucketName, this::register).get(operation);
+    }
+
+    /**
+     * Returns the compression metrics of a bucket, creating and registering them if necessary.
+     *
+     * @param bucketName The name of the bucket.
+     * @return The compression metrics.
+     */
+    public CompressionMetrics getCompression(String bucketName) {
+        return compression.computeIfAbsent(bucketName, name -> {
+            CompressionMetrics metrics = new CompressionMetrics();
+            try {
+                register(metrics, compressionNameOf(name));
+            } catch (JMException e) {
+                logger.warning("Unable to register compression metrics: " + e);
+            }
+            return metrics;
+        });
+    }
+
+    /**
+     * Returns the compression metrics of every bucket which stored objects.
+     *
+     * @return The compression metrics, by bucket name, sorted by bucket name.
+     */
+    public Map<String, CompressionMetrics> getAllCompression() {
+        return Collections.unmodifiableMap(new TreeMap<>(compression));
+    }
+
+    /**
+     * Returns the metrics of every bucket which has been used.
+     *
+     * @return The metrics of every operation, by bucket name, sorted by bucket name.
+     */
+    public Map<String, Map<Operation, OperationMetrics>> getAll() {
+        return Collections.unmodifiableMap(new TreeMap<>(buckets));
+    }
+
+    /**
+     * Unregisters every MXBean.
+     */
+    public void unregister() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (String bucketName : buckets.keySet()) {
+            for (Operation operation : Operation.values()) {
+                try {
+                    ObjectName name = nameOf(bucketName, operation);
+                    if (server.isRegistered(name)) {
+                        server.unregisterMBean(name);
+                    }
+                } catch (JMException e) {
+                    logger.warning("Unable to unregister storage metrics: " + e);
+                }
+            }
+        }
+        for (String bucketName : compression.keySet()) {
+            try {
+                ObjectName name = compressionNameOf(bucketName);
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            } catch (JMException e) {
+                logger.warning("Unable to unregister compression metrics: " + e);
+            }
+        }
+    }
+
+    /**
+     * Creates the metrics of every operation of a bucket and registers them as MXBeans.
+     *
+     * @param bucketName The name of the bucket.
+     * @return The metrics, by operation.
+     */
+    private Map<Operation, OperationMetrics> register(String bucketName) {
+        Map<Operation, OperationMetrics> operations = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            OperationMetrics metrics = new OperationMetrics();
+            operations.put(operation, metrics);
+            try {
+                register(metrics, nameOf(bucketName, operation));
+            } catch (JMException e) {
+                logger.warning("Unable to register storage metrics: " + e);
+            }
+        }
+        return operations;
+    }
+
+    /**
+     * Registers an MXBean, replacing any MXBean registered under the same name.
+     *
+     * @param mxBean The MXBean.
+     * @param name   The name.
+     * @throws JMException If the MXBean cannot be registered.
+     */
+    private void register(Object mxBean, ObjectName name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+        server.registerMBean(mxBean, name);
+    }
+
+    private ObjectName compressionNameOf(String bucketName) throws JMException {
+        return new ObjectName("com.cloudcraftnetwork:type=CompressionMetrics"
+                + ",plugin=" + ObjectName.quote(pluginName)
+                + ",bucket=" + ObjectName.quote(bucketName));
+    }
+
+    private ObjectName nameOf(String bucketName, Operation operation) throws JMException {
+        return new ObjectName("com.cloudcraftnetwork:type=StorageMetrics"
+                + ",plugin=" + ObjectName.quote(pluginName)
+                + ",bucket=" + ObjectName.quote(bucketName)
+                + ",operation=" + operation.name().toLowerCase());
+    }
+}
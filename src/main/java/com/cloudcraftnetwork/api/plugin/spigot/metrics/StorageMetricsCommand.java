@@ -0,0 +1,95 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.metrics;
+
+import com.cloudcraftnetwork.api.plugin.spigot.metrics.StorageMetrics.Operation;
+import org.bukkit.ChatColor;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+
+import java.util.Map;
+
+/**
+ * Prints the storage metrics of a plugin.
+ * Usage: /&lt;command&gt; [bucket filter]
+ * <p>
+ * The metrics reveal the buckets and traffic of the network, so the command requires the {@link #PERMISSION}
+ * permission, which Bukkit grants to the console and to operators unless a permissions plugin says otherwise.
+ */
+public class StorageMetricsCommand implements CommandExecutor {
+
+    public static final String PERMISSION = "cloudcraft.storage.metrics";
+
+    private final StorageMetrics metrics;
+
+    public StorageMetricsCommand(StorageMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!sender.hasPermission(PERMISSION)) {
+            sender.sendMessage(ChatColor.RED + "You do not have permission to view the storage metrics.");
+            return true;
+        }
+        String filter = args.length > 0 ? args[0] : "";
+        boolean found = false;
+        for (Map.Entry<String, Map<Operation, OperationMetrics>> bucket : metrics.getAll().entrySet()) {
+            if (!bucket.getKey().contains(filter)) {
+                continue;
+            }
+            found = true;
+            sender.sendMessage(ChatColor.GOLD + bucket.getKey());
+            for (Map.Entry<Operation, OperationMetrics> operation : bucket.getValue().entrySet()) {
+                OperationMetrics value = operation.getValue();
+                if (value.getCalls() == 0) {
+                    continue;
+                }
+                sender.sendMessage(ChatColor.YELLOW + "  " + operation.getKey() + ChatColor.GRAY
+                        + " calls=" + value.getCalls()
+                        + " main=" + value.getMainThreadCalls()
+                        + " p50=" + value.getP50Micros() + "us"
+                        + " p99=" + value.getP99Micros() + "us"
+                        + " p999=" + value.getP999Micros() + "us"
+                        + " bytes=" + value.getBytes()
+                        + (value.getErrors() > 0 ? ChatColor.RED + " errors=" + value.getErrorsByType() : ""));
+            }
+            CompressionMetrics compression = metrics.getAllCompression().get(bucket.getKey());
+            if (compression != null && compression.getCompressedObjects() > 0) {
+                sender.sendMessage(ChatColor.YELLOW + "  COMPRESSION" + ChatColor.GRAY
+                        + " compressed=" + compression.getCompressedObjects() + "/" + compression.getObjects()
+                        + " raw=" + compression.getRawBytes()
+                        + " stored=" + compression.getStoredBytes()
+                        + " ratio=" + String.format("%.2f", compression.getRatio()));
+            }
+        }
+        if (!found) {
+            sender.sendMessage(ChatColor.GRAY + "No storage calls recorded.");
+        }
+        return true;
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.server;
+
+import com.cloudcraftnetwork.api.plugin.spigot.info.ServerInfo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * An in-memory directory of the live servers of the network, indexed by type.
+ * <p>
+ * The directory holds an immutable snapshot which is replaced as a whole, so lookups never lock and never touch
+ * the storage backend. Servers whose heartbeat expired are dropped from the snapshot on the first lookup after
+ * their expiry, without waiting for the next refresh.
+ */
+public class ServerDirectory {
+
+    /**
+     * An immutable view of the directory.
+     */
+    private static final class Snapshot {
+
+        private static final Snapshot EMPTY = new Snapshot(Collections.emptyMap(), 0, 0);
+
+        /**
+         * The servers, by key, sorted by key.
+         */
+        private final Map<String, ServerInfo> byKey;
+
+        /**
+         * The servers, by type. The servers of a type are sorted by key.
+         */
+        private final Map<String, List<ServerInfo>> byType;
+
+        /**
+         * The earliest expiry of the servers, or Long.MAX_VALUE if no server expires.
+         */
+        private final long nextExpiry;
+
+        /**
+         * The time of the last complete refresh, or 0 if the directory was never refreshed.
+         */
+        private final long refreshedAt;
+
+        private Snapshot(Map<String, ServerInfo> servers, long now, long refreshedAt) {
+            Map<String, ServerInfo> byKey = new TreeMap<>();
+            Map<String, List<ServerInfo>> byType = new HashMap<>();
+            long nextExpiry = Long.MAX_VALUE;
+            for (Map.Entry<String, ServerInfo> server : servers.entrySet()) {
+                ServerInfo info = server.getValue();
+                if (info.isExpired(now)) {
+                    continue;
+                }
+                byKey.put(server.getKey(), info);
+                if (info.getExpiresAt() > 0) {
+                    nextExpiry = Math.min(nextExpiry, info.getExpiresAt());
+                }
+            }
+            for (ServerInfo info : byKey.values()) {
+                byType.computeIfAbsent(info.getType(), type -> new ArrayList<>()).add(info);
+            }
+            for (Map.Entry<String, List<ServerInfo>> type : byType.entrySet()) {
+                type.setValue(Collections.unmodifiableList(type.getValue()));
+            }
+            this.byKey = Collections.unmodifiableMap(byKey);
+            this.byType = Collections.unmodifiableMap(byType);
+            this.nextExpiry = nextExpiry;
+            this.refreshedAt = refreshedAt;
+        }
+    }
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+    /**
+     * The clock the expiry of servers is compared to, in milliseconds since the epoch.
+     */
+    private final LongSupplier clock;
+
+    public ServerDirectory() {
+        this(System::currentTimeMillis);
+    }
+
+    public ServerDirectory(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the live servers of a type.
+     *
+     * @param type The type of the servers.
+     * @return The servers, sorted by key. Empty if there is no live server of the type.
+     */
+    public List<ServerInfo> getServers(String type) {
+        List<ServerInfo> servers = current().byType.get(type);
+        return servers != null ? servers : Collections.emptyList();
+    }
+
+    /**
+     * Returns a live server.
+     *
+     * @param serverKey The key of the server.
+     * @return The server, or an empty Optional if the server is unknown or dead.
+     */
+    public Optional<ServerInfo> getServer(String serverKey) {
+        return Optional.ofNullable(current().byKey.get(serverKey));
+    }
+
+    /**
+     * Returns every live server.
+     *
+     * @return The servers, sorted by key.
+     */
+    public Collection<ServerInfo> getAll() {
+        return current().byKey.values();
+    }
+
+    /**
+     * Returns the types of the live servers.
+     *
+     * @return The types.
+     */
+    public Set<String> getTypes() {
+        return current().byType.keySet();
+    }
+
+    /**
+     * Returns the time of the last complete refresh.
+     *
+     * @return The time in milliseconds since the epoch, or 0 if the directory was never refreshed.
+     */
+    public long getRefreshedAt() {
+        return snapshot.get().refreshedAt;
+    }
+
+    /**
+     * Replaces every server of the directory after a complete reload.
+     *
+     * @param servers The servers, by key.
+     */
+    public void replace(Map<String, ServerInfo> servers) {
+        long now = clock.getAsLong();
+        snapshot.set(new Snapshot(servers, now, now));
+    }
+
+    /**
+     * Adds or replaces a single server, for example after this server published its own heartbeat.
+     *
+     * @param serverInfo The server.
+     */
+    public void update(ServerInfo serverInfo) {
+        Snapshot current;
+        Snapshot updated;
+        do {
+            current = snapshot.get();
+            Map<String, ServerInfo> servers = new HashMap<>(current.byKey);
+            servers.put(serverInfo.createKey(), serverInfo);
+            updated = new Snapshot(servers, clock.getAsLong(), current.refreshedAt);
+        } while (!snapshot.compareAndSet(current, updated));
+    }
+
+    /**
+     * Removes a single server, for example after this server stopped.
+     *
+     * @param serverKey The key of the server.
+     */
+    public void remove(String serverKey) {
+        Snapshot current;
+        Snapshot updated;
+        do {
+            current = snapshot.get();
+            if (!current.byKey.containsKey(serverKey)) {
+                return;
+            }
+            Map<String, ServerInfo> servers = new HashMap<>(current.byKey);
+            servers.remove(serverKey);
+            updated = new Snapshot(servers, clock.getAsLong(), current.refreshedAt);
+        } while (!snapshot.compareAndSet(current, updated));
+    }
+
+    /**
+     * Returns the current snapshot, first dropping the servers which expired since it was built.
+     *
+     * @return The current snapshot.
+     */
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        long now = clock.getAsLong();
+        if (now < current.nextExpiry) {
+            return current;
+        }
+        Snapshot pruned = new Snapshot(current.byKey, now, current.refreshedAt);
+        snapshot.compareAndSet(current, pruned);
+        return pruned;
+    }
+}
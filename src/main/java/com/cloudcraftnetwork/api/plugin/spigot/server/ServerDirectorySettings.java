@@ -0,0 +1,112 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.server;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The settings of the server directory and of the heartbeats servers publish to it.
+ */
+public class ServerDirectorySettings {
+
+    public static final long DEFAULT_REFRESH_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    public static final long DEFAULT_HEARTBEAT_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    public static final long DEFAULT_PURGE_AFTER_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * The time between two reloads of every server of the directory.
+     */
+    private final long refreshIntervalMillis;
+
+    /**
+     * The time between two heartbeats of this server.
+     */
+    private final long heartbeatIntervalMillis;
+
+    /**
+     * The time after its last heartbeat from which a server is considered dead.
+     * Should be a few heartbeat intervals, so a single late heartbeat does not drop a server.
+     */
+    private final long ttlMillis;
+
+    /**
+     * The time after its expiry from which a server which stopped without deleting itself, such as a crashed
+     * server, is deleted from storage by the next refresh. 0 or less to never delete expired servers.
+     * Should be much longer than the TTL, so a server which merely stalled is not deleted.
+     */
+    private final long purgeAfterMillis;
+
+    public ServerDirectorySettings(long refreshIntervalMillis, long heartbeatIntervalMillis, long ttlMillis,
+                                   long purgeAfterMillis) {
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+        this.ttlMillis = ttlMillis;
+        this.purgeAfterMillis = purgeAfterMillis;
+    }
+
+    /**
+     * Reads server directory settings from a configuration section.
+     * Missing values, or a missing section, fall back to the defaults.
+     *
+     * @param section The configuration section, may be null.
+     * @return The server directory settings.
+     */
+    public static ServerDirectorySettings fromConfig(ConfigurationSection section) {
+        if (section == null) {
+            return new ServerDirectorySettings(
+                    DEFAULT_REFRESH_INTERVAL_MILLIS,
+                    DEFAULT_HEARTBEAT_INTERVAL_MILLIS,
+                    DEFAULT_TTL_MILLIS,
+                    DEFAULT_PURGE_AFTER_MILLIS
+            );
+        }
+        return new ServerDirectorySettings(
+                section.getLong("refresh-interval-millis", DEFAULT_REFRESH_INTERVAL_MILLIS),
+                section.getLong("heartbeat-interval-millis", DEFAULT_HEARTBEAT_INTERVAL_MILLIS),
+                section.getLong("ttl-millis", DEFAULT_TTL_MILLIS),
+                section.getLong("purge-after-millis", DEFAULT_PURGE_AFTER_MILLIS)
+        );
+    }
+
+    public long getRefreshIntervalMillis() {
+        return refreshIntervalMillis;
+    }
+
+    public long getHeartbeatIntervalMillis() {
+        return heartbeatIntervalMillis;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    public long getPurgeAfterMillis() {
+        return purgeAfterMillis;
+    }
+}
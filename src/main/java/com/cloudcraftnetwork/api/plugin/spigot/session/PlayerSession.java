@@ -0,0 +1,227 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.session;
+
+import com.cloudcraftnetwork.api.plugin.spigot.AbstractSpigotCloudCraftNetworkPlugin.Bucket;
+import com.cloudcraftnetwork.api.plugin.spigot.info.CloudCraftNetworkInfo;
+import com.cloudcraftnetwork.api.plugin.spigot.info.CostumeInfo;
+import com.cloudcraftnetwork.api.plugin.spigot.info.PetInfo;
+import com.cloudcraftnetwork.api.plugin.spigot.info.PrivatePlayerInfo;
+import com.cloudcraftnetwork.api.plugin.spigot.info.PublicPlayerInfo;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The data of an online player, loaded when the player logged in and pinned in memory until the player quits.
+ * A session holds at most one object per bucket, along with the ETag it was stored with, if known, and the time it
+ * was last known to be current.
+ */
+public class PlayerSession {
+
+    /**
+     * A pinned object.
+     */
+    public static final class Pin {
+
+        private final CloudCraftNetworkInfo value;
+
+        /**
+         * The ETag of the object in S3, or null if it is not known, such as for an object which was just put.
+         */
+        private final String eTag;
+
+        /**
+         * The time (since epoch) at which the object was last known to be current.
+         */
+        private volatile long validatedAt;
+
+        private Pin(CloudCraftNetworkInfo value, String eTag, long validatedAt) {
+            this.value = value;
+            this.eTag = eTag;
+            this.validatedAt = validatedAt;
+        }
+
+        public CloudCraftNetworkInfo getValue() {
+            return value;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        public long getValidatedAt() {
+            return validatedAt;
+        }
+    }
+
+    /**
+     * The id of the player.
+     */
+    private final UUID playerId;
+
+    /**
+     * The time the session was loaded, in milliseconds since the epoch.
+     */
+    private final long loadedAt;
+
+    /**
+     * The objects of the player, by bucket name.
+     */
+    private final Map<String, Pin> pins = new ConcurrentHashMap<>();
+
+    public PlayerSession(UUID playerId, Map<String, ? extends CloudCraftNetworkInfo> objects) {
+        this.playerId = playerId;
+        this.loadedAt = System.currentTimeMillis();
+        for (Map.Entry<String, ? extends CloudCraftNetworkInfo> object : objects.entrySet()) {
+            pins.put(object.getKey(), new Pin(object.getValue(), null, loadedAt));
+        }
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    public Optional<PublicPlayerInfo> getPublicInfo() {
+        return get(Bucket.PUBLIC_PLAYERS, PublicPlayerInfo.class);
+    }
+
+    public Optional<PrivatePlayerInfo> getPrivateInfo() {
+        return get(Bucket.PRIVATE_PLAYERS, PrivatePlayerInfo.class);
+    }
+
+    public Optional<PetInfo> getPet() {
+        return get(Bucket.PETS, PetInfo.class);
+    }
+
+    public Optional<CostumeInfo> getCostume() {
+        return get(Bucket.COSTUMES, CostumeInfo.class);
+    }
+
+    /**
+     * Returns the object of the session from a bucket.
+     *
+     * @param bucketName The name of the bucket.
+     * @param infoClass  The class of the object.
+     * @param <T>        The type of the object.
+     * @return The object, or an empty Optional if the session holds no object of the class from the bucket.
+     */
+    public <T extends CloudCraftNetworkInfo> Optional<T> get(String bucketName, Class<T> infoClass) {
+        Pin pin = pins.get(bucketName);
+        return pin != null && infoClass.isInstance(pin.value)
+                ? Optional.of(infoClass.cast(pin.value))
+                : Optional.empty();
+    }
+
+    /**
+     * Returns the pinned object of the session from a bucket, along with its ETag and validation time.
+     *
+     * @param bucketName The name of the bucket.
+     * @return The pin, or null if the session holds no object from the bucket.
+     */
+    public Pin getPin(String bucketName) {
+        return pins.get(bucketName);
+    }
+
+    /**
+     * Returns every object of the session.
+     *
+     * @return A copy of the objects, by bucket name.
+     */
+    public Map<String, CloudCraftNetworkInfo> getObjects() {
+        Map<String, CloudCraftNetworkInfo> objects = new HashMap<>();
+        for (Map.Entry<String, Pin> pin : pins.entrySet()) {
+            objects.put(pin.getKey(), pin.getValue().value);
+        }
+        return Collections.unmodifiableMap(objects);
+    }
+
+    /**
+     * Replaces the object of the session from a bucket.
+     *
+     * @param bucketName The name of the bucket.
+     * @param object     The new object, or null to remove the object.
+     * @param eTag       The ETag of the new object, or null if it is not known.
+     */
+    synchronized void set(String bucketName, CloudCraftNetworkInfo object, String eTag) {
+        if (object != null) {
+            pins.put(bucketName, new Pin(object, eTag, System.currentTimeMillis()));
+        } else {
+            pins.remove(bucketName);
+        }
+    }
+
+    /**
+     * Makes the session share the pin of another session which holds the same object.
+     *
+     * @param bucketName The name of the bucket.
+     * @param pin        The pin of the other session.
+     */
+    synchronized void adopt(String bucketName, Pin pin) {
+        pins.put(bucketName, pin);
+    }
+
+    /**
+     * Replaces the object of the session from a bucket, unless it was replaced since it was read.
+     *
+     * @param bucketName The name of the bucket.
+     * @param expected   The object which was read.
+     * @param object     The new object, or null to remove the object.
+     * @param eTag       The ETag of the new object, or null if it is not known.
+     * @return true if the object was replaced.
+     */
+    synchronized boolean replace(String bucketName, CloudCraftNetworkInfo expected, CloudCraftNetworkInfo object,
+                                 String eTag) {
+        Pin pin = pins.get(bucketName);
+        if (pin == null || pin.value != expected) {
+            return false;
+        }
+        set(bucketName, object, eTag);
+        return true;
+    }
+
+    /**
+     * Marks the object of the session from a bucket as current after S3 confirmed that its ETag still matches,
+     * unless it was replaced since it was read.
+     *
+     * @param bucketName The name of the bucket.
+     * @param expected   The object which was revalidated.
+     */
+    void revalidated(String bucketName, CloudCraftNetworkInfo expected) {
+        Pin pin = pins.get(bucketName);
+        if (pin != null && pin.value == expected) {
+            pin.validatedAt = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.session;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Opens the session of a player while the player logs in, and closes it when the player quits.
+ * <p>
+ * The data of the player is requested as soon as the pre-login event fires, so it loads while other plugins
+ * handle the event, and the login only waits for it once every other plugin is done. Since the pre-login event
+ * is fired off the main thread, the player is never in the world before the session is open.
+ */
+public class PlayerSessionListener implements Listener {
+
+    private final Consumer<PlayerSession> opener;
+    private final Function<UUID, CompletableFuture<PlayerSession>> loader;
+    private final Consumer<UUID> closer;
+    private final Consumer<UUID> discarder;
+    private final long timeoutMillis;
+    private final Logger logger;
+
+    /**
+     * The sessions which are still loading, by player id.
+     */
+    private final Map<UUID, CompletableFuture<PlayerSession>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * @param opener        Opens the session of a player.
+     * @param loader        Loads the session of a player.
+     * @param closer        Closes the session of a player.
+     * @param discarder     Forgets the session of a player which was loaded but is never opened.
+     * @param timeoutMillis The longest time a login waits for the session of the player.
+     * @param logger        The logger which receives failed loads.
+     */
+    public PlayerSessionListener(Consumer<PlayerSession> opener,
+                                 Function<UUID, CompletableFuture<PlayerSession>> loader,
+                                 Consumer<UUID> closer, Consumer<UUID> discarder, long timeoutMillis,
+                                 Logger logger) {
+        this.opener = opener;
+        this.loader = loader;
+        this.closer = closer;
+        this.discarder = discarder;
+        this.timeoutMillis = timeoutMillis;
+        this.logger = logger;
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPreLoginStart(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            pending.put(event.getUniqueId(), loader.apply(event.getUniqueId()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLoginComplete(AsyncPlayerPreLoginEvent event) {
+        CompletableFuture<PlayerSession> session = pending.remove(event.getUniqueId());
+        if (session == null) {
+            return;
+        }
+        // A player refused at pre-login never fires the login event, so the session must be discarded here
+        boolean opened = false;
+        try {
+            if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+                opener.accept(session.get(timeoutMillis, TimeUnit.MILLISECONDS));
+                opened = true;
+            }
+        } catch (TimeoutException e) {
+            logger.warning("Timed out loading the data of player " + event.getUniqueId() + ".");
+        } catch (ExecutionException e) {
+            logger.warning(e.getCause().toString());
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (!opened) {
+                session.cancel(false);
+                discarder.accept(event.getUniqueId());
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLogin(PlayerLoginEvent event) {
+        // A player refused after the pre-login never joins, so never quits either
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            closer.accept(event.getPlayer().getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        closer.accept(event.getPlayer().getUniqueId());
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.session;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The settings of player sessions.
+ */
+public class PlayerSessionSettings {
+
+    public static final boolean DEFAULT_ENABLED = false;
+    public static final long DEFAULT_PREFETCH_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    /**
+     * Whether the data of players is prefetched when they log in and pinned until they quit.
+     */
+    private final boolean enabled;
+
+    /**
+     * The longest time a login waits for the data of the player. Logins are never refused because of a timeout,
+     * the data is then fetched on demand instead.
+     */
+    private final long prefetchTimeoutMillis;
+
+    public PlayerSessionSettings(boolean enabled, long prefetchTimeoutMillis) {
+        this.enabled = enabled;
+        this.prefetchTimeoutMillis = prefetchTimeoutMillis;
+    }
+
+    /**
+     * Reads player session settings from a configuration section.
+     * Missing values, or a missing section, fall back to the defaults.
+     *
+     * @param section The configuration section, may be null.
+     * @return The player session settings.
+     */
+    public static PlayerSessionSettings fromConfig(ConfigurationSection section) {
+        if (section == null) {
+            return new PlayerSessionSettings(DEFAULT_ENABLED, DEFAULT_PREFETCH_TIMEOUT_MILLIS);
+        }
+        return new PlayerSessionSettings(
+                section.getBoolean("enabled", DEFAULT_ENABLED),
+                section.getLong("prefetch-timeout-millis", DEFAULT_PREFETCH_TIMEOUT_MILLIS)
+        );
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getPrefetchTimeoutMillis() {
+        return prefetchTimeoutMillis;
+    }
+}
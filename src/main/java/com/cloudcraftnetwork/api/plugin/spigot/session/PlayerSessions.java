@@ -0,0 +1,279 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.session;
+
+import com.cloudcraftnetwork.api.plugin.spigot.info.CloudCraftNetworkInfo;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * The sessions of the online players, along with an index of every object they pin.
+ * <p>
+ * An object shared by several sessions, such as a costume, stays pinned until the last of them closes. Those
+ * sessions share the same copy, which every update replaces in all of them.
+ * <p>
+ * Objects changed while a session loads cannot be pinned yet, so their keys are recorded until the session opens,
+ * and reported by {@link #open(PlayerSession)} for the caller to refresh them.
+ */
+public class PlayerSessions {
+
+    /**
+     * The sessions, by player id.
+     */
+    private final Map<UUID, PlayerSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * The sessions which pin an object, by bucket name and key. A set is only changed while its key is locked by
+     * {@link ConcurrentHashMap#compute}, and is removed once empty.
+     */
+    private final Map<String, Map<String, Set<PlayerSession>>> pins = new ConcurrentHashMap<>();
+
+    /**
+     * The objects changed since a session started loading, as "bucket:key", by player id, for every session which
+     * is loading.
+     */
+    private final Map<UUID, Set<String>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * Starts recording the objects which change while the session of a player loads.
+     *
+     * @param playerId The id of the player.
+     */
+    public void beginLoad(UUID playerId) {
+        loading.put(playerId, ConcurrentHashMap.newKeySet());
+    }
+
+    /**
+     * Stops recording the objects which change for a session which was loaded but is never opened.
+     *
+     * @param playerId The id of the player.
+     */
+    public void discardLoad(UUID playerId) {
+        loading.remove(playerId);
+    }
+
+    /**
+     * Records that an object was put or deleted, by this server or another one, for the sessions which are loading.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     */
+    public void markChanged(String bucketName, String key) {
+        for (Set<String> changed : loading.values()) {
+            changed.add(bucketName + ":" + key);
+        }
+    }
+
+    /**
+     * Opens a session and pins its objects, replacing any previous session of the same player.
+     *
+     * @param session The session.
+     * @return The buckets of the objects of the session which changed while it was loading, so the session may
+     * hold an outdated copy of them.
+     */
+    public Set<String> open(PlayerSession session) {
+        Set<String> changed = loading.remove(session.getPlayerId());
+        close(session.getPlayerId());
+        sessions.put(session.getPlayerId(), session);
+        Set<String> outdated = new HashSet<>();
+        for (Map.Entry<String, CloudCraftNetworkInfo> object : session.getObjects().entrySet()) {
+            String bucketName = object.getKey();
+            String key = object.getValue().createKey();
+            pinsOf(bucketName).compute(key, (k, holders) -> {
+                if (holders == null) {
+                    holders = new CopyOnWriteArraySet<>();
+                } else {
+                    // The other sessions hold the current copy, which updates replace in every session
+                    PlayerSession.Pin shared = holders.iterator().next().getPin(bucketName);
+                    if (shared != null) {
+                        session.adopt(bucketName, shared);
+                    }
+                }
+                holders.add(session);
+                return holders;
+            });
+            if (changed != null && changed.contains(object.getKey() + ":" + key)) {
+                outdated.add(object.getKey());
+            }
+        }
+        return Collections.unmodifiableSet(outdated);
+    }
+
+    /**
+     * Closes the session of a player and unpins its objects.
+     *
+     * @param playerId The id of the player.
+     * @return The closed session, or an empty Optional if the player had no session.
+     */
+    public Optional<PlayerSession> close(UUID playerId) {
+        loading.remove(playerId);
+        PlayerSession session = sessions.remove(playerId);
+        if (session == null) {
+            return Optional.empty();
+        }
+        for (Map.Entry<String, CloudCraftNetworkInfo> object : session.getObjects().entrySet()) {
+            unpin(object.getKey(), object.getValue().createKey(), session);
+        }
+        return Optional.of(session);
+    }
+
+    /**
+     * Returns the session of a player.
+     *
+     * @param playerId The id of the player.
+     * @return The session, or an empty Optional if the player has no session.
+     */
+    public Optional<PlayerSession> get(UUID playerId) {
+        return Optional.ofNullable(sessions.get(playerId));
+    }
+
+    /**
+     * Returns a pinned object.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     * @return The object, or null if no session pins it.
+     */
+    public CloudCraftNetworkInfo getPinned(String bucketName, String key) {
+        PlayerSession.Pin pin = getPin(bucketName, key);
+        return pin != null ? pin.getValue() : null;
+    }
+
+    /**
+     * Returns a pinned object, along with its ETag and validation time.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     * @return The pin, or null if no session pins the object.
+     */
+    public PlayerSession.Pin getPin(String bucketName, String key) {
+        Map<String, Set<PlayerSession>> bucketPins = pins.get(bucketName);
+        Set<PlayerSession> holders = bucketPins != null ? bucketPins.get(key) : null;
+        Iterator<PlayerSession> holding = holders != null ? holders.iterator() : null;
+        return holding != null && holding.hasNext() ? holding.next().getPin(bucketName) : null;
+    }
+
+    /**
+     * Replaces a pinned object after it was put or deleted, so sessions never hold an outdated copy.
+     * Does nothing if no session pins the object.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     * @param object     The new object, or null if the object was deleted.
+     */
+    public void updatePinned(String bucketName, String key, CloudCraftNetworkInfo object) {
+        markChanged(bucketName, key);
+        Map<String, Set<PlayerSession>> bucketPins = pins.get(bucketName);
+        if (bucketPins == null) {
+            return;
+        }
+        bucketPins.computeIfPresent(key, (k, holders) -> {
+            for (PlayerSession session : holders) {
+                session.set(bucketName, object, null);
+            }
+            return object != null ? holders : null;
+        });
+    }
+
+    /**
+     * Replaces a pinned object with the copy which was stored or retrieved, unless it was replaced since it was
+     * read. Does nothing if no session pins the object.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     * @param expected   The pinned object which was read.
+     * @param object     The stored object, or null if the object does not exist.
+     * @param eTag       The ETag of the stored object, or null if it is not known.
+     */
+    public void replacePinned(String bucketName, String key, CloudCraftNetworkInfo expected,
+                              CloudCraftNetworkInfo object, String eTag) {
+        Map<String, Set<PlayerSession>> bucketPins = pins.get(bucketName);
+        if (bucketPins == null) {
+            return;
+        }
+        bucketPins.computeIfPresent(key, (k, holders) -> {
+            for (PlayerSession session : holders) {
+                if (session.replace(bucketName, expected, object, eTag) && object == null) {
+                    holders.remove(session);
+                }
+            }
+            return holders.isEmpty() ? null : holders;
+        });
+    }
+
+    /**
+     * Marks a pinned object as current after S3 confirmed that its ETag still matches, unless it was replaced since
+     * it was read.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     * @param expected   The pinned object which was revalidated.
+     */
+    public void revalidatedPinned(String bucketName, String key, CloudCraftNetworkInfo expected) {
+        Map<String, Set<PlayerSession>> bucketPins = pins.get(bucketName);
+        Set<PlayerSession> holders = bucketPins != null ? bucketPins.get(key) : null;
+        if (holders != null) {
+            for (PlayerSession session : holders) {
+                session.revalidated(bucketName, expected);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of open sessions.
+     *
+     * @return The number of open sessions.
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Removes a session from the sessions which pin an object, unpinning the object once no session pins it.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     * @param session    The session.
+     */
+    private void unpin(String bucketName, String key, PlayerSession session) {
+        pinsOf(bucketName).computeIfPresent(key, (k, holders) -> {
+            holders.remove(session);
+            return holders.isEmpty() ? null : holders;
+        });
+    }
+
+    private Map<String, Set<PlayerSession>> pinsOf(String bucketName) {
+        return pins.computeIfAbsent(bucketName, name -> new ConcurrentHashMap<>());
+    }
+}
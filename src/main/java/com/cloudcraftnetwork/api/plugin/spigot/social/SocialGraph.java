@@ -0,0 +1,230 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.social;
+
+import com.cloudcraftnetwork.api.plugin.spigot.info.PublicPlayerInfo;
+import com.cloudcraftnetwork.api.plugin.spigot.info.collect.UuidSet;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An in-memory index of the friends and ignored lists of players, in both directions.
+ * <p>
+ * Every query is answered with hash lookups, so its cost does not depend on the number of indexed players.
+ * Queries never lock: the lists of a player are immutable and replaced as a whole, and the reverse lists are
+ * concurrent sets. Updates are serialized.
+ */
+public class SocialGraph {
+
+    /**
+     * The friends of each indexed player.
+     */
+    private final Map<UUID, Set<UUID>> friends = new ConcurrentHashMap<>();
+
+    /**
+     * The players ignored by each indexed player.
+     */
+    private final Map<UUID, Set<UUID>> ignored = new ConcurrentHashMap<>();
+
+    /**
+     * The indexed players which list a player as a friend, by player.
+     */
+    private final Map<UUID, Set<UUID>> friendedBy = new ConcurrentHashMap<>();
+
+    /**
+     * The indexed players which ignore a player, by player.
+     */
+    private final Map<UUID, Set<UUID>> ignoredBy = new ConcurrentHashMap<>();
+
+    /**
+     * Indexes the lists of a player, replacing the lists indexed before.
+     *
+     * @param info The public info of the player.
+     */
+    public void update(PublicPlayerInfo info) {
+        update(info.getId(), info.getFriendsList(), info.getIgnoredList());
+    }
+
+    /**
+     * Indexes the lists of a player, replacing the lists indexed before.
+     *
+     * @param playerId    The id of the player.
+     * @param friendsList The friends of the player, or null if the player has none.
+     * @param ignoredList The players ignored by the player, or null if the player has none.
+     */
+    public synchronized void update(UUID playerId, Set<UUID> friendsList, Set<UUID> ignoredList) {
+        replace(friends, friendedBy, playerId, copyOf(friendsList));
+        replace(ignored, ignoredBy, playerId, copyOf(ignoredList));
+    }
+
+    /**
+     * Removes the lists of a player from the index.
+     * The player is still returned by reverse lookups for as long as other indexed players list it.
+     *
+     * @param playerId The id of the player.
+     */
+    public synchronized void remove(UUID playerId) {
+        replace(friends, friendedBy, playerId, null);
+        replace(ignored, ignoredBy, playerId, null);
+    }
+
+    /**
+     * Checks whether the lists of a player are indexed.
+     *
+     * @param playerId The id of the player.
+     * @return true if the player is indexed.
+     */
+    public boolean contains(UUID playerId) {
+        return friends.containsKey(playerId);
+    }
+
+    /**
+     * Checks whether a player lists another player as a friend.
+     *
+     * @param playerId The id of the player.
+     * @param friendId The id of the other player.
+     * @return true if the player is indexed and lists the other player as a friend.
+     */
+    public boolean isFriend(UUID playerId, UUID friendId) {
+        return contains(friends, playerId, friendId);
+    }
+
+    /**
+     * Checks whether a player ignores another player.
+     *
+     * @param playerId The id of the player.
+     * @param senderId The id of the other player.
+     * @return true if the player is indexed and ignores the other player.
+     */
+    public boolean isIgnoring(UUID playerId, UUID senderId) {
+        return contains(ignored, playerId, senderId);
+    }
+
+    /**
+     * Returns the friends of a player.
+     *
+     * @param playerId The id of the player.
+     * @return An unmodifiable set of the friends, empty if the player is not indexed.
+     */
+    public Set<UUID> getFriends(UUID playerId) {
+        return get(friends, playerId);
+    }
+
+    /**
+     * Returns the players ignored by a player.
+     *
+     * @param playerId The id of the player.
+     * @return An unmodifiable set of the ignored players, empty if the player is not indexed.
+     */
+    public Set<UUID> getIgnored(UUID playerId) {
+        return get(ignored, playerId);
+    }
+
+    /**
+     * Returns the indexed players which list a player as a friend.
+     *
+     * @param playerId The id of the player.
+     * @return An unmodifiable set of the players.
+     */
+    public Set<UUID> getFriendedBy(UUID playerId) {
+        return get(friendedBy, playerId);
+    }
+
+    /**
+     * Returns the indexed players which ignore a player.
+     *
+     * @param senderId The id of the player.
+     * @return An unmodifiable set of the players.
+     */
+    public Set<UUID> getIgnoredBy(UUID senderId) {
+        return get(ignoredBy, senderId);
+    }
+
+    /**
+     * Returns the number of indexed players.
+     *
+     * @return The number of indexed players.
+     */
+    public int size() {
+        return friends.size();
+    }
+
+    /**
+     * Replaces the list of a player and applies the difference to the reverse lists.
+     *
+     * @param forward  The lists, by player.
+     * @param reverse  The reverse lists, by listed player.
+     * @param playerId The id of the player.
+     * @param list     The new list, or null to remove the player.
+     */
+    private static void replace(
+            Map<UUID, Set<UUID>> forward,
+            Map<UUID, Set<UUID>> reverse,
+            UUID playerId,
+            Set<UUID> list
+    ) {
+        Set<UUID> previous = list != null ? forward.put(playerId, list) : forward.remove(playerId);
+        if (previous != null) {
+            for (UUID listed : previous) {
+                if (list == null || !list.contains(listed)) {
+                    Set<UUID> players = reverse.get(listed);
+                    if (players != null) {
+                        players.remove(playerId);
+                        if (players.isEmpty()) {
+                            reverse.remove(listed, players);
+                        }
+                    }
+                }
+            }
+        }
+        if (list != null) {
+            for (UUID listed : list) {
+                if (previous == null || !previous.contains(listed)) {
+                    reverse.computeIfAbsent(listed, id -> Collections.newSetFromMap(new ConcurrentHashMap<>()))
+                            .add(playerId);
+                }
+            }
+        }
+    }
+
+    private static boolean contains(Map<UUID, Set<UUID>> lists, UUID playerId, UUID listed) {
+        Set<UUID> list = lists.get(playerId);
+        return list != null && list.contains(listed);
+    }
+
+    private static Set<UUID> get(Map<UUID, Set<UUID>> lists, UUID playerId) {
+        Set<UUID> list = lists.get(playerId);
+        return list != null ? Collections.unmodifiableSet(list) : Collections.emptySet();
+    }
+
+    private static Set<UUID> copyOf(Set<UUID> list) {
+        return list != null ? UuidSet.copyOf(list) : new UuidSet();
+    }
+}
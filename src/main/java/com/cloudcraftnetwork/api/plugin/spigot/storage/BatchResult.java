@@ -0,0 +1,63 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.storage;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a batch operation, split into the objects which succeeded and those which failed.
+ * A batch can be retried by passing {@link #getFailed()} to the same operation.
+ *
+ * @param <T> The type of the objects.
+ */
+public class BatchResult<T> {
+
+    private final List<T> succeeded;
+    private final List<T> failed;
+
+    public BatchResult(List<T> succeeded, List<T> failed) {
+        this.succeeded = Collections.unmodifiableList(succeeded);
+        this.failed = Collections.unmodifiableList(failed);
+    }
+
+    /**
+     * Checks whether the operation succeeded for every object.
+     *
+     * @return true if no object failed.
+     */
+    public boolean isSuccessful() {
+        return failed.isEmpty();
+    }
+
+    public List<T> getSucceeded() {
+        return succeeded;
+    }
+
+    public List<T> getFailed() {
+        return failed;
+    }
+}
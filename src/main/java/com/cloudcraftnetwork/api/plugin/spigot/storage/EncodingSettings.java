@@ -0,0 +1,129 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.storage;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * The settings which control how the objects of a single bucket are encoded when they are stored.
+ * Objects are always read in whatever encoding they were stored in.
+ */
+public class EncodingSettings {
+
+    public static final StorageFormat DEFAULT_FORMAT = StorageFormat.JSON;
+    public static final StorageCompression DEFAULT_COMPRESSION = StorageCompression.NONE;
+    public static final int DEFAULT_COMPRESSION_LEVEL = 6;
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 4 * 1024;
+
+    /**
+     * The format objects are stored in.
+     */
+    private final StorageFormat format;
+
+    /**
+     * The codec objects are compressed with.
+     */
+    private final StorageCompression compression;
+
+    /**
+     * The compression level, from 1 (fastest) to 9 (smallest).
+     */
+    private final int compressionLevel;
+
+    /**
+     * The serialized size in bytes from which objects are compressed. Smaller objects are stored uncompressed.
+     */
+    private final int compressionThreshold;
+
+    public EncodingSettings(StorageFormat format, StorageCompression compression, int compressionLevel,
+                            int compressionThreshold) {
+        this.format = format;
+        this.compression = compression;
+        this.compressionLevel = compressionLevel;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * Reads encoding settings from a configuration section.
+     * Missing or unknown values, or a missing section, fall back to the defaults.
+     *
+     * @param section The configuration section, may be null.
+     * @return The encoding settings.
+     */
+    public static EncodingSettings fromConfig(ConfigurationSection section) {
+        if (section == null) {
+            return new EncodingSettings(
+                    DEFAULT_FORMAT,
+                    DEFAULT_COMPRESSION,
+                    DEFAULT_COMPRESSION_LEVEL,
+                    DEFAULT_COMPRESSION_THRESHOLD
+            );
+        }
+        return new EncodingSettings(
+                parse(StorageFormat.class, section.getString("format"), DEFAULT_FORMAT),
+                parse(StorageCompression.class, section.getString("compression"), DEFAULT_COMPRESSION),
+                section.getInt("compression-level", DEFAULT_COMPRESSION_LEVEL),
+                section.getInt("compression-threshold", DEFAULT_COMPRESSION_THRESHOLD)
+        );
+    }
+
+    public StorageFormat getFormat() {
+        return format;
+    }
+
+    public StorageCompression getCompression() {
+        return compression;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * Checks whether an object of a serialized size should be compressed.
+     *
+     * @param size The serialized size of the object in bytes.
+     * @return true if the object should be compressed, false otherwise.
+     */
+    public boolean shouldCompress(int size) {
+        return compression != StorageCompression.NONE && size >= compressionThreshold;
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> enumClass, String name, E defaultValue) {
+        if (name != null) {
+            for (E constant : enumClass.getEnumConstants()) {
+                if (constant.name().equalsIgnoreCase(name)) {
+                    return constant;
+                }
+            }
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.storage;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The outcome of a multi-get, split into the objects which were found, the keys which do not exist and the keys
+ * which could not be retrieved. Unlike a missing key, a failed key says nothing about whether the object exists,
+ * so a copy held from before should be kept. A multi-get can be retried by passing the keys of
+ * {@link #getFailed()} to the same operation.
+ *
+ * @param <T> The type of the objects.
+ */
+public class FetchResult<T> {
+
+    private final Map<String, T> found;
+    private final List<String> missing;
+    private final Map<String, StorageException> failed;
+
+    /**
+     * @param found   The objects which were found, by key.
+     * @param missing The keys which do not exist.
+     * @param failed  The errors of the keys which could not be retrieved, by key.
+     */
+    public FetchResult(Map<String, T> found, List<String> missing, Map<String, StorageException> failed) {
+        this.found = Collections.unmodifiableMap(found);
+        this.missing = Collections.unmodifiableList(missing);
+        this.failed = Collections.unmodifiableMap(failed);
+    }
+
+    /**
+     * Checks whether every key was either found or is known to be missing.
+     *
+     * @return true if no key failed.
+     */
+    public boolean isSuccessful() {
+        return failed.isEmpty();
+    }
+
+    /**
+     * Returns the object of a key, which is empty if the key is missing or failed.
+     *
+     * @param key The key.
+     * @return The object, if it was found.
+     */
+    public Optional<T> get(String key) {
+        return Optional.ofNullable(found.get(key));
+    }
+
+    public Map<String, T> getFound() {
+        return found;
+    }
+
+    public List<String> getMissing() {
+        return missing;
+    }
+
+    public Map<String, StorageException> getFailed() {
+        return failed;
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * A storage backend which keeps every bucket in a local directory, one file per object.
+ * <p>
+ * The object "key" of bucket "bucket" is stored in the file "&lt;root&gt;/bucket/key". Since every "/" in a key
+ * becomes a directory, a key cannot also be the prefix of another key, for example "lobby" and "lobby/1".
+ * Objects are written to a temporary file which then atomically replaces the old file, so readers never
+ * see a partially written object. Several servers may share the same directory.
+ * <p>
+ * Files hold only the content of objects, their content type and content encoding are not kept.
+ * <p>
+ * A listing walks the directory of the bucket once, on its first page, and serves its next pages from the keys it
+ * found then, like a listing of S3 which does not see the objects put after it started.
+ */
+public class FileStorageBackend implements StorageBackend {
+
+    /**
+     * The prefix and suffix of temporary files, which are never listed.
+     */
+    private static final String TEMP_PREFIX = ".";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * The size of the buffer used to copy object content into a file.
+     */
+    private static final int COPY_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * How long the keys of an unfinished listing are kept for its next page.
+     */
+    private static final long LISTING_TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * The keys of a bucket found by a listing, and the time they were found.
+     */
+    private static final class Listing {
+
+        private final NavigableSet<String> keys;
+        private final long createdAt;
+
+        private Listing(NavigableSet<String> keys, long createdAt) {
+            this.keys = keys;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * The directory which holds one directory per bucket.
+     */
+    private final Path root;
+
+    /**
+     * The listings which returned a truncated page, by the bucket name, prefix, delimiter and marker of their
+     * next page.
+     */
+    private final Map<List<String>, Listing> listings = new ConcurrentHashMap<>();
+
+    public FileStorageBackend(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public Optional<StoredObject> get(String bucketName, String key, String eTag) throws StorageException {
+        Path path = resolve(bucketName, key);
+        try {
+            // The attributes are read first, so the content is never older than the ETag
+            String currentETag = eTagOf(Files.readAttributes(path, BasicFileAttributes.class));
+            if (currentETag.equals(eTag)) {
+                return Optional.of(StoredObject.notModified(eTag));
+            }
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            return Optional.of(new StoredObject(Channels.newInputStream(channel), channel.size(), null, currentETag));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new StorageException("Unable to read file \"" + path + "\"", e);
+        }
+    }
+
+    @Override
+    public String put(String bucketName, String key, StoredObject object) throws StorageException {
+        Path path = resolve(bucketName, key);
+        Path temp = null;
+        try {
+            Files.createDirectories(path.getParent());
+            temp = Files.createTempFile(path.getParent(), TEMP_PREFIX, TEMP_SUFFIX);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                copy(object.getContent(), channel);
+            }
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return eTagOf(Files.readAttributes(path, BasicFileAttributes.class));
+        } catch (IOException e) {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // The temporary file is never listed, so leaving it behind is harmless
+                }
+            }
+            throw new StorageException("Unable to write file \"" + path + "\"", e);
+        }
+    }
+
+    @Override
+    public void delete(String bucketName, String key) throws StorageException {
+        Path path = resolve(bucketName, key);
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new StorageException("Unable to delete file \"" + path + "\"", e);
+        }
+    }
+
+    @Override
+    public KeyPage list(String bucketName, String prefix, String delimiter, String marker) throws StorageException {
+        long now = System.currentTimeMillis();
+        listings.values().removeIf(listing -> now - listing.createdAt >= LISTING_TTL_MILLIS);
+
+        // Continue the listing which returned the marker, or else walk the directory of the bucket
+        Listing listing = marker != null ? listings.remove(Arrays.asList(bucketName, prefix, delimiter, marker)) : null;
+        if (listing == null) {
+            listing = new Listing(walk(bucketName), now);
+        }
+        KeyPage page = Listings.page(listing.keys, prefix, delimiter, marker);
+        if (page.isTruncated()) {
+            listings.put(Arrays.asList(bucketName, prefix, delimiter, page.getNextMarker()), listing);
+        }
+        return page;
+    }
+
+    /**
+     * Finds every key of a bucket.
+     *
+     * @param bucketName The name of the bucket.
+     * @return The keys, sorted.
+     * @throws StorageException If the directory of the bucket cannot be walked.
+     */
+    private NavigableSet<String> walk(String bucketName) throws StorageException {
+        Path directory = resolve(bucketName, null);
+        TreeSet<String> keys = new TreeSet<>();
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.filter(Files::isRegularFile)
+                        .filter(path -> !isTemporary(path))
+                        .forEach(path -> keys.add(keyOf(directory, path)));
+            } catch (IOException | RuntimeException e) {
+                throw new StorageException("Unable to list directory \"" + directory + "\"", e);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Returns the path of a bucket or an object, rejecting names which would escape the root directory.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object, or null for the directory of the bucket.
+     * @return The path.
+     * @throws StorageException If the bucket name or key is not valid.
+     */
+    private Path resolve(String bucketName, String key) throws StorageException {
+        Path bucket = root.resolve(bucketName).normalize();
+        Path path = key != null ? bucket.resolve(key).normalize() : bucket;
+        if (!bucket.getParent().equals(root) || (key != null && (!path.startsWith(bucket) || path.equals(bucket)))) {
+            throw new StorageException("Invalid object \"" + bucketName + ":" + key + "\"");
+        }
+        return path;
+    }
+
+    /**
+     * Copies a stream into a file channel.
+     *
+     * @param inputStream The stream.
+     * @param channel     The file channel.
+     * @throws IOException If the stream cannot be read or the file cannot be written.
+     */
+    private static void copy(InputStream inputStream, FileChannel channel) throws IOException {
+        ReadableByteChannel source = Channels.newChannel(inputStream);
+        ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+        while (source.read(buffer) >= 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    private static boolean isTemporary(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(TEMP_PREFIX) && name.endsWith(TEMP_SUFFIX);
+    }
+
+    /**
+     * Returns the key of an object file, using "/" as separator on every platform.
+     *
+     * @param directory The directory of the bucket.
+     * @param path      The path of the object file.
+     * @return The key of the object.
+     */
+    private static String keyOf(Path directory, Path path) {
+        StringBuilder key = new StringBuilder();
+        for (Path name : directory.relativize(path)) {
+            if (key.length() > 0) {
+                key.append('/');
+            }
+            key.append(name.toString());
+        }
+        return key.toString();
+    }
+
+    /**
+     * Computes the ETag of an object file from its size, modification time and file key.
+     * Since files are replaced rather than rewritten, every put changes the ETag.
+     *
+     * @param attributes The attributes of the file.
+     * @return The ETag.
+     */
+    private static String eTagOf(BasicFileAttributes attributes) {
+        StringBuilder eTag = new StringBuilder()
+                .append(Long.toHexString(attributes.size()))
+                .append('-')
+                .append(Long.toHexString(attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS)));
+        if (attributes.fileKey() != null) {
+            eTag.append('-').append(Integer.toHexString(attributes.fileKey().hashCode()));
+        }
+        return eTag.toString();
+    }
+}
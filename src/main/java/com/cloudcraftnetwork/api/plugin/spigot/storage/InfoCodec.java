@@ -0,0 +1,251 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.storage;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Converts info objects to and from their stored representation.
+ * <p>
+ * Objects are parsed straight from the byte stream, with a reader cached per info class. Jackson recycles its
+ * byte and char buffers per thread, so parsing allocates no intermediate strings or char arrays.
+ * <p>
+ * Objects are serialized with a writer cached per info class, into a byte buffer which is reused by the thread,
+ * so the serialized length is known before uploading and nothing is copied.
+ * <p>
+ * Every {@link StorageFormat} is supported. When the format of a stored object is not known from its content type,
+ * it is detected from its first byte, so objects stored as JSON by older versions can always be read.
+ * Compressed objects are decompressed on the fly while they are parsed. Their {@link StorageCompression} is likewise
+ * detected from the first byte when it was not recorded.
+ * <p>
+ * Properties which are not known to an info class are ignored, so servers still running an older version can read
+ * the objects written by newer versions, which may have more fields.
+ */
+public class InfoCodec {
+
+    /**
+     * The initial size of a serialization buffer.
+     */
+    private static final int INITIAL_BUFFER_SIZE = 4 * 1024;
+
+    /**
+     * Serialization buffers which grew larger than this are not kept for reuse.
+     */
+    private static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * The serialization buffer of every thread.
+     */
+    private static final ThreadLocal<ReusableByteArrayOutputStream> BUFFERS =
+            ThreadLocal.withInitial(() -> new ReusableByteArrayOutputStream(INITIAL_BUFFER_SIZE));
+
+    /**
+     * The compression buffer of every thread.
+     */
+    private static final ThreadLocal<ReusableByteArrayOutputStream> COMPRESSION_BUFFERS =
+            ThreadLocal.withInitial(() -> new ReusableByteArrayOutputStream(INITIAL_BUFFER_SIZE));
+
+    /**
+     * The object mappers, by format.
+     */
+    private final Map<StorageFormat, ObjectMapper> objectMappers = new EnumMap<>(StorageFormat.class);
+
+    /**
+     * The cached readers, by format and info class.
+     */
+    private final Map<StorageFormat, Map<Class<?>, ObjectReader>> readers = new EnumMap<>(StorageFormat.class);
+
+    /**
+     * The cached writers, by format and info class.
+     */
+    private final Map<StorageFormat, Map<Class<?>, ObjectWriter>> writers = new EnumMap<>(StorageFormat.class);
+
+    public InfoCodec() {
+        objectMappers.put(StorageFormat.JSON, new ObjectMapper());
+        objectMappers.put(StorageFormat.SMILE, new ObjectMapper(new SmileFactory()));
+        for (StorageFormat format : StorageFormat.values()) {
+            objectMappers.get(format).configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+            readers.put(format, new ConcurrentHashMap<>());
+            writers.put(format, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Parses an info object from a stream, detecting its format.
+     *
+     * @param inputStream The stream.
+     * @param infoClass   The class of the info object.
+     * @param <T>         The type of the info object.
+     * @return The info object.
+     * @throws IOException If the stream cannot be read or does not hold a valid info object.
+     */
+    public <T> T read(InputStream inputStream, Class<T> infoClass) throws IOException {
+        return read(inputStream, infoClass, null, null);
+    }
+
+    /**
+     * Parses an info object from a stream, decompressing it on the fly.
+     *
+     * @param inputStream     The stream.
+     * @param infoClass       The class of the info object.
+     * @param contentType     The content type the object was stored with. If it is null or not the content type of
+     *                        a format, the format is detected from the first byte of the object.
+     * @param contentEncoding The content encoding the object was stored with. If it is null or not the content
+     *                        encoding of a codec, the codec is detected from the first byte of the stream.
+     * @param <T>             The type of the info object.
+     * @return The info object.
+     * @throws IOException If the stream cannot be read or does not hold a valid info object.
+     */
+    public <T> T read(InputStream inputStream, Class<T> infoClass, String contentType, String contentEncoding)
+            throws IOException {
+        StorageCompression compression = StorageCompression.fromContentEncoding(contentEncoding);
+        if (compression == null) {
+            PushbackInputStream pushbackStream = new PushbackInputStream(inputStream, 1);
+            compression = StorageCompression.detect(peek(pushbackStream));
+            inputStream = pushbackStream;
+        }
+        inputStream = compression.decompress(inputStream);
+
+        StorageFormat format = StorageFormat.fromContentType(contentType);
+        if (format == null) {
+            PushbackInputStream pushbackStream = new PushbackInputStream(inputStream, 1);
+            format = peek(pushbackStream) == StorageFormat.SMILE_FIRST_BYTE ? StorageFormat.SMILE : StorageFormat.JSON;
+            inputStream = pushbackStream;
+        }
+        return readerFor(format, infoClass).readValue(inputStream);
+    }
+
+    /**
+     * Serializes an info object as JSON into the serialization buffer of the current thread.
+     * The returned buffer is only valid until the next call of this method on the same thread.
+     *
+     * @param object The info object.
+     * @return The buffer holding the serialized object.
+     * @throws IOException If the object cannot be serialized.
+     */
+    public ReusableByteArrayOutputStream write(Object object) throws IOException {
+        return write(object, StorageFormat.JSON);
+    }
+
+    /**
+     * Serializes an info object into the serialization buffer of the current thread.
+     * The returned buffer is only valid until the next call of this method on the same thread.
+     *
+     * @param object The info object.
+     * @param format The format to serialize the object in.
+     * @return The buffer holding the serialized object.
+     * @throws IOException If the object cannot be serialized.
+     */
+    public ReusableByteArrayOutputStream write(Object object, StorageFormat format) throws IOException {
+        ReusableByteArrayOutputStream buffer = pooledBuffer(BUFFERS);
+        writerFor(format, object.getClass()).writeValue(buffer, object);
+        return buffer;
+    }
+
+    /**
+     * Compresses serialized bytes into the compression buffer of the current thread.
+     * The returned buffer is only valid until the next call of this method on the same thread.
+     *
+     * @param serialized  The buffer holding the serialized object, as returned by {@link #write(Object)}.
+     * @param compression The codec to compress the bytes with.
+     * @param level       The compression level.
+     * @return The buffer holding the compressed bytes.
+     * @throws IOException If the bytes cannot be compressed.
+     */
+    public ReusableByteArrayOutputStream compress(ReusableByteArrayOutputStream serialized,
+                                                  StorageCompression compression, int level) throws IOException {
+        ReusableByteArrayOutputStream buffer = pooledBuffer(COMPRESSION_BUFFERS);
+        try (OutputStream outputStream = compression.compress(buffer, level)) {
+            outputStream.write(serialized.getBuffer(), 0, serialized.size());
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns the empty buffer of the current thread from a pool, replacing it if it grew too large.
+     *
+     * @param pool The pool.
+     * @return The empty buffer.
+     */
+    private static ReusableByteArrayOutputStream pooledBuffer(ThreadLocal<ReusableByteArrayOutputStream> pool) {
+        ReusableByteArrayOutputStream buffer = pool.get();
+        if (buffer.capacity() > MAX_POOLED_BUFFER_SIZE) {
+            buffer = new ReusableByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+            pool.set(buffer);
+        }
+        buffer.reset();
+        return buffer;
+    }
+
+    /**
+     * Returns the next byte of a stream without consuming it.
+     *
+     * @param inputStream The stream.
+     * @return The next byte, or -1 if the stream has ended.
+     * @throws IOException If the stream cannot be read.
+     */
+    private static int peek(PushbackInputStream inputStream) throws IOException {
+        int next = inputStream.read();
+        if (next >= 0) {
+            inputStream.unread(next);
+        }
+        return next;
+    }
+
+    /**
+     * Returns the cached reader of an info class, creating it if necessary.
+     *
+     * @param format    The format to read.
+     * @param infoClass The info class.
+     * @return The reader.
+     */
+    private ObjectReader readerFor(StorageFormat format, Class<?> infoClass) {
+        return readers.get(format).computeIfAbsent(infoClass, objectMappers.get(format)::reader);
+    }
+
+    /**
+     * Returns the cached writer of an info class, creating it if necessary.
+     *
+     * @param format    The format to write.
+     * @param infoClass The info class.
+     * @return The writer.
+     */
+    private ObjectWriter writerFor(StorageFormat format, Class<?> infoClass) {
+        return writers.get(format).computeIfAbsent(infoClass, objectMappers.get(format)::writerFor);
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.storage;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Lazily iterates over the keys of a storage backend listing, one page at a time.
+ * <p>
+ * The first page is requested on the first call to {@link #hasNext()}. While the keys of a page are consumed,
+ * the next page is already requested in the background. Pages which are empty but truncated are skipped.
+ * Common prefixes (the keys rolled up by a delimiter) are returned along with the object keys.
+ */
+public class ListingIterator implements Iterator<String>, AutoCloseable {
+
+    /**
+     * A page request, which runs either in the background or, if the background has not picked it up yet,
+     * on the thread which needs the page. This keeps a consumer running on the executor from waiting on
+     * a request queued behind itself.
+     */
+    private class PageRequest {
+
+        private final String marker;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CompletableFuture<KeyPage> result = new CompletableFuture<>();
+
+        private PageRequest(String marker, Executor executor) {
+            this.marker = marker;
+            executor.execute(this::run);
+        }
+
+        private void run() {
+            if (claimed.compareAndSet(false, true)) {
+                try {
+                    result.complete(backend.list(bucketName, prefix, delimiter, marker));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        }
+
+        private KeyPage await() throws StorageException {
+            run();
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof StorageException) {
+                    throw (StorageException) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        private void cancel() {
+            claimed.set(true);
+        }
+    }
+
+    private final StorageBackend backend;
+    private final String bucketName;
+    private final String prefix;
+    private final String delimiter;
+    private final Executor executor;
+    private final Consumer<StorageException> errorHandler;
+
+    /**
+     * The keys of the current page which have not been returned yet.
+     */
+    private Iterator<String> current = Collections.emptyIterator();
+
+    /**
+     * The request of the next page, or null if there are no more pages.
+     */
+    private PageRequest next;
+
+    /**
+     * Whether the first page has been requested.
+     */
+    private boolean started;
+
+    /**
+     * Creates a listing iterator.
+     *
+     * @param backend      The storage backend.
+     * @param bucketName   The name of the bucket.
+     * @param prefix       The key prefix, or null.
+     * @param delimiter    The delimiter, or null.
+     * @param executor     The executor which requests pages in the background.
+     * @param errorHandler Receives the exception which ended the iteration early, if any.
+     */
+    public ListingIterator(
+            StorageBackend backend,
+            String bucketName,
+            String prefix,
+            String delimiter,
+            Executor executor,
+            Consumer<StorageException> errorHandler
+    ) {
+        this.backend = backend;
+        this.bucketName = bucketName;
+        this.prefix = prefix;
+        this.delimiter = delimiter;
+        this.executor = executor;
+        this.errorHandler = errorHandler;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!started) {
+            started = true;
+            next = new PageRequest(null, Runnable::run);
+        }
+        while (!current.hasNext()) {
+            if (next == null) {
+                return false;
+            }
+            KeyPage page;
+            try {
+                page = next.await();
+            } catch (StorageException e) {
+                next = null;
+                errorHandler.accept(e);
+                return false;
+            }
+            next = page.isTruncated() ? new PageRequest(page.getNextMarker(), executor) : null;
+            current = page.getKeys().iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    /**
+     * Stops the iteration, dropping the next page if it has not been requested yet.
+     */
+    @Override
+    public void close() {
+        if (next != null) {
+            next.cancel();
+            next = null;
+        }
+        started = true;
+        current = Collections.emptyIterator();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+
+/**
+ * Builds listing pages out of a sorted set of keys, for backends which do not page natively.
+ */
+final class Listings {
+
+    private Listings() {
+    }
+
+    /**
+     * Builds a page of keys, following the semantics of {@link StorageBackend#list}.
+     *
+     * @param keys      Every key of the bucket, sorted.
+     * @param prefix    The key prefix, or null.
+     * @param delimiter The delimiter, or null.
+     * @param marker    The marker of the page, or null for the first page.
+     * @return The page of keys.
+     */
+    static KeyPage page(NavigableSet<String> keys, String prefix, String delimiter, String marker) {
+        String start = prefix != null ? prefix : "";
+        NavigableSet<String> candidates = marker != null && marker.compareTo(start) >= 0
+                ? keys.tailSet(marker, false)
+                : keys.tailSet(start, true);
+
+        List<String> page = new ArrayList<>();
+        String lastCommonPrefix = marker;
+        for (String key : candidates) {
+            if (!key.startsWith(start)) {
+                break;
+            }
+            int index = delimiter != null ? key.indexOf(delimiter, start.length()) : -1;
+            if (index < 0) {
+                if (page.size() == StorageBackend.MAX_KEYS) {
+                    return new KeyPage(page, page.get(page.size() - 1));
+                }
+                page.add(key);
+                continue;
+            }
+
+            // Roll the key up into its common prefix, which is returned once
+            String commonPrefix = key.substring(0, index + delimiter.length());
+            if (commonPrefix.equals(lastCommonPrefix)) {
+                continue;
+            }
+            if (page.size() == StorageBackend.MAX_KEYS) {
+                return new KeyPage(page, page.get(page.size() - 1));
+            }
+            page.add(commonPrefix);
+            lastCommonPrefix = commonPrefix;
+        }
+        return new KeyPage(page, null);
+    }
+}
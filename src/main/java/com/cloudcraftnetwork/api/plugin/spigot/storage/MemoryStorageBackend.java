@@ -0,0 +1,154 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A storage backend which keeps every bucket in memory.
+ * Useful for tests, benchmarks and servers which do not need their data to outlive the JVM.
+ */
+public class MemoryStorageBackend implements StorageBackend {
+
+    /**
+     * A stored object.
+     */
+    private static class Entry {
+
+        private final byte[] content;
+        private final String contentType;
+        private final String contentEncoding;
+        private final String eTag;
+
+        private Entry(byte[] content, String contentType, String contentEncoding, String eTag) {
+            this.content = content;
+            this.contentType = contentType;
+            this.contentEncoding = contentEncoding;
+            this.eTag = eTag;
+        }
+    }
+
+    /**
+     * The objects of every bucket, by bucket name and key.
+     */
+    private final Map<String, ConcurrentNavigableMap<String, Entry>> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<StoredObject> get(String bucketName, String key, String eTag) {
+        Entry entry = bucket(bucketName).get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.eTag.equals(eTag)) {
+            return Optional.of(StoredObject.notModified(eTag));
+        }
+        return Optional.of(new StoredObject(
+                new ByteArrayInputStream(entry.content),
+                entry.content.length,
+                entry.contentType,
+                entry.contentEncoding,
+                entry.eTag
+        ));
+    }
+
+    @Override
+    public String put(String bucketName, String key, StoredObject object) throws StorageException {
+        byte[] content;
+        try {
+            content = readFully(object.getContent(), object.getContentLength());
+        } catch (IOException e) {
+            throw new StorageException("Unable to read object \"" + bucketName + ":" + key + "\"", e);
+        }
+        String eTag = eTagOf(content);
+        bucket(bucketName).put(key, new Entry(content, object.getContentType(), object.getContentEncoding(), eTag));
+        return eTag;
+    }
+
+    @Override
+    public void delete(String bucketName, String key) {
+        bucket(bucketName).remove(key);
+    }
+
+    @Override
+    public KeyPage list(String bucketName, String prefix, String delimiter, String marker) {
+        return Listings.page(bucket(bucketName).navigableKeySet(), prefix, delimiter, marker);
+    }
+
+    /**
+     * Returns the objects of a bucket, creating the bucket if necessary.
+     *
+     * @param bucketName The name of the bucket.
+     * @return The objects of the bucket, by key.
+     */
+    private ConcurrentNavigableMap<String, Entry> bucket(String bucketName) {
+        return buckets.computeIfAbsent(bucketName, name -> new ConcurrentSkipListMap<>());
+    }
+
+    /**
+     * Reads a stream completely.
+     *
+     * @param inputStream The stream.
+     * @param length      The number of bytes in the stream, or -1 if it is unknown.
+     * @return The bytes of the stream.
+     * @throws IOException If the stream cannot be read.
+     */
+    private static byte[] readFully(InputStream inputStream, long length) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(length > 0 ? (int) length : 256);
+        byte[] buffer = new byte[4096];
+        for (int read = inputStream.read(buffer); read >= 0; read = inputStream.read(buffer)) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Computes the ETag of an object the way S3 does for simple uploads, as the hex MD5 digest of its content.
+     *
+     * @param content The content of the object.
+     * @return The ETag.
+     */
+    private static String eTagOf(byte[] content) {
+        try {
+            StringBuilder builder = new StringBuilder(32);
+            for (byte b : MessageDigest.getInstance("MD5").digest(content)) {
+                builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.storage;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The settings of the retries, deadlines, hedged reads and circuit breaker of the storage calls of a bucket.
+ */
+public class ResilienceSettings {
+
+    public static final boolean DEFAULT_ENABLED = true;
+    public static final long DEFAULT_GET_DEADLINE_MILLIS = TimeUnit.SECONDS.toMillis(2);
+    public static final long DEFAULT_PUT_DEADLINE_MILLIS = 0;
+    public static final long DEFAULT_DELETE_DEADLINE_MILLIS = 0;
+    public static final long DEFAULT_LIST_DEADLINE_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final long DEFAULT_BACKOFF_BASE_MILLIS = 50;
+    public static final long DEFAULT_BACKOFF_MAX_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    public static final boolean DEFAULT_HEDGE_ENABLED = false;
+    public static final double DEFAULT_HEDGE_PERCENTILE = 95;
+    public static final long DEFAULT_HEDGE_MIN_DELAY_MILLIS = 10;
+    public static final int DEFAULT_HEDGE_MIN_SAMPLES = 100;
+    public static final int DEFAULT_BREAKER_FAILURE_THRESHOLD = 10;
+    public static final long DEFAULT_BREAKER_OPEN_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    /**
+     * Whether storage calls go through the resilience layer at all.
+     */
+    private final boolean enabled;
+
+    /**
+     * The longest time a single attempt of a call may take, by operation, or 0 for no deadline.
+     * An attempt which misses its deadline is abandoned, and may still complete in the background. Puts and deletes
+     * have no deadline by default, since an abandoned write may land after a later write of the same key.
+     */
+    private final long getDeadlineMillis;
+    private final long putDeadlineMillis;
+    private final long deleteDeadlineMillis;
+    private final long listDeadlineMillis;
+
+    /**
+     * The number of attempts of a call which keeps failing with a retryable error, including the first.
+     * These come on top of the retries of the S3 client itself.
+     */
+    private final int maxAttempts;
+
+    /**
+     * The backoff before a retry is a random time up to the base, doubled for every attempt, and at most the maximum.
+     */
+    private final long backoffBaseMillis;
+    private final long backoffMaxMillis;
+
+    /**
+     * Whether a second get is sent when the first is slower than the hedge percentile of the observed gets.
+     */
+    private final boolean hedgeEnabled;
+
+    /**
+     * The percentile of the get latencies after which a get is hedged.
+     */
+    private final double hedgePercentile;
+
+    /**
+     * The shortest time a get runs before it is hedged.
+     */
+    private final long hedgeMinDelayMillis;
+
+    /**
+     * The number of gets to observe before gets are hedged.
+     */
+    private final int hedgeMinSamples;
+
+    /**
+     * The number of consecutive failed attempts which opens the circuit breaker, or 0 to never open it.
+     */
+    private final int breakerFailureThreshold;
+
+    /**
+     * The time calls are refused for once the circuit breaker opened.
+     */
+    private final long breakerOpenMillis;
+
+    public ResilienceSettings(boolean enabled, long getDeadlineMillis, long putDeadlineMillis,
+                              long deleteDeadlineMillis, long listDeadlineMillis, int maxAttempts,
+                              long backoffBaseMillis, long backoffMaxMillis, boolean hedgeEnabled,
+                              double hedgePercentile, long hedgeMinDelayMillis, int hedgeMinSamples,
+                              int breakerFailureThreshold, long breakerOpenMillis) {
+        this.enabled = enabled;
+        this.getDeadlineMillis = getDeadlineMillis;
+        this.putDeadlineMillis = putDeadlineMillis;
+        this.deleteDeadlineMillis = deleteDeadlineMillis;
+        this.listDeadlineMillis = listDeadlineMillis;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffBaseMillis = backoffBaseMillis;
+        this.backoffMaxMillis = backoffMaxMillis;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeMinDelayMillis = hedgeMinDelayMillis;
+        this.hedgeMinSamples = hedgeMinSamples;
+        this.breakerFailureThreshold = breakerFailureThreshold;
+        this.breakerOpenMillis = breakerOpenMillis;
+    }
+
+    /**
+     * Reads resilience settings from a configuration section.
+     * Missing values, or a missing section, fall back to the defaults.
+     *
+     * @param section The configuration section, may be null.
+     * @return The resilience settings.
+     */
+    public static ResilienceSettings fromConfig(ConfigurationSection section) {
+        if (section == null) {
+            return new ResilienceSettings(
+                    DEFAULT_ENABLED,
+                    DEFAULT_GET_DEADLINE_MILLIS,
+                    DEFAULT_PUT_DEADLINE_MILLIS,
+                    DEFAULT_DELETE_DEADLINE_MILLIS,
+                    DEFAULT_LIST_DEADLINE_MILLIS,
+                    DEFAULT_MAX_ATTEMPTS,
+                    DEFAULT_BACKOFF_BASE_MILLIS,
+                    DEFAULT_BACKOFF_MAX_MILLIS,
+                    DEFAULT_HEDGE_ENABLED,
+                    DEFAULT_HEDGE_PERCENTILE,
+                    DEFAULT_HEDGE_MIN_DELAY_MILLIS,
+                    DEFAULT_HEDGE_MIN_SAMPLES,
+                    DEFAULT_BREAKER_FAILURE_THRESHOLD,
+                    DEFAULT_BREAKER_OPEN_MILLIS
+            );
+        }
+        return new ResilienceSettings(
+                section.getBoolean("enabled", DEFAULT_ENABLED),
+                section.getLong("deadline-millis.get", DEFAULT_GET_DEADLINE_MILLIS),
+                section.getLong("deadline-millis.put", DEFAULT_PUT_DEADLINE_MILLIS),
+                section.getLong("deadline-millis.delete", DEFAULT_DELETE_DEADLINE_MILLIS),
+                section.getLong("deadline-millis.list", DEFAULT_LIST_DEADLINE_MILLIS),
+                section.getInt("retry.max-attempts", DEFAULT_MAX_ATTEMPTS),
+                section.getLong("retry.backoff-base-millis", DEFAULT_BACKOFF_BASE_MILLIS),
+                section.getLong("retry.backoff-max-millis", DEFAULT_BACKOFF_MAX_MILLIS),
+                section.getBoolean("hedge.enabled", DEFAULT_HEDGE_ENABLED),
+                section.getDouble("hedge.percentile", DEFAULT_HEDGE_PERCENTILE),
+                section.getLong("hedge.min-delay-millis", DEFAULT_HEDGE_MIN_DELAY_MILLIS),
+                section.getInt("hedge.min-samples", DEFAULT_HEDGE_MIN_SAMPLES),
+                section.getInt("circuit-breaker.failure-threshold", DEFAULT_BREAKER_FAILURE_THRESHOLD),
+                section.getLong("circuit-breaker.open-millis", DEFAULT_BREAKER_OPEN_MILLIS)
+        );
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getGetDeadlineMillis() {
+        return getDeadlineMillis;
+    }
+
+    public long getPutDeadlineMillis() {
+        return putDeadlineMillis;
+    }
+
+    public long getDeleteDeadlineMillis() {
+        return deleteDeadlineMillis;
+    }
+
+    public long getListDeadlineMillis() {
+        return listDeadlineMillis;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getBackoffBaseMillis() {
+        return backoffBaseMillis;
+    }
+
+    public long getBackoffMaxMillis() {
+        return backoffMaxMillis;
+    }
+
+    public boolean isHedgeEnabled() {
+        return hedgeEnabled;
+    }
+
+    public double getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    public long getHedgeMinDelayMillis() {
+        return hedgeMinDelayMillis;
+    }
+
+    public int getHedgeMinSamples() {
+        return hedgeMinSamples;
+    }
+
+    public int getBreakerFailureThreshold() {
+        return breakerFailureThreshold;
+    }
+
+    public long getBreakerOpenMillis() {
+        return breakerOpenMillis;
+    }
+}
@@ -0,0 +1,514 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.storage;
+
+import com.cloudcraftnetwork.api.plugin.spigot.concurrent.CircuitBreaker;
+import com.cloudcraftnetwork.api.plugin.spigot.metrics.LatencyHistogram;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * A storage backend which retries, bounds and hedges the calls to another backend.
+ * <ul>
+ * <li>Every attempt of a call may have a deadline, after which it is abandoned.</li>
+ * <li>Attempts which fail with a retryable error, or miss their deadline, are retried after a backoff with full
+ * jitter, so the retries of many servers do not hit the backend at the same time.</li>
+ * <li>Gets may be hedged: once a get is slower than a percentile of the observed gets, a second identical get is
+ * sent and the first answer wins.</li>
+ * <li>A circuit breaker refuses calls while the backend keeps failing, so callers fail fast instead of waiting for
+ * their deadlines.</li>
+ * </ul>
+ * Attempts with a deadline or a hedge run on the given executor, every other attempt runs on the calling thread.
+ */
+public class ResilientStorageBackend implements StorageBackend {
+
+    /**
+     * The time between two computations of the hedge delay, since the percentile reads the whole histogram.
+     */
+    private static final long HEDGE_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final StorageBackend delegate;
+    private final ResilienceSettings settings;
+    private final ExecutorService executor;
+    private final CircuitBreaker breaker;
+
+    /**
+     * The latencies of the successful get attempts.
+     */
+    private final LatencyHistogram getLatencies = new LatencyHistogram();
+
+    /**
+     * The time after which a get is hedged, or -1 if gets are not hedged yet, and when it was computed.
+     */
+    private volatile long hedgeDelayNanos = -1;
+    private volatile long hedgeComputedAt = System.nanoTime() - HEDGE_REFRESH_NANOS;
+
+    /**
+     * @param delegate The backend which performs the calls.
+     * @param settings The resilience settings.
+     * @param executor Runs the attempts which have a deadline or may be hedged.
+     *                 It must not be the executor of the callers, or the callers could wait for themselves.
+     */
+    public ResilientStorageBackend(StorageBackend delegate, ResilienceSettings settings, ExecutorService executor) {
+        this.delegate = delegate;
+        this.settings = settings;
+        this.executor = executor;
+        this.breaker = new CircuitBreaker(
+                settings.getBreakerFailureThreshold(),
+                settings.getBreakerOpenMillis(),
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    @Override
+    public Optional<StoredObject> get(String bucketName, String key, String eTag) throws StorageException {
+        return call(
+                "get \"" + bucketName + ":" + key + "\"",
+                () -> delegate.get(bucketName, key, eTag),
+                settings.getGetDeadlineMillis(),
+                settings.getMaxAttempts(),
+                settings.isHedgeEnabled(),
+                true,
+                ResilientStorageBackend::discard
+        );
+    }
+
+    /**
+     * Puts with a deadline copy their content first, and every attempt reads its own stream over the copy, since an
+     * abandoned attempt may still be reading after the caller reused its buffer for another object. Puts without a
+     * deadline run on the calling thread, and are only retried if their content can be reset to its start.
+     */
+    @Override
+    public String put(String bucketName, String key, StoredObject object) throws StorageException {
+        String description = "put \"" + bucketName + ":" + key + "\"";
+        if (settings.getPutDeadlineMillis() > 0) {
+            byte[] copy;
+            try {
+                copy = readContent(object);
+            } catch (IOException e) {
+                throw new StorageException("Unable to read the content of \"" + bucketName + ":" + key + "\"", e);
+            }
+            return call(
+                    description,
+                    () -> delegate.put(bucketName, key, new StoredObject(
+                            new ByteArrayInputStream(copy),
+                            copy.length,
+                            object.getContentType(),
+                            object.getContentEncoding(),
+                            null
+                    )),
+                    settings.getPutDeadlineMillis(),
+                    settings.getMaxAttempts(),
+                    false,
+                    true,
+                    eTag -> {
+                    }
+            );
+        }
+
+        InputStream content = object.getContent();
+        boolean resettable = content.markSupported();
+        if (resettable) {
+            content.mark(Integer.MAX_VALUE);
+        }
+        AtomicInteger attempts = new AtomicInteger();
+        return call(
+                description,
+                () -> {
+                    if (attempts.getAndIncrement() > 0) {
+                        try {
+                            content.reset();
+                        } catch (IOException e) {
+                            throw new StorageException("Unable to reset the content of \""
+                                    + bucketName + ":" + key + "\"", e);
+                        }
+                    }
+                    return delegate.put(bucketName, key, object);
+                },
+                0,
+                resettable ? settings.getMaxAttempts() : 1,
+                false,
+                false,
+                eTag -> {
+                }
+        );
+    }
+
+    @Override
+    public void delete(String bucketName, String key) throws StorageException {
+        call(
+                "delete \"" + bucketName + ":" + key + "\"",
+                () -> {
+                    delegate.delete(bucketName, key);
+                    return null;
+                },
+                settings.getDeleteDeadlineMillis(),
+                settings.getMaxAttempts(),
+                false,
+                true,
+                nothing -> {
+                }
+        );
+    }
+
+    /**
+     * Delegates a batch delete as a single attempt, since its result already tells which keys to delete again.
+     * Every key fails while the circuit breaker is open.
+     */
+    @Override
+    public Map<String, StorageException> deleteAll(String bucketName, Collection<String> keys) {
+        if (!breaker.tryAcquire()) {
+            StorageException error = unavailable("delete " + keys.size() + " objects of \"" + bucketName + "\"");
+            Map<String, StorageException> failures = new LinkedHashMap<>();
+            for (String key : keys) {
+                failures.put(key, error);
+            }
+            return failures;
+        }
+        Map<String, StorageException> failures;
+        try {
+            failures = delegate.deleteAll(bucketName, keys);
+        } catch (RuntimeException e) {
+            breaker.onFailure();
+            throw e;
+        }
+        if (failures.values().stream().anyMatch(StorageException::isRetryable)) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess();
+        }
+        return failures;
+    }
+
+    @Override
+    public KeyPage list(String bucketName, String prefix, String delimiter, String marker) throws StorageException {
+        return call(
+                "list \"" + bucketName + "\"",
+                () -> delegate.list(bucketName, prefix, delimiter, marker),
+                settings.getListDeadlineMillis(),
+                settings.getMaxAttempts(),
+                false,
+                true,
+                page -> {
+                }
+        );
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return breaker;
+    }
+
+    /**
+     * Makes a call, retrying it while it fails with a retryable error.
+     * Retryable errors count as failures of the circuit breaker, while other errors prove the backend answers.
+     *
+     * @param description    The description of the call, for errors.
+     * @param call           Makes one attempt of the call.
+     * @param deadlineMillis The deadline of an attempt, or 0 for none.
+     * @param maxAttempts    The maximum number of attempts.
+     * @param hedge          Whether an attempt may be hedged.
+     * @param retryLate      Whether an attempt which missed its deadline may be retried.
+     * @param discard        Releases the result of an abandoned attempt.
+     * @return The result of the first successful attempt.
+     * @throws StorageException If every attempt failed, or the circuit breaker refused an attempt.
+     */
+    private <T> T call(String description, Attempt<T> call, long deadlineMillis, int maxAttempts, boolean hedge,
+                       boolean retryLate, Consumer<? super T> discard) throws StorageException {
+        for (int attempt = 1; ; attempt++) {
+            if (!breaker.tryAcquire()) {
+                throw unavailable(description);
+            }
+            StorageException error;
+            try {
+                T result = attempt(description, call, deadlineMillis, hedge, retryLate, discard);
+                breaker.onSuccess();
+                return result;
+            } catch (DeadlineException e) {
+                breaker.onFailure();
+                error = e;
+            } catch (StorageException e) {
+                if (e.isRetryable()) {
+                    breaker.onFailure();
+                } else {
+                    breaker.onSuccess();
+                }
+                error = e;
+            } catch (RuntimeException e) {
+                breaker.onFailure();
+                throw e;
+            }
+            if (!error.isRetryable() || attempt >= maxAttempts) {
+                throw error;
+            }
+            try {
+                Thread.sleep(backoffMillis(attempt));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw error;
+            }
+        }
+    }
+
+    /**
+     * Makes one attempt of a call, hedged if it is slower than the hedge delay.
+     *
+     * @param description    The description of the call, for errors.
+     * @param call           Makes the attempt.
+     * @param deadlineMillis The deadline of the attempt, or 0 for none.
+     * @param hedge          Whether the attempt may be hedged.
+     * @param retryLate      Whether the attempt may be retried if it misses its deadline.
+     * @param discard        Releases the result of an abandoned or losing request.
+     * @return The result of the attempt.
+     * @throws StorageException If the attempt failed or missed its deadline.
+     */
+    private <T> T attempt(String description, Attempt<T> call, long deadlineMillis, boolean hedge,
+                          boolean retryLate, Consumer<? super T> discard) throws StorageException {
+        long hedgeDelay = hedge ? hedgeDelayNanos() : -1;
+        if (deadlineMillis <= 0 && hedgeDelay < 0) {
+            return hedge ? timed(call) : call.call();
+        }
+        long deadline = deadlineMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(deadlineMillis) : Long.MAX_VALUE;
+        Race<T> race = new Race<>(hedge, discard);
+        long start = System.nanoTime();
+        race.start(call);
+        try {
+            if (hedgeDelay >= 0 && hedgeDelay < deadline) {
+                try {
+                    return race.get(hedgeDelay);
+                } catch (TimeoutException e) {
+                    race.start(call);
+                }
+            }
+            return race.get(deadline == Long.MAX_VALUE ? deadline : deadline - (System.nanoTime() - start));
+        } catch (TimeoutException e) {
+            race.abandon();
+            throw new DeadlineException("Missed the deadline of " + deadlineMillis + " ms to " + description,
+                    retryLate);
+        }
+    }
+
+    /**
+     * Makes a get attempt on the calling thread, recording its latency.
+     */
+    private <T> T timed(Attempt<T> call) throws StorageException {
+        long start = System.nanoTime();
+        T result = call.call();
+        getLatencies.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    /**
+     * Returns the time after which a get is hedged, the hedge percentile of the observed gets, computed at most
+     * once per refresh interval.
+     *
+     * @return The hedge delay in nanoseconds, or -1 if too few gets were observed yet.
+     */
+    private long hedgeDelayNanos() {
+        long now = System.nanoTime();
+        if (now - hedgeComputedAt >= HEDGE_REFRESH_NANOS) {
+            hedgeComputedAt = now;
+            if (getLatencies.getCount() < settings.getHedgeMinSamples()) {
+                hedgeDelayNanos = -1;
+            } else {
+                hedgeDelayNanos = Math.max(
+                        TimeUnit.MILLISECONDS.toNanos(settings.getHedgeMinDelayMillis()),
+                        TimeUnit.MICROSECONDS.toNanos(getLatencies.getPercentileMicros(settings.getHedgePercentile()))
+                );
+            }
+        }
+        return hedgeDelayNanos;
+    }
+
+    /**
+     * Returns a random backoff before a retry, up to the base backoff doubled for every failed attempt.
+     *
+     * @param attempt The number of failed attempts.
+     * @return The backoff in milliseconds.
+     */
+    private long backoffMillis(int attempt) {
+        long cap = Math.min(
+                settings.getBackoffMaxMillis(),
+                settings.getBackoffBaseMillis() << Math.min(attempt - 1, 30)
+        );
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private StorageException unavailable(String description) {
+        return new StorageException("Unable to " + description + ": the storage backend is unavailable for another "
+                + breaker.getRemainingOpenTime(TimeUnit.MILLISECONDS) + " ms");
+    }
+
+    /**
+     * Reads the whole content of an object into a new array.
+     *
+     * @param object The object.
+     * @return The content.
+     * @throws IOException If the content cannot be read.
+     */
+    private static byte[] readContent(StoredObject object) throws IOException {
+        long length = object.getContentLength();
+        ByteArrayOutputStream content = new ByteArrayOutputStream(length > 0 && length < Integer.MAX_VALUE
+                ? (int) length
+                : 4096);
+        byte[] buffer = new byte[8192];
+        InputStream in = object.getContent();
+        for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+            content.write(buffer, 0, read);
+        }
+        return content.toByteArray();
+    }
+
+    private static void discard(Optional<StoredObject> object) {
+        if (object.isPresent()) {
+            try {
+                object.get().close();
+            } catch (IOException e) {
+                // The object was never used
+            }
+        }
+    }
+
+    /**
+     * Makes one attempt of a storage call.
+     */
+    @FunctionalInterface
+    private interface Attempt<T> {
+
+        T call() throws StorageException;
+    }
+
+    /**
+     * Thrown when an attempt missed its deadline.
+     */
+    private static class DeadlineException extends StorageException {
+
+        DeadlineException(String message, boolean retryable) {
+            super(message, null, retryable);
+        }
+    }
+
+    /**
+     * The requests of one attempt, whose first successful answer wins.
+     * Only the calling thread starts, waits for and abandons the requests.
+     */
+    private final class Race<T> {
+
+        private final CompletableFuture<T> winner = new CompletableFuture<>();
+        private final List<Future<?>> requests = new ArrayList<>(2);
+        private final AtomicInteger started = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final boolean timed;
+        private final Consumer<? super T> discard;
+
+        Race(boolean timed, Consumer<? super T> discard) {
+            this.timed = timed;
+            this.discard = discard;
+        }
+
+        void start(Attempt<T> call) throws StorageException {
+            started.incrementAndGet();
+            try {
+                requests.add(executor.submit(() -> run(call)));
+            } catch (RejectedExecutionException e) {
+                started.decrementAndGet();
+                if (requests.isEmpty()) {
+                    throw new StorageException("Unable to start a storage request", e);
+                }
+            }
+        }
+
+        private void run(Attempt<T> call) {
+            if (winner.isDone()) {
+                return;
+            }
+            try {
+                T result = timed ? timed(call) : call.call();
+                if (!winner.complete(result)) {
+                    discard.accept(result);
+                }
+            } catch (StorageException | RuntimeException e) {
+                // The attempt only fails once every request failed
+                if (failed.incrementAndGet() >= started.get()) {
+                    winner.completeExceptionally(e);
+                }
+            }
+        }
+
+        T get(long timeoutNanos) throws StorageException, TimeoutException {
+            try {
+                T result = winner.get(timeoutNanos, TimeUnit.NANOSECONDS);
+                cancelLosers();
+                return result;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                abandon();
+                throw new StorageException("Interrupted while waiting for a storage request", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof StorageException) {
+                    throw (StorageException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new StorageException(cause.toString(), cause);
+            }
+        }
+
+        /**
+         * Gives up on the requests, which release their results if they still complete.
+         */
+        void abandon() {
+            winner.cancel(false);
+            cancelLosers();
+        }
+
+        private void cancelLosers() {
+            for (Future<?> request : requests) {
+                request.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * A ByteArrayOutputStream which can be read back and reused without copying its contents.
+ */
+public class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+
+    public ReusableByteArrayOutputStream(int size) {
+        super(size);
+    }
+
+    /**
+     * Returns the internal buffer. Only the first {@link #size()} bytes are valid.
+     *
+     * @return The internal buffer.
+     */
+    public byte[] getBuffer() {
+        return buf;
+    }
+
+    /**
+     * Returns a stream over the written bytes, which shares the internal buffer.
+     * The stream is only valid until this output stream is written to or reset again.
+     *
+     * @return A stream over the written bytes.
+     */
+    public ByteArrayInputStream toInputStream() {
+        return new ByteArrayInputStream(buf, 0, count);
+    }
+
+    /**
+     * Returns the capacity of the internal buffer.
+     *
+     * @return The capacity of the internal buffer.
+     */
+    public int capacity() {
+        return buf.length;
+    }
+}
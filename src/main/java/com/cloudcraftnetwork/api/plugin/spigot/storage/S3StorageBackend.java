@@ -0,0 +1,232 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.storage;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * A storage backend which keeps every bucket in Amazon S3.
+ */
+public class S3StorageBackend implements StorageBackend {
+
+    /**
+     * The status code S3 answers with when an object does not exist.
+     */
+    private static final int NOT_FOUND = 404;
+
+    /**
+     * The status codes S3 answers with when a request timed out or was throttled, which are worth sending again.
+     */
+    private static final int REQUEST_TIMEOUT = 408;
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVER_ERROR = 500;
+
+    private final Supplier<AmazonS3> s3Client;
+
+    public S3StorageBackend(AmazonS3 s3Client) {
+        this(() -> s3Client);
+    }
+
+    /**
+     * @param s3Client Supplies the S3 client on every request, so the client can be created on first use.
+     */
+    public S3StorageBackend(Supplier<AmazonS3> s3Client) {
+        this.s3Client = s3Client;
+    }
+
+    @Override
+    public Optional<StoredObject> get(String bucketName, String key, String eTag) throws StorageException {
+        GetObjectRequest request = new GetObjectRequest(bucketName, key);
+        if (eTag != null) {
+            request.setNonmatchingETagConstraints(Collections.singletonList(eTag));
+        }
+        S3Object s3Object;
+        try {
+            s3Object = s3Client.get().getObject(request);
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == NOT_FOUND) {
+                return Optional.empty();
+            }
+            throw failure("Unable to get S3 Object \"" + bucketName + ":" + key + "\"", e);
+        } catch (AmazonClientException e) {
+            throw failure("Unable to get S3 Object \"" + bucketName + ":" + key + "\"", e);
+        }
+
+        // S3 answers a conditional request whose ETag still matches without an object
+        if (s3Object == null) {
+            return eTag == null ? Optional.empty() : Optional.of(StoredObject.notModified(eTag));
+        }
+        ObjectMetadata metadata = s3Object.getObjectMetadata();
+        return Optional.of(new StoredObject(
+                s3Object.getObjectContent(),
+                metadata.getContentLength(),
+                metadata.getContentType(),
+                metadata.getContentEncoding(),
+                metadata.getETag()
+        ));
+    }
+
+    @Override
+    public String put(String bucketName, String key, StoredObject object) throws StorageException {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(object.getContentLength());
+        metadata.setContentType(object.getContentType());
+        if (object.getContentEncoding() != null) {
+            metadata.setContentEncoding(object.getContentEncoding());
+        }
+        try {
+            return s3Client.get().putObject(bucketName, key, object.getContent(), metadata).getETag();
+        } catch (AmazonClientException e) {
+            throw failure("Unable to put S3 Object \"" + bucketName + ":" + key + "\"", e);
+        }
+    }
+
+    @Override
+    public void delete(String bucketName, String key) throws StorageException {
+        try {
+            s3Client.get().deleteObject(bucketName, key);
+        } catch (AmazonClientException e) {
+            throw failure("Unable to delete S3 Object \"" + bucketName + ":" + key + "\"", e);
+        }
+    }
+
+    /**
+     * Deletes the objects with multi-object delete requests of up to {@link #MAX_DELETE_KEYS} keys.
+     * A request which fails as a whole fails every key of its chunk, and the next chunks are still attempted.
+     */
+    @Override
+    public Map<String, StorageException> deleteAll(String bucketName, Collection<String> keys) {
+        Map<String, StorageException> failures = new LinkedHashMap<>();
+        List<String> chunk = new ArrayList<>(Math.min(keys.size(), MAX_DELETE_KEYS));
+        for (String key : keys) {
+            chunk.add(key);
+            if (chunk.size() == MAX_DELETE_KEYS) {
+                deleteChunk(bucketName, chunk, failures);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            deleteChunk(bucketName, chunk, failures);
+        }
+        return failures;
+    }
+
+    @Override
+    public KeyPage list(String bucketName, String prefix, String delimiter, String marker) throws StorageException {
+        ListObjectsRequest request = new ListObjectsRequest();
+        request.setBucketName(bucketName);
+        request.setPrefix(prefix);
+        request.setDelimiter(delimiter);
+        request.setMarker(marker);
+        request.setMaxKeys(MAX_KEYS);
+        ObjectListing listing;
+        try {
+            listing = s3Client.get().listObjects(request);
+        } catch (AmazonClientException e) {
+            throw failure("Unable to list S3 Bucket \"" + bucketName + "\"", e);
+        }
+
+        List<String> keys = new ArrayList<>(listing.getObjectSummaries().size() + listing.getCommonPrefixes().size());
+        for (S3ObjectSummary summary : listing.getObjectSummaries()) {
+            keys.add(summary.getKey());
+        }
+        keys.addAll(listing.getCommonPrefixes());
+        Collections.sort(keys);
+
+        // S3 only returns a next marker for delimited listings, otherwise the last key is the marker
+        String nextMarker = null;
+        if (listing.isTruncated()) {
+            nextMarker = listing.getNextMarker() != null
+                    ? listing.getNextMarker()
+                    : keys.isEmpty() ? null : keys.get(keys.size() - 1);
+        }
+        return new KeyPage(keys, nextMarker);
+    }
+
+    /**
+     * Deletes a chunk of keys with a single quiet multi-object delete request, which only reports the failed keys.
+     *
+     * @param bucketName The name of the bucket.
+     * @param keys       The keys, at most {@link #MAX_DELETE_KEYS}.
+     * @param failures   Receives the errors of the failed keys.
+     */
+    private void deleteChunk(String bucketName, List<String> keys, Map<String, StorageException> failures) {
+        DeleteObjectsRequest request = new DeleteObjectsRequest(bucketName)
+                .withKeys(keys.toArray(new String[keys.size()]))
+                .withQuiet(true);
+        try {
+            s3Client.get().deleteObjects(request);
+        } catch (MultiObjectDeleteException e) {
+            for (MultiObjectDeleteException.DeleteError error : e.getErrors()) {
+                failures.put(error.getKey(), new StorageException("Unable to delete S3 Object \""
+                        + bucketName + ":" + error.getKey() + "\": " + error.getCode() + " " + error.getMessage()));
+            }
+        } catch (AmazonClientException e) {
+            for (String key : keys) {
+                failures.put(key, failure("Unable to delete S3 Object \"" + bucketName + ":" + key + "\"", e));
+            }
+        }
+    }
+
+    /**
+     * Wraps an error of the S3 client.
+     * Errors without an answer from S3, such as connection failures, and answers which tell that S3 timed out,
+     * is throttling requests or failed internally, are retryable. Every other answer, such as a denied access,
+     * would fail again.
+     *
+     * @param message The detail message.
+     * @param e       The error of the S3 client.
+     * @return The storage exception.
+     */
+    private static StorageException failure(String message, AmazonClientException e) {
+        boolean retryable = true;
+        if (e instanceof AmazonServiceException) {
+            int status = ((AmazonServiceException) e).getStatusCode();
+            retryable = status >= SERVER_ERROR || status == REQUEST_TIMEOUT || status == TOO_MANY_REQUESTS;
+        }
+        return new StorageException(message, e, retryable);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.storage;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Stores the objects of the CloudCraftNetwork buckets.
+ * <p>
+ * Implementations must be safe to use from several threads at once.
+ */
+public interface StorageBackend {
+
+    /**
+     * The maximum number of keys returned in a single page.
+     */
+    int MAX_KEYS = 1000;
+
+    /**
+     * The maximum number of keys deleted by a single batch request.
+     */
+    int MAX_DELETE_KEYS = 1000;
+
+    /**
+     * Retrieves an object.
+     * The caller must close the returned object.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     * @param eTag       The ETag of a copy the caller already holds, or null.
+     *                   If the object still matches it, an object without content is returned.
+     * @return The object, or an empty Optional if the object does not exist.
+     * @throws StorageException If the object cannot be retrieved.
+     */
+    Optional<StoredObject> get(String bucketName, String key, String eTag) throws StorageException;
+
+    /**
+     * Stores an object, replacing any object with the same key.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     * @param object     The content and metadata of the object. Its content length must be known.
+     * @return The ETag of the stored object.
+     * @throws StorageException If the object cannot be stored.
+     */
+    String put(String bucketName, String key, StoredObject object) throws StorageException;
+
+    /**
+     * Deletes an object. Deleting an object which does not exist is not an error.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     * @throws StorageException If the object cannot be deleted.
+     */
+    void delete(String bucketName, String key) throws StorageException;
+
+    /**
+     * Deletes several objects. Deleting an object which does not exist is not an error.
+     * Failures are reported per key rather than thrown, so the caller can retry only the failed keys.
+     * <p>
+     * The default implementation deletes the objects one at a time. Backends which support batch requests
+     * delete up to {@link #MAX_DELETE_KEYS} objects per request.
+     *
+     * @param bucketName The name of the bucket.
+     * @param keys       The keys of the objects.
+     * @return The errors of the keys which could not be deleted, by key. Empty if every object was deleted.
+     */
+    default Map<String, StorageException> deleteAll(String bucketName, Collection<String> keys) {
+        Map<String, StorageException> failures = new LinkedHashMap<>();
+        for (String key : keys) {
+            try {
+                delete(bucketName, key);
+            } catch (StorageException e) {
+                failures.put(key, e);
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Lists a page of keys, in lexicographic order.
+     *
+     * @param bucketName The name of the bucket.
+     * @param prefix     The key prefix, or null. Only keys which match the prefix are returned.
+     * @param delimiter  The delimiter, or null. Keys which contain the delimiter after the prefix are rolled up
+     *                   into a single common prefix, which ends with the delimiter.
+     * @param marker     The marker returned with the previous page, or null for the first page.
+     * @return The page of keys.
+     * @throws StorageException If the keys cannot be listed.
+     */
+    KeyPage list(String bucketName, String prefix, String delimiter, String marker) throws StorageException;
+}
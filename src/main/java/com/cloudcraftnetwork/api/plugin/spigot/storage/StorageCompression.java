@@ -0,0 +1,179 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.storage;
+
+import net.jpountz.lz4.LZ4BlockInputStream;
+import net.jpountz.lz4.LZ4BlockOutputStream;
+import net.jpountz.lz4.LZ4Factory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The compression codecs stored objects can be compressed with.
+ * The codec of an object is recorded as its content encoding.
+ */
+public enum StorageCompression {
+
+    /**
+     * No compression.
+     */
+    NONE("identity", -1) {
+        @Override
+        public OutputStream compress(OutputStream outputStream, int level) {
+            return outputStream;
+        }
+
+        @Override
+        public InputStream decompress(InputStream inputStream) {
+            return inputStream;
+        }
+    },
+
+    /**
+     * Gzip, the compression level ranges from 1 (fastest) to 9 (smallest).
+     */
+    GZIP("gzip", 0x1f) {
+        @Override
+        public OutputStream compress(OutputStream outputStream, final int level) throws IOException {
+            return new GZIPOutputStream(outputStream, BUFFER_SIZE) {
+                {
+                    def.setLevel(Math.max(Deflater.BEST_SPEED, Math.min(Deflater.BEST_COMPRESSION, level)));
+                }
+            };
+        }
+
+        @Override
+        public InputStream decompress(InputStream inputStream) throws IOException {
+            return new GZIPInputStream(inputStream, BUFFER_SIZE);
+        }
+    },
+
+    /**
+     * LZ4 in its block stream format, several times faster than gzip at a lower ratio.
+     * Levels of 9 and above use the slower high compression compressor.
+     */
+    LZ4("x-lz4", 'L') {
+        @Override
+        public OutputStream compress(OutputStream outputStream, int level) {
+            LZ4Factory factory = LZ4Factory.fastestInstance();
+            return new LZ4BlockOutputStream(
+                    outputStream,
+                    LZ4_BLOCK_SIZE,
+                    level >= Deflater.BEST_COMPRESSION ? factory.highCompressor() : factory.fastCompressor()
+            );
+        }
+
+        @Override
+        public InputStream decompress(InputStream inputStream) {
+            return new LZ4BlockInputStream(inputStream);
+        }
+    };
+
+    /**
+     * The size of the buffers of the gzip streams.
+     */
+    private static final int BUFFER_SIZE = 4 * 1024;
+
+    /**
+     * The size of the blocks LZ4 compresses independently.
+     */
+    private static final int LZ4_BLOCK_SIZE = 64 * 1024;
+
+    private final String contentEncoding;
+
+    /**
+     * The first byte of every compressed stream, or -1 if the codec has no header.
+     * JSON and Smile documents never start with any of these bytes.
+     */
+    private final int firstByte;
+
+    StorageCompression(String contentEncoding, int firstByte) {
+        this.contentEncoding = contentEncoding;
+        this.firstByte = firstByte;
+    }
+
+    /**
+     * Wraps a stream so the bytes written to it are compressed.
+     * The returned stream must be closed to write the end of the compressed data.
+     *
+     * @param outputStream The stream the compressed bytes are written to.
+     * @param level        The compression level.
+     * @return The compressing stream.
+     * @throws IOException If the compressed stream header cannot be written.
+     */
+    public abstract OutputStream compress(OutputStream outputStream, int level) throws IOException;
+
+    /**
+     * Wraps a stream so the bytes read from it are decompressed on the fly.
+     *
+     * @param inputStream The stream of compressed bytes.
+     * @return The decompressing stream.
+     * @throws IOException If the compressed stream header cannot be read.
+     */
+    public abstract InputStream decompress(InputStream inputStream) throws IOException;
+
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    /**
+     * Returns the codec of a content encoding.
+     *
+     * @param contentEncoding The content encoding, may be null.
+     * @return The codec, or null if the content encoding is not the content encoding of a codec.
+     */
+    public static StorageCompression fromContentEncoding(String contentEncoding) {
+        if (contentEncoding == null) {
+            return null;
+        }
+        for (StorageCompression compression : values()) {
+            if (compression.contentEncoding.equalsIgnoreCase(contentEncoding.trim())) {
+                return compression;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the codec a stored object was compressed with, detected from its first byte.
+     *
+     * @param firstByte The first byte of the stored object, or -1 if the object is empty.
+     * @return The codec.
+     */
+    static StorageCompression detect(int firstByte) {
+        for (StorageCompression compression : values()) {
+            if (compression.firstByte >= 0 && compression.firstByte == firstByte) {
+                return compression;
+            }
+        }
+        return NONE;
+    }
+}
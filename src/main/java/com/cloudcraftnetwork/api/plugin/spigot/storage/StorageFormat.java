@@ -0,0 +1,77 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.storage;
+
+/**
+ * The formats info objects can be stored in.
+ */
+public enum StorageFormat {
+
+    /**
+     * Plain JSON text, readable by every version of the API.
+     */
+    JSON("application/json"),
+
+    /**
+     * Smile, Jackson's binary JSON encoding. Smaller and faster to parse than JSON, UUIDs are stored as 16 bytes.
+     */
+    SMILE("application/x-jackson-smile");
+
+    /**
+     * The first byte of every Smile document, which can never start a JSON document.
+     */
+    static final int SMILE_FIRST_BYTE = ':';
+
+    private final String contentType;
+
+    StorageFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Returns the format of a content type.
+     *
+     * @param contentType The content type, may be null or carry parameters such as a charset.
+     * @return The format, or null if the content type is not the content type of a format.
+     */
+    public static StorageFormat fromContentType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        int parameters = contentType.indexOf(';');
+        String mediaType = (parameters >= 0 ? contentType.substring(0, parameters) : contentType).trim();
+        for (StorageFormat format : values()) {
+            if (format.contentType.equalsIgnoreCase(mediaType)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The raw content of a stored object, along with its metadata.
+ * <p>
+ * A StoredObject returned by a conditional get whose ETag still matched carries no content,
+ * see {@link #isModified()}.
+ */
+public class StoredObject implements Closeable {
+
+    /**
+     * The content of the object, or null if the object was not modified.
+     */
+    private final InputStream content;
+
+    /**
+     * The length of the content in bytes, or -1 if it is unknown.
+     */
+    private final long contentLength;
+
+    /**
+     * The content type of the object, may be null.
+     */
+    private final String contentType;
+
+    /**
+     * The content encoding of the object, may be null.
+     */
+    private final String contentEncoding;
+
+    /**
+     * The ETag of the object, may be null.
+     */
+    private final String eTag;
+
+    public StoredObject(InputStream content, long contentLength, String contentType, String eTag) {
+        this(content, contentLength, contentType, null, eTag);
+    }
+
+    public StoredObject(InputStream content, long contentLength, String contentType, String contentEncoding,
+                        String eTag) {
+        this.content = content;
+        this.contentLength = contentLength;
+        this.contentType = contentType;
+        this.contentEncoding = contentEncoding;
+        this.eTag = eTag;
+    }
+
+    /**
+     * Creates the result of a conditional get whose ETag still matched.
+     *
+     * @param eTag The ETag of the object.
+     * @return An object without content.
+     */
+    public static StoredObject notModified(String eTag) {
+        return new StoredObject(null, -1, null, eTag);
+    }
+
+    /**
+     * Checks whether the object carries content.
+     *
+     * @return false if the object was requested conditionally and its ETag still matched, true otherwise.
+     */
+    public boolean isModified() {
+        return content != null;
+    }
+
+    public InputStream getContent() {
+        return content;
+    }
+
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (content != null) {
+            content.close();
+        }
+    }
+}
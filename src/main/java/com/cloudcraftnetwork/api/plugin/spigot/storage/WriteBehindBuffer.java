@@ -0,0 +1,266 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.storage;
+
+import com.cloudcraftnetwork.api.plugin.spigot.info.CloudCraftNetworkInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Buffers the puts of a single bucket and uploads them later.
+ * <p>
+ * Only the latest object of every key is kept, so repeated puts of the same key between two flushes
+ * result in a single upload. Objects which fail to upload stay buffered for the next flush.
+ * <p>
+ * Every put is buffered as a new entry, even when it puts the same instance again, and an upload only clears the
+ * entry it uploaded, so a put made while the object uploads is uploaded by the next flush. Uploads hold the lock
+ * of their key, which deletes also hold while they discard the buffered object, so a flush never uploads an object
+ * which was deleted meanwhile. The same lock keeps two flushes from uploading different versions of a key out of
+ * order, so flushes of different keys never wait for each other.
+ */
+public class WriteBehindBuffer {
+
+    /**
+     * A task which helps a full flush upload its objects, unless the flushing thread claims it before it starts.
+     */
+    private static final class Helper implements Runnable {
+
+        private final Runnable worker;
+
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private Helper(Runnable worker) {
+            this.worker = worker;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                worker.run();
+            } finally {
+                done.countDown();
+            }
+        }
+
+        /**
+         * Waits for the task to finish if it has started, or keeps it from starting otherwise.
+         */
+        private void await() {
+            if (!claimed.compareAndSet(false, true)) {
+                try {
+                    done.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * A buffered put. Entries are compared by identity, so every put is a distinct entry.
+     */
+    private static final class Entry {
+
+        private final CloudCraftNetworkInfo object;
+
+        private Entry(CloudCraftNetworkInfo object) {
+            this.object = object;
+        }
+    }
+
+    /**
+     * Uploads an object, returning true on success.
+     */
+    private final Predicate<CloudCraftNetworkInfo> uploader;
+
+    /**
+     * Returns the lock which serializes the uploads and deletes of a key.
+     */
+    private final Function<String, Lock> keyLocks;
+
+    /**
+     * The buffered puts, by key.
+     */
+    private final Map<String, Entry> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Executor which uploads the objects of a full flush.
+     */
+    private final Executor executor;
+
+    /**
+     * The number of objects a full flush uploads at the same time.
+     */
+    private final int parallelism;
+
+    /**
+     * Creates a buffer whose flushes upload one object at a time on the flushing thread.
+     *
+     * @param uploader Uploads an object, returning true on success.
+     * @param keyLocks Returns the lock which serializes the uploads and deletes of a key. Deletes must discard the
+     *                 buffered object while they hold it.
+     */
+    public WriteBehindBuffer(Predicate<CloudCraftNetworkInfo> uploader, Function<String, Lock> keyLocks) {
+        this(uploader, keyLocks, Runnable::run, 1);
+    }
+
+    /**
+     * @param uploader    Uploads an object, returning true on success.
+     * @param keyLocks    Returns the lock which serializes the uploads and deletes of a key. Deletes must discard
+     *                    the buffered object while they hold it.
+     * @param executor    Executor which uploads the objects of a full flush, alongside the flushing thread.
+     * @param parallelism The number of objects a full flush uploads at the same time.
+     */
+    public WriteBehindBuffer(Predicate<CloudCraftNetworkInfo> uploader, Function<String, Lock> keyLocks,
+                             Executor executor, int parallelism) {
+        this.uploader = uploader;
+        this.keyLocks = keyLocks;
+        this.executor = executor;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Buffers an object, replacing any buffered object with the same key.
+     *
+     * @param object The object.
+     */
+    public void add(CloudCraftNetworkInfo object) {
+        pending.put(object.createKey(), new Entry(object));
+    }
+
+    /**
+     * Returns the buffered object of a key, which is newer than the stored one.
+     *
+     * @param key The key of the object.
+     * @return The buffered object, if there is one.
+     */
+    public Optional<CloudCraftNetworkInfo> get(String key) {
+        Entry entry = pending.get(key);
+        return entry != null ? Optional.of(entry.object) : Optional.empty();
+    }
+
+    /**
+     * Drops the buffered object of a key without uploading it.
+     *
+     * @param key The key of the object.
+     */
+    public void discard(String key) {
+        pending.remove(key);
+    }
+
+    /**
+     * Uploads every buffered object.
+     * The flushing thread uploads objects alongside up to parallelism - 1 tasks on the executor. Tasks which have
+     * not started by the time the flushing thread runs out of objects are skipped rather than waited for,
+     * so a flush never waits for a busy executor.
+     *
+     * @return The number of objects which failed to upload and are still buffered.
+     */
+    public int flush() {
+        Queue<String> keys = new ConcurrentLinkedQueue<>(pending.keySet());
+        AtomicInteger failures = new AtomicInteger();
+        Runnable worker = () -> {
+            for (String key = keys.poll(); key != null; key = keys.poll()) {
+                if (!flush(key)) {
+                    failures.incrementAndGet();
+                }
+            }
+        };
+
+        List<Helper> helpers = new ArrayList<>();
+        for (int i = 1; i < Math.min(parallelism, keys.size()); i++) {
+            Helper helper = new Helper(worker);
+            try {
+                executor.execute(helper);
+            } catch (RejectedExecutionException e) {
+                // The executor is shutting down, so the flushing thread uploads the remaining objects alone
+                break;
+            }
+            helpers.add(helper);
+        }
+        worker.run();
+
+        for (Helper helper : helpers) {
+            helper.await();
+        }
+        return failures.get();
+    }
+
+    /**
+     * Uploads the buffered object of a single key.
+     *
+     * @param key The key of the object.
+     * @return true if nothing was buffered or the upload succeeded, false otherwise.
+     */
+    public boolean flush(String key) {
+        Lock lock = keyLocks.apply(key);
+        lock.lock();
+        try {
+            // Read the entry under the key lock, so an object discarded by a delete is never uploaded
+            Entry entry = pending.get(key);
+            if (entry == null) {
+                return true;
+            }
+            if (!uploader.test(entry.object)) {
+                return false;
+            }
+            // Keep the object buffered until it is stored, so reads never see an older version.
+            // A put made during the upload replaced the entry, so it stays buffered for the next flush
+            pending.remove(key, entry);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of buffered objects.
+     *
+     * @return The number of buffered objects.
+     */
+    public int size() {
+        return pending.size();
+    }
+}
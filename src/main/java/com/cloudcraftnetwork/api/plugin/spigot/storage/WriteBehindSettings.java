@@ -0,0 +1,79 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.storage;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The write-behind settings of a single bucket.
+ */
+public class WriteBehindSettings {
+
+    public static final boolean DEFAULT_ENABLED = false;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    /**
+     * Whether puts are buffered locally instead of being uploaded right away.
+     */
+    private final boolean enabled;
+
+    /**
+     * The time between two uploads of the buffered objects.
+     */
+    private final long flushIntervalMillis;
+
+    public WriteBehindSettings(boolean enabled, long flushIntervalMillis) {
+        this.enabled = enabled;
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    /**
+     * Reads write-behind settings from a configuration section.
+     * Missing values, or a missing section, fall back to the defaults.
+     *
+     * @param section The configuration section, may be null.
+     * @return The write-behind settings.
+     */
+    public static WriteBehindSettings fromConfig(ConfigurationSection section) {
+        if (section == null) {
+            return new WriteBehindSettings(DEFAULT_ENABLED, DEFAULT_FLUSH_INTERVAL_MILLIS);
+        }
+        return new WriteBehindSettings(
+                section.getBoolean("enabled", DEFAULT_ENABLED),
+                section.getLong("flush-interval-millis", DEFAULT_FLUSH_INTERVAL_MILLIS)
+        );
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+}
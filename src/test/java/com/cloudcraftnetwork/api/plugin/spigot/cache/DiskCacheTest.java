@@ -0,0 +1,172 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.cache;
+
+import com.cloudcraftnetwork.api.plugin.spigot.storage.StoredObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DiskCacheTest {
+
+    private Path directory;
+    private DiskCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("disk-cache");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (cache != null) {
+            cache.close();
+        }
+        for (Path file : segmentFiles()) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void replaysObjectsAfterReopen() throws IOException {
+        cache = open(1024 * 1024, 1024 * 1024);
+        put("a", "first");
+        put("b", "second");
+        put("a", "third");
+        cache.remove("b");
+        cache.close();
+
+        cache = open(1024 * 1024, 1024 * 1024);
+        assertEquals(1, cache.size());
+        assertEquals("etag-third", cache.lookup("a").get().getETag());
+        assertEquals("third", read("a"));
+        assertFalse(cache.lookup("b").isPresent());
+    }
+
+    @Test
+    public void replayDropsTornRecord() throws IOException {
+        cache = open(1024 * 1024, 1024 * 1024);
+        put("a", "first");
+        put("b", "second");
+        cache.close();
+
+        Path segment = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        cache = open(1024 * 1024, 1024 * 1024);
+        assertEquals(Collections.singletonList("a"), cache.getKeys());
+        assertEquals("first", read("a"));
+
+        // The torn record was truncated, so records appended after it are replayed too
+        put("c", "third");
+        cache.close();
+        cache = open(1024 * 1024, 1024 * 1024);
+        assertEquals(Arrays.asList("a", "c"), cache.getKeys());
+        assertEquals("third", read("c"));
+    }
+
+    @Test
+    public void compactionKeepsRecentlyUsedObjectsWithinLimit() throws IOException {
+        long maxBytes = 4096;
+        cache = open(maxBytes, 1024);
+        byte[] content = new byte[100];
+        for (int i = 0; i < 200; i++) {
+            Arrays.fill(content, (byte) i);
+            cache.put("key-" + i, content, 0, content.length, null, null, "etag-" + i);
+            assertTrue(cache.getFileBytes() <= maxBytes);
+        }
+
+        List<String> keys = cache.getKeys();
+        assertTrue(keys.size() < 200);
+        assertEquals("key-199", keys.get(keys.size() - 1));
+        assertFalse(cache.lookup("key-0").isPresent());
+
+        int size = cache.size();
+        cache.close();
+        cache = open(maxBytes, 1024);
+        assertEquals(size, cache.size());
+        StoredObject object = cache.get("key-199").get();
+        Arrays.fill(content, (byte) 199);
+        assertArrayEquals(content, readFully(object.getContent()));
+    }
+
+    private DiskCache open(long maxBytes, long segmentBytes) throws IOException {
+        DiskCache diskCache = new DiskCache(directory, new DiskCacheSettings(true, null, maxBytes, segmentBytes));
+        diskCache.open();
+        return diskCache;
+    }
+
+    private void put(String key, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        cache.put(key, bytes, 0, bytes.length, "text/plain", null, "etag-" + content);
+    }
+
+    private String read(String key) throws IOException {
+        return new String(readFully(cache.get(key).get().getContent()), StandardCharsets.UTF_8);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    private static byte[] readFully(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        for (int read = inputStream.read(buffer); read >= 0; read = inputStream.read(buffer)) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.changefeed;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ChangeFeedTest {
+
+    @Test
+    public void deliversChangesToOtherNodesOnly() throws IOException {
+        LoopbackChangeFeedTransport transport = new LoopbackChangeFeedTransport();
+        List<ChangeRecord> received = new ArrayList<>();
+        List<ChangeRecord> echoed = new ArrayList<>();
+        ChangeFeed publisher = new ChangeFeed(transport, echoed::add);
+        ChangeFeed subscriber = new ChangeFeed(transport.connect(), received::add);
+
+        publisher.record("bucket", "a", "v1");
+        publisher.record("bucket", "b", null);
+        assertEquals(2, publisher.getPendingCount());
+        assertEquals(2, publisher.flush());
+        assertEquals(0, publisher.flush());
+
+        assertEquals(2, subscriber.poll());
+        assertEquals(0, publisher.poll());
+        assertTrue(echoed.isEmpty());
+
+        assertEquals("a", received.get(0).getKey());
+        assertEquals("v1", received.get(0).getVersion());
+        assertFalse(received.get(0).isDeleted());
+        assertEquals("b", received.get(1).getKey());
+        assertNull(received.get(1).getVersion());
+        assertTrue(received.get(1).isDeleted());
+    }
+
+    @Test
+    public void coalescesChangesOfSameKey() throws IOException {
+        LoopbackChangeFeedTransport transport = new LoopbackChangeFeedTransport();
+        List<ChangeRecord> received = new ArrayList<>();
+        ChangeFeed publisher = new ChangeFeed(transport, change -> {
+        });
+        ChangeFeed subscriber = new ChangeFeed(transport.connect(), received::add);
+
+        publisher.record("bucket", "a", "v1");
+        publisher.record("bucket", "b", "v1");
+        publisher.record("bucket", "a", "v2");
+        assertEquals(2, publisher.flush());
+
+        subscriber.poll();
+        assertEquals(2, received.size());
+        // The latest change of a key moves to the end, so the order of the changes is kept
+        assertEquals("b", received.get(0).getKey());
+        assertEquals("a", received.get(1).getKey());
+        assertEquals("v2", received.get(1).getVersion());
+    }
+
+    @Test
+    public void failedPublishKeepsChangesPending() throws IOException {
+        AtomicBoolean available = new AtomicBoolean(false);
+        List<ChangeBatch> published = new ArrayList<>();
+        ChangeFeedTransport transport = new ChangeFeedTransport() {
+            @Override
+            public void publish(ChangeBatch batch) throws IOException {
+                if (!available.get()) {
+                    throw new IOException("unavailable");
+                }
+                published.add(batch);
+            }
+
+            @Override
+            public List<ChangeBatch> poll() {
+                return Collections.emptyList();
+            }
+        };
+        ChangeFeed feed = new ChangeFeed(transport, change -> {
+        });
+
+        feed.record("bucket", "a", "v1");
+        try {
+            feed.flush();
+            fail("expected the publish to fail");
+        } catch (IOException e) {
+            assertEquals(1, feed.getPendingCount());
+        }
+
+        // A change recorded after the failure supersedes the failed one
+        feed.record("bucket", "a", "v2");
+        available.set(true);
+        assertEquals(1, feed.flush());
+        assertEquals(1, published.size());
+        assertEquals("v2", published.get(0).getChanges().get(0).getVersion());
+    }
+
+    @Test
+    public void deliversBatchesInCreationOrder() throws IOException {
+        LoopbackChangeFeedTransport transport = new LoopbackChangeFeedTransport();
+        LoopbackChangeFeedTransport subscriberTransport = transport.connect();
+        AtomicLong clock = new AtomicLong(1000);
+        ChangeFeed late = new ChangeFeed(transport.connect(), change -> {
+        }, clock::get);
+        ChangeFeed early = new ChangeFeed(transport.connect(), change -> {
+        }, () -> 500);
+        List<ChangeRecord> received = new ArrayList<>();
+        ChangeFeed subscriber = new ChangeFeed(subscriberTransport, received::add);
+
+        late.record("bucket", "late", "v1");
+        late.flush();
+        early.record("bucket", "early", "v1");
+        early.flush();
+
+        assertEquals(2, subscriber.poll());
+        assertEquals("early", received.get(0).getKey());
+        assertEquals("late", received.get(1).getKey());
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.concurrent;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SingleFlightTest {
+
+    @Test
+    public void concurrentCallsShareOneResult() throws Exception {
+        SingleFlight<String, Object> flights = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch calling = new CountDownLatch(1);
+        AtomicReference<Thread> followerThread = new AtomicReference<>();
+        Object result = new Object();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> leader = executor.submit(() -> flights.execute("key", () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                // Keep the call in flight until the follower is blocked waiting for it
+                await(calling);
+                awaitParked(followerThread.get());
+                return result;
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Future<Object> follower = executor.submit(() -> {
+                followerThread.set(Thread.currentThread());
+                calling.countDown();
+                return flights.execute("key", () -> {
+                    calls.incrementAndGet();
+                    return new Object();
+                });
+            });
+
+            assertSame(result, leader.get(5, TimeUnit.SECONDS));
+            assertSame(result, follower.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+            assertEquals(0, flights.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void laterCallRunsAgain() {
+        SingleFlight<String, Integer> flights = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        assertEquals(Integer.valueOf(1), flights.execute("key", calls::incrementAndGet));
+        assertEquals(Integer.valueOf(2), flights.execute("key", calls::incrementAndGet));
+    }
+
+    @Test
+    public void failureIsRethrownAndForgotten() {
+        SingleFlight<String, Integer> flights = new SingleFlight<>();
+        try {
+            flights.execute("key", () -> {
+                throw new IllegalStateException("boom");
+            });
+            fail("expected the failure of the call");
+        } catch (IllegalStateException e) {
+            assertEquals("boom", e.getMessage());
+        }
+        assertEquals(0, flights.size());
+        assertEquals(Integer.valueOf(3), flights.execute("key", () -> 3));
+    }
+
+    /**
+     * Waits until a thread is blocked, which the follower only is while it waits for the call in flight.
+     * A follower which wrongly ran its own call goes back to the pool, and blocks there.
+     */
+    private static void awaitParked(Thread thread) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
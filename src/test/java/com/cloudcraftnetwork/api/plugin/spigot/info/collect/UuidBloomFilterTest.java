@@ -0,0 +1,99 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.info.collect;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class UuidBloomFilterTest {
+
+    @Test
+    public void neverMissesAddedUuids() {
+        List<UUID> uuids = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            uuids.add(UUID.randomUUID());
+        }
+        UuidBloomFilter filter = UuidBloomFilter.of(uuids, uuids.size(), 0.01);
+        for (UUID uuid : uuids) {
+            assertTrue(filter.mightContain(uuid));
+        }
+    }
+
+    @Test
+    public void falsePositiveRateStaysNearTarget() {
+        int size = 10000;
+        UuidBloomFilter filter = new UuidBloomFilter(size, 0.01);
+        for (int i = 0; i < size; i++) {
+            filter.add(UUID.randomUUID());
+        }
+        int falsePositives = 0;
+        int probes = 100000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+        // The bit count is rounded up to a power of two, so the rate is at most the target, with some slack
+        assertTrue("false positive rate " + (double) falsePositives / probes, falsePositives < probes * 0.02);
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        UUID first = new UUID(1, 2);
+        UuidBloomFilter filter = new UuidBloomFilter(100, 0.001);
+        filter.add(first);
+        UuidBloomFilter copy = filter.copy();
+        assertTrue(copy.mightContain(first));
+        assertEquals(filter.getBitCount(), copy.getBitCount());
+        assertEquals(filter.getHashCount(), copy.getHashCount());
+
+        UUID second = new UUID(0x0123456789abcdefL, 0x0fedcba987654321L);
+        assertFalse(filter.mightContain(second));
+        copy.add(second);
+        assertTrue(copy.mightContain(second));
+        assertFalse(filter.mightContain(second));
+    }
+
+    @Test
+    public void rejectsInvalidFalsePositiveRate() {
+        for (double rate : new double[]{0, 1, -0.5}) {
+            try {
+                new UuidBloomFilter(10, rate);
+                fail("expected rate " + rate + " to be rejected");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.info.collect;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class UuidTableTest {
+
+    @Test
+    public void insertFindsExistingUuid() {
+        UuidTable table = new UuidTable(4, true);
+        assertEquals(-1, table.insert(1, 2, 10));
+        int index = table.insert(1, 2, 20);
+        assertTrue(index >= 0);
+        assertEquals(10, table.valueAt(index));
+        assertEquals(index, table.indexOf(1, 2));
+        assertEquals(-1, table.indexOf(2, 1));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    public void removedSlotsAreSkippedAndReused() {
+        UuidTable table = new UuidTable(4, false);
+        table.insert(1, 1, 0);
+        table.insert(2, 2, 0);
+        table.removeAt(table.indexOf(1, 1));
+        assertEquals(-1, table.indexOf(1, 1));
+        assertTrue(table.indexOf(2, 2) >= 0);
+        assertEquals(1, table.size());
+
+        assertEquals(-1, table.insert(1, 1, 0));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    public void matchesHashMapAcrossGrowthAndRemovals() {
+        Random random = new Random(42);
+        UuidTable table = new UuidTable(1, true);
+        Map<UUID, Integer> expected = new HashMap<>();
+        UUID[] uuids = new UUID[500];
+        for (int i = 0; i < uuids.length; i++) {
+            uuids[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+
+        for (int step = 0; step < 20000; step++) {
+            UUID uuid = uuids[random.nextInt(uuids.length)];
+            long msb = uuid.getMostSignificantBits();
+            long lsb = uuid.getLeastSignificantBits();
+            if (random.nextBoolean()) {
+                int index = table.insert(msb, lsb, step);
+                if (index >= 0) {
+                    table.setValueAt(index, step);
+                }
+                expected.put(uuid, step);
+            } else {
+                int index = table.indexOf(msb, lsb);
+                if (index >= 0) {
+                    table.removeAt(index);
+                }
+                assertEquals(expected.remove(uuid) != null, index >= 0);
+            }
+        }
+
+        assertEquals(expected.size(), table.size());
+        int count = 0;
+        for (int i = table.nextIndex(0); i >= 0; i = table.nextIndex(i + 1)) {
+            UUID uuid = new UUID(table.mostSigBitsAt(i), table.leastSigBitsAt(i));
+            assertEquals(expected.get(uuid), Integer.valueOf(table.valueAt(i)));
+            count++;
+        }
+        assertEquals(expected.size(), count);
+    }
+
+    @Test
+    public void clearEmptiesTable() {
+        UuidTable table = new UuidTable(8, false);
+        table.insert(1, 2, 0);
+        int modCount = table.modCount();
+        table.clear();
+        assertEquals(0, table.size());
+        assertEquals(-1, table.indexOf(1, 2));
+        assertEquals(-1, table.nextIndex(0));
+        assertTrue(table.modCount() != modCount);
+    }
+}
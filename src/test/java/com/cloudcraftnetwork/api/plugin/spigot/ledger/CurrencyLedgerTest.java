@@ -0,0 +1,142 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.ledger;
+
+import com.cloudcraftnetwork.api.plugin.spigot.info.CurrencyDeltaInfo;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+public class CurrencyLedgerTest {
+
+    private final CurrencyLedger ledger = new CurrencyLedger();
+
+    @Test
+    public void flushDrainsOneRecordPerPlayer() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        ledger.addDewPoints(first, 5);
+        ledger.addDewPoints(first, -2);
+        ledger.addFrostPoints(first, 1.5);
+        ledger.addDewPoints(second, 7);
+        assertEquals(3, ledger.getPendingDewPoints(first));
+        assertEquals(1.5, ledger.getPendingFrostPoints(first), 0);
+
+        List<CurrencyDeltaInfo> uploaded = new ArrayList<>();
+        assertEquals(0, ledger.flush(uploaded::add));
+        assertEquals(2, uploaded.size());
+        for (CurrencyDeltaInfo record : uploaded) {
+            if (record.getPlayerId().equals(first)) {
+                assertEquals(3, record.getDewPoints());
+                assertEquals(1.5, record.getFrostPoints(), 0);
+            } else {
+                assertEquals(second, record.getPlayerId());
+                assertEquals(7, record.getDewPoints());
+            }
+        }
+        assertEquals(0, ledger.getPendingDewPoints(first));
+
+        uploaded.clear();
+        assertEquals(0, ledger.flush(uploaded::add));
+        assertEquals(0, uploaded.size());
+    }
+
+    @Test
+    public void failedRecordIsRetriedUnderSameKey() {
+        UUID playerId = UUID.randomUUID();
+        ledger.addDewPoints(playerId, 10);
+
+        List<CurrencyDeltaInfo> attempts = new ArrayList<>();
+        assertEquals(1, ledger.flush(record -> {
+            attempts.add(record);
+            return false;
+        }));
+        assertEquals(1, ledger.getUnflushedRecords());
+        // Unflushed records still count as pending
+        assertEquals(10, ledger.getPendingDewPoints(playerId));
+
+        ledger.addDewPoints(playerId, 1);
+        assertEquals(0, ledger.flush(attempts::add));
+        assertEquals(0, ledger.getUnflushedRecords());
+        assertEquals(3, attempts.size());
+        assertEquals(attempts.get(0).createKey(), attempts.get(1).createKey());
+        assertEquals(10, attempts.get(1).getDewPoints());
+        assertEquals(1, attempts.get(2).getDewPoints());
+    }
+
+    @Test
+    public void concurrentChangesAreNeverLost() throws Exception {
+        UUID playerId = UUID.randomUUID();
+        AtomicLong uploaded = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+        int threads = 4;
+        int changes = 50000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        try {
+            Future<?> flusher = executor.submit(() -> {
+                while (running.get()) {
+                    ledger.flush(record -> {
+                        uploaded.addAndGet(record.getDewPoints());
+                        return true;
+                    });
+                }
+            });
+            List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                writers.add(executor.submit(() -> {
+                    for (int j = 0; j < changes; j++) {
+                        ledger.addDewPoints(playerId, 1);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            running.set(false);
+            flusher.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        ledger.flush(record -> {
+            uploaded.addAndGet(record.getDewPoints());
+            return true;
+        });
+
+        assertEquals((long) threads * changes, uploaded.get());
+        assertEquals(0, ledger.getPendingDewPoints(playerId));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.session;
+
+import com.cloudcraftnetwork.api.plugin.spigot.AbstractSpigotCloudCraftNetworkPlugin.Bucket;
+import com.cloudcraftnetwork.api.plugin.spigot.info.CostumeInfo;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PlayerSessionsTest {
+
+    private final PlayerSessions sessions = new PlayerSessions();
+
+    @Test
+    public void sharedObjectStaysPinnedUntilLastSessionCloses() {
+        UUID costumeId = UUID.randomUUID();
+        String key = costumeId.toString();
+        PlayerSession first = session(new CostumeInfo(costumeId));
+        PlayerSession second = session(new CostumeInfo(costumeId));
+        sessions.open(first);
+        sessions.open(second);
+
+        sessions.close(first.getPlayerId());
+        assertSame(second.getCostume().get(), sessions.getPinned(Bucket.COSTUMES, key));
+
+        sessions.close(second.getPlayerId());
+        assertNull(sessions.getPinned(Bucket.COSTUMES, key));
+    }
+
+    @Test
+    public void updateReplacesSharedObjectInEverySession() {
+        UUID costumeId = UUID.randomUUID();
+        String key = costumeId.toString();
+        PlayerSession first = session(new CostumeInfo(costumeId));
+        PlayerSession second = session(new CostumeInfo(costumeId));
+        sessions.open(first);
+        sessions.open(second);
+        // The session which opened last shares the copy of the session which was already open
+        assertSame(first.getCostume().get(), second.getCostume().get());
+
+        CostumeInfo updated = new CostumeInfo(costumeId);
+        sessions.replacePinned(Bucket.COSTUMES, key, first.getCostume().get(), updated, "etag");
+        assertSame(updated, first.getCostume().get());
+        assertSame(updated, second.getCostume().get());
+        assertEquals("etag", sessions.getPin(Bucket.COSTUMES, key).getETag());
+
+        sessions.updatePinned(Bucket.COSTUMES, key, null);
+        assertTrue(!first.getCostume().isPresent() && !second.getCostume().isPresent());
+        assertNull(sessions.getPin(Bucket.COSTUMES, key));
+    }
+
+    @Test
+    public void reportsObjectsChangedWhileLoading() {
+        UUID costumeId = UUID.randomUUID();
+        PlayerSession session = session(new CostumeInfo(costumeId));
+        sessions.beginLoad(session.getPlayerId());
+        sessions.markChanged(Bucket.COSTUMES, costumeId.toString());
+        assertEquals(Collections.singleton(Bucket.COSTUMES), sessions.open(session));
+    }
+
+    private static PlayerSession session(CostumeInfo costume) {
+        return new PlayerSession(UUID.randomUUID(), Collections.singletonMap(Bucket.COSTUMES, costume));
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.storage;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class MemoryStorageBackendTest {
+
+    private final MemoryStorageBackend storage = new MemoryStorageBackend();
+
+    @Test
+    public void putThenGetReturnsContent() throws Exception {
+        byte[] content = "hello".getBytes(StandardCharsets.UTF_8);
+        String eTag = put("bucket", "key", content);
+        assertNotNull(eTag);
+
+        StoredObject object = storage.get("bucket", "key", null).get();
+        assertTrue(object.isModified());
+        assertEquals(eTag, object.getETag());
+        assertEquals("application/json", object.getContentType());
+        assertArrayEquals(content, readFully(object.getContent()));
+
+        assertFalse(storage.get("other", "key", null).isPresent());
+    }
+
+    @Test
+    public void conditionalGetReturnsNotModified() throws Exception {
+        String eTag = put("bucket", "key", new byte[]{1, 2, 3});
+
+        StoredObject unchanged = storage.get("bucket", "key", eTag).get();
+        assertFalse(unchanged.isModified());
+        assertEquals(eTag, unchanged.getETag());
+
+        String newETag = put("bucket", "key", new byte[]{4, 5});
+        StoredObject changed = storage.get("bucket", "key", eTag).get();
+        assertTrue(changed.isModified());
+        assertEquals(newETag, changed.getETag());
+    }
+
+    @Test
+    public void deleteRemovesObject() throws Exception {
+        put("bucket", "key", new byte[]{1});
+        storage.delete("bucket", "key");
+        assertEquals(Optional.empty(), storage.get("bucket", "key", null));
+    }
+
+    @Test
+    public void listPagesByPrefixAndDelimiter() throws Exception {
+        for (String key : Arrays.asList("a/1", "a/2", "a/b/3", "b/1")) {
+            put("bucket", key, new byte[]{0});
+        }
+
+        KeyPage page = storage.list("bucket", "a/", "/", null);
+        assertEquals(Arrays.asList("a/1", "a/2", "a/b/"), page.getKeys());
+        assertFalse(page.isTruncated());
+
+        assertEquals(Arrays.asList("a/", "b/"), storage.list("bucket", null, "/", null).getKeys());
+        assertEquals(Arrays.asList("a/b/3", "b/1"), storage.list("bucket", null, null, "a/2").getKeys());
+    }
+
+    private String put(String bucketName, String key, byte[] content) throws StorageException {
+        return storage.put(bucketName, key, new StoredObject(new ByteArrayInputStream(content), content.length,
+                "application/json", null));
+    }
+
+    private static byte[] readFully(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        for (int read = inputStream.read(buffer); read >= 0; read = inputStream.read(buffer)) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+}
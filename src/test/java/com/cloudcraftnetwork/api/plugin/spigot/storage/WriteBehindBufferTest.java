@@ -0,0 +1,187 @@
+/*
+ * This file is part of the CloudCraftNetwork, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Matthew Broomfield <m0pt0pmatt17@gmail.com>
+ * Copyright (c) cloudcraftnetwork.com
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.cloudcraftnetwork.api.plugin.spigot.storage;
+
+import com.cloudcraftnetwork.api.plugin.spigot.concurrent.StripedLocks;
+import com.cloudcraftnetwork.api.plugin.spigot.info.CloudCraftNetworkInfo;
+import com.cloudcraftnetwork.api.plugin.spigot.info.PetInfo;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class WriteBehindBufferTest {
+
+    private final StripedLocks locks = new StripedLocks(16);
+
+    @Test
+    public void latestPutWinsAndIsUploadedOnce() {
+        List<CloudCraftNetworkInfo> uploaded = new ArrayList<>();
+        WriteBehindBuffer buffer = new WriteBehindBuffer(object -> uploaded.add(object), locks::get);
+        UUID id = UUID.randomUUID();
+        PetInfo first = new PetInfo(id, "dog");
+        PetInfo second = new PetInfo(id, "dog");
+        second.setName("Rex");
+
+        buffer.add(first);
+        buffer.add(second);
+        assertEquals(1, buffer.size());
+        assertSame(second, buffer.get(second.createKey()).get());
+
+        assertEquals(0, buffer.flush());
+        assertEquals(1, uploaded.size());
+        assertSame(second, uploaded.get(0));
+        assertEquals(0, buffer.size());
+        assertFalse(buffer.get(second.createKey()).isPresent());
+    }
+
+    @Test
+    public void failedUploadStaysBuffered() {
+        AtomicBoolean available = new AtomicBoolean(false);
+        WriteBehindBuffer buffer = new WriteBehindBuffer(object -> available.get(), locks::get);
+        PetInfo pet = new PetInfo(UUID.randomUUID(), "dog");
+
+        buffer.add(pet);
+        assertEquals(1, buffer.flush());
+        assertFalse(buffer.flush(pet.createKey()));
+        assertSame(pet, buffer.get(pet.createKey()).get());
+
+        available.set(true);
+        assertTrue(buffer.flush(pet.createKey()));
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void putDuringUploadStaysBuffered() {
+        UUID id = UUID.randomUUID();
+        PetInfo newer = new PetInfo(id, "dog");
+        newer.setName("Rex");
+        WriteBehindBuffer[] buffer = new WriteBehindBuffer[1];
+        Predicate<CloudCraftNetworkInfo> uploader = object -> {
+            if (object != newer) {
+                // Another thread replaces the object while it is being uploaded
+                buffer[0].add(newer);
+            }
+            return true;
+        };
+        buffer[0] = new WriteBehindBuffer(uploader, locks::get);
+
+        buffer[0].add(new PetInfo(id, "dog"));
+        assertTrue(buffer[0].flush(newer.createKey()));
+        assertSame(newer, buffer[0].get(newer.createKey()).get());
+
+        assertTrue(buffer[0].flush(newer.createKey()));
+        assertEquals(0, buffer[0].size());
+    }
+
+    @Test
+    public void discardedObjectIsNotUploaded() {
+        List<CloudCraftNetworkInfo> uploaded = new ArrayList<>();
+        WriteBehindBuffer buffer = new WriteBehindBuffer(object -> uploaded.add(object), locks::get);
+        PetInfo pet = new PetInfo(UUID.randomUUID(), "dog");
+
+        buffer.add(pet);
+        buffer.discard(pet.createKey());
+        assertTrue(buffer.flush(pet.createKey()));
+        assertEquals(0, buffer.flush());
+        assertTrue(uploaded.isEmpty());
+    }
+
+    @Test
+    public void fullFlushUploadsKeysInParallel() throws Exception {
+        CountDownLatch bothUploading = new CountDownLatch(2);
+        Set<CloudCraftNetworkInfo> uploaded = ConcurrentHashMap.newKeySet();
+        Predicate<CloudCraftNetworkInfo> uploader = object -> {
+            bothUploading.countDown();
+            try {
+                // Each upload waits for the other, so a serial flush would fail both
+                if (!bothUploading.await(5, TimeUnit.SECONDS)) {
+                    return false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            return uploaded.add(object);
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            WriteBehindBuffer buffer = new WriteBehindBuffer(uploader, locks::get, executor, 2);
+            buffer.add(new PetInfo(UUID.randomUUID(), "dog"));
+            buffer.add(new PetInfo(UUID.randomUUID(), "dog"));
+
+            assertEquals(0, buffer.flush());
+            assertEquals(2, uploaded.size());
+            assertEquals(0, buffer.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void fullFlushSkipsHelpersOfABusyExecutor() throws Exception {
+        List<CloudCraftNetworkInfo> uploaded = new ArrayList<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // Occupy the only executor thread, so the helper of the flush never starts
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            WriteBehindBuffer buffer = new WriteBehindBuffer(object -> {
+                synchronized (uploaded) {
+                    return uploaded.add(object);
+                }
+            }, locks::get, executor, 2);
+            buffer.add(new PetInfo(UUID.randomUUID(), "dog"));
+            buffer.add(new PetInfo(UUID.randomUUID(), "dog"));
+
+            assertEquals(0, buffer.flush());
+            assertEquals(2, uploaded.size());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}